@@ -0,0 +1,24 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.Writer;
+
+/**
+ * A writer that discards everything written to it, so that benchmarks measure rendering and not I/O.
+ */
+public class DiscardingWriter extends Writer {
+
+	@Override
+	public void write(char[] cbuf, int off, int len) {
+		// discard
+	}
+
+	@Override
+	public void flush() {
+		// noop
+	}
+
+	@Override
+	public void close() {
+		// noop
+	}
+}
@@ -0,0 +1,303 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * An embedded HTTP server that imitates the nexus endpoints used by {@link ArtifactChecker},
+ * with configurable latency and error rate.
+ * <ul>
+ * <li>{@code /service/rest/v1/search} answers Nexus 3 component searches, in pages with continuation tokens,
+ * for one artifact or for every artifact of a groupId
+ * <li>{@code /maven2/.../maven-metadata.xml} lists the versions of an artifact, as a maven repository does
+ * <li>every other path answers the per-version check with HTTP 200
+ * </ul>
+ * Versions registered with {@link #publish(String, String, String)} are returned by searches. Other artifacts
+ * have a few releases derived from the hash of their name. A groupId search lists the artifacts that were published,
+ * or registered with {@link #derive(String, String)}, in that group.
+ */
+public class NexusStub implements AutoCloseable {
+
+	/** The path of the search REST API */
+	public static final String SEARCH_PATH = "/service/rest/v1/search";
+	/** The path used as the base projects url */
+	public static final String BROWSE_PATH = "/#browse/search=";
+	/** The path of the maven repository */
+	public static final String MAVEN_PATH = "/maven2";
+	/** The file name of the maven repository artifact metadata */
+	private static final String MAVEN_METADATA = "/maven-metadata.xml";
+	/** Components per search page, as nexus returns */
+	private static final int PAGE_SIZE = 50;
+	/** Content type of search results */
+	private static final String JSON = "application/json";
+	/** Content type of maven metadata */
+	private static final String XML = "text/xml";
+	/** Content type of other responses */
+	private static final String TEXT = "text/plain";
+	/** Factory for the search result generator */
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	static {
+		// without this, the JDK server's separate header and body writes wait on delayed ACKs (about 40ms per response)
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+	}
+
+	/** The server */
+	private HttpServer server;
+	/** The request handler threads */
+	private ExecutorService executor;
+	/** Milliseconds added to every response */
+	private int latencyMillis;
+	/** Maximum random milliseconds added to the latency */
+	private int jitterMillis;
+	/** The fraction of requests that fail with HTTP 500 */
+	private double errorRate;
+	/** The published versions, keyed by groupId:artifactId */
+	private Map<String, List<String>> published = new ConcurrentHashMap<>();
+	/** The artifactIds that groupId searches list, keyed by groupId */
+	private Map<String, Set<String>> groups = new ConcurrentHashMap<>();
+	/** The number of requests received */
+	private AtomicLong requests = new AtomicLong();
+	/** The number of requests answered with an error */
+	private AtomicLong errors = new AtomicLong();
+
+	/**
+	 * Start the stub on an ephemeral port of the loopback address.
+	 *
+	 * @param latencyMillis - milliseconds added to every response
+	 * @param jitterMillis - maximum random milliseconds added to the latency
+	 * @param errorRate - the fraction of requests that fail with HTTP 500, 0 to 1
+	 * @param threads - the number of request handler threads
+	 * @throws IOException - the server could not be started
+	 */
+	public NexusStub(int latencyMillis, int jitterMillis, double errorRate, int threads) throws IOException {
+		this.latencyMillis = latencyMillis;
+		this.jitterMillis = jitterMillis;
+		this.errorRate = errorRate;
+		this.executor = Executors.newFixedThreadPool(Math.max(1, threads));
+		this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		this.server.createContext("/", this::handle);
+		this.server.setExecutor(executor);
+		this.server.start();
+	}
+
+	/**
+	 * Publish a version of an artifact, so that searches return it.
+	 *
+	 * @param groupId - the groupId
+	 * @param artifactId - the artifactId
+	 * @param version - the version, SNAPSHOT versions are returned with a timestamp as nexus does
+	 */
+	public void publish(String groupId, String artifactId, String version) {
+		published.computeIfAbsent(groupId + ":" + artifactId, k -> new ArrayList<>()).add(version);
+		derive(groupId, artifactId);
+	}
+
+	/**
+	 * Register an artifact, so that groupId searches list it, with its derived releases if no version is published.
+	 *
+	 * @param groupId - the groupId
+	 * @param artifactId - the artifactId
+	 */
+	public void derive(String groupId, String artifactId) {
+		groups.computeIfAbsent(groupId, k -> new ConcurrentSkipListSet<>()).add(artifactId);
+	}
+
+	/**
+	 * The url to use for versions.nexus.base-projects-url.
+	 *
+	 * @return String - the url
+	 */
+	public String getBaseProjectsUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + BROWSE_PATH;
+	}
+
+	/**
+	 * The url to use for versions.nexus.search-url.
+	 *
+	 * @return String - the url
+	 */
+	public String getSearchUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + SEARCH_PATH;
+	}
+
+	/**
+	 * The url to use as a maven repository in versions.repositories.
+	 *
+	 * @return String - the url
+	 */
+	public String getMavenUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + MAVEN_PATH;
+	}
+
+	/**
+	 * The number of requests received so far.
+	 *
+	 * @return long - the count
+	 */
+	public long getRequests() {
+		return requests.get();
+	}
+
+	/**
+	 * The number of requests answered with an error so far.
+	 *
+	 * @return long - the count
+	 */
+	public long getErrors() {
+		return errors.get();
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Answer a request after the configured latency.
+	 */
+	private void handle(HttpExchange exchange) throws IOException {
+		requests.incrementAndGet();
+		try {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			Thread.sleep(latencyMillis + (jitterMillis > 0 ? random.nextInt(jitterMillis + 1) : 0));
+			if (random.nextDouble() < errorRate) {
+				errors.incrementAndGet();
+				respond(exchange, 500, TEXT, "stub error".getBytes(StandardCharsets.UTF_8));
+			} else if (SEARCH_PATH.equals(exchange.getRequestURI().getPath())) {
+				respond(exchange, 200, JSON, search(query(exchange.getRequestURI().getRawQuery())));
+			} else if (exchange.getRequestURI().getPath().startsWith(MAVEN_PATH + "/")
+					&& exchange.getRequestURI().getPath().endsWith(MAVEN_METADATA)) {
+				respond(exchange, 200, XML, metadata(exchange.getRequestURI().getPath()));
+			} else {
+				respond(exchange, 200, TEXT, "ok".getBytes(StandardCharsets.UTF_8));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * The versions of an artifact, as published, or else derived from the hash of its name.
+	 */
+	private List<String> versions(String groupId, String artifactId) {
+		List<String> versions = published.get(groupId + ":" + artifactId);
+		if (versions == null) {
+			versions = new ArrayList<>();
+			int releases = 1 + Math.abs(artifactId.hashCode() % 5);
+			for (int i = 0; i < releases; i++) {
+				versions.add("1." + i + ".0");
+			}
+		}
+		return versions;
+	}
+
+	/**
+	 * Build one page of search results, for one artifact, or for every artifact of the group
+	 * if the query has no artifactId.
+	 */
+	private byte[] search(Map<String, String> query) throws IOException {
+		String groupId = query.getOrDefault("maven.groupId", "");
+		String artifactId = query.get("maven.artifactId");
+		// each component as {artifactId, version}
+		List<String[]> components = new ArrayList<>();
+		for (String name : artifactId == null ? groups.getOrDefault(groupId, Collections.emptySet())
+				: Collections.singleton(artifactId)) {
+			for (String version : versions(groupId, name)) {
+				components.add(new String[] { name, version });
+			}
+		}
+		int page = Integer.parseInt(query.getOrDefault("continuationToken", "0"));
+		int end = Math.min(components.size(), (page + 1) * PAGE_SIZE);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (JsonGenerator json = JSON_FACTORY.createGenerator(out)) {
+			json.writeStartObject();
+			json.writeArrayFieldStart("items");
+			for (int i = page * PAGE_SIZE; i < end; i++) {
+				String version = components.get(i)[1];
+				json.writeStartObject();
+				json.writeStringField("repository", version.endsWith("-SNAPSHOT") ? "snapshots" : "releases");
+				json.writeStringField("format", "maven2");
+				json.writeStringField("group", groupId);
+				json.writeStringField("name", components.get(i)[0]);
+				json.writeStringField("version", version.replace("-SNAPSHOT", "-20181010.101010-" + (1 + i)));
+				json.writeEndObject();
+			}
+			json.writeEndArray();
+			json.writeStringField("continuationToken", end < components.size() ? String.valueOf(page + 1) : null);
+			json.writeEndObject();
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Build the maven-metadata.xml of the artifact in the path, e.g. /maven2/gov/va/ascent/project-1/maven-metadata.xml.
+	 * SNAPSHOT versions are listed as #.#.#-SNAPSHOT, as in a maven repository.
+	 */
+	private byte[] metadata(String path) {
+		String artifactPath = path.substring(MAVEN_PATH.length() + 1, path.length() - MAVEN_METADATA.length());
+		int slash = artifactPath.lastIndexOf('/');
+		String groupId = slash < 0 ? "" : artifactPath.substring(0, slash).replace('/', '.');
+		String artifactId = artifactPath.substring(slash + 1);
+		StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<metadata>\n")
+				.append("  <groupId>").append(groupId).append("</groupId>\n")
+				.append("  <artifactId>").append(artifactId).append("</artifactId>\n")
+				.append("  <versioning>\n    <versions>\n");
+		for (String version : versions(groupId, artifactId)) {
+			xml.append("      <version>").append(version).append("</version>\n");
+		}
+		xml.append("    </versions>\n    <lastUpdated>20181010101010</lastUpdated>\n  </versioning>\n</metadata>\n");
+		return xml.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Decode the query string parameters.
+	 */
+	private static Map<String, String> query(String rawQuery) throws UnsupportedEncodingException {
+		Map<String, String> params = new HashMap<>();
+		if (rawQuery != null) {
+			for (String pair : rawQuery.split("&")) {
+				int eq = pair.indexOf('=');
+				if (eq > 0) {
+					params.put(URLDecoder.decode(pair.substring(0, eq), "UTF-8"),
+							URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+				}
+			}
+		}
+		return params;
+	}
+
+	private static void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", contentType);
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gov.va.ascent.tools.versions.model.Version;
+
+/**
+ * Benchmarks for extracting the project, parent and dependency versions from a POM,
+ * as done by {@link PomVersionsParser} for every project that is not in the POM index.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PomReaderBenchmark {
+
+	/** small: a few dependencies, typical: a service project, huge: a large BOM */
+	@Param({ "small", "typical", "huge" })
+	public String size;
+
+	/** The generated pom.xml content */
+	private byte[] pom;
+	/** The reader, as created for each project by the parser */
+	private PomReader reader = new PomReader(Paths.get("benchmark"));
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		String[] workspace = { "ascent-framework", "ascent-platform", "ascent-libraries-parent", "vetservices-refdata" };
+		int dependencies = "small".equals(size) ? 3 : "typical".equals(size) ? 40 : 2000;
+		int managed = "small".equals(size) ? 0 : "typical".equals(size) ? 25 : 1000;
+		pom = SyntheticPoms.pom(random, "benchmark-" + size, "1.0.0-SNAPSHOT", "ascent-libraries-parent",
+				"0.0.9-SNAPSHOT", dependencies, managed, workspace).getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public Version read() throws XMLStreamException {
+		return reader.read(new ByteArrayInputStream(pom));
+	}
+}
@@ -0,0 +1,84 @@
+package gov.va.ascent.tools.versions;
+
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gov.va.ascent.tools.utils.BufferedReportSink;
+import gov.va.ascent.tools.versions.model.PomTags;
+import gov.va.ascent.tools.versions.model.Version;
+
+/**
+ * Benchmarks for rendering the text report of a workspace.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReporterBenchmark {
+
+	/** The number of dependencies of each project */
+	private static final int DEPENDENCIES = 12;
+
+	/** The number of projects in the workspace */
+	@Param({ "10", "100", "1000" })
+	public int projects;
+
+	/** The scanned workspace */
+	private Map<String, Version> versions = new TreeMap<>();
+	/** The text report writer, which discards its output */
+	private List<ReportListener> listeners;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		for (int i = 0; i < projects; i++) {
+			String artifactId = "project-" + i;
+			Version project = new Version(Paths.get(artifactId), null, SyntheticPoms.GROUP_ID, artifactId,
+					SyntheticPoms.version(random), random.nextBoolean());
+			if (i > 0) {
+				project.setParent(new Version(Paths.get(artifactId), PomTags.PARENT, SyntheticPoms.GROUP_ID, "project-0",
+						SyntheticPoms.version(random), Boolean.TRUE));
+			}
+			for (int d = 0; d < DEPENDENCIES; d++) {
+				boolean workspace = random.nextInt(3) == 0;
+				project.getDependencies().add(new Version(Paths.get(artifactId),
+						d % 4 == 0 ? PomTags.DEPENDENCY_MANAGEMENT : PomTags.DEPENDENCIES,
+						workspace ? SyntheticPoms.GROUP_ID : "org.example",
+						workspace ? "project-" + random.nextInt(projects) : "library-" + d,
+						SyntheticPoms.version(random), workspace ? Boolean.TRUE : null));
+			}
+			versions.put("/workspace/" + artifactId, project);
+		}
+		// reused for every invocation, as the report is, so only the rendering is measured
+		listeners = Collections.singletonList(new TextReportWriter(new BufferedReportSink(new DiscardingWriter())));
+	}
+
+	@Benchmark
+	public void buildReport() {
+		Reporter.buildReport(versions, "/workspace", listeners);
+	}
+
+	@Benchmark
+	public Map<String, List<String>> renderSections() {
+		return Reporter.renderSections(versions);
+	}
+}
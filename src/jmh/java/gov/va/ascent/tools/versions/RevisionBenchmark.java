@@ -0,0 +1,67 @@
+package gov.va.ascent.tools.versions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gov.va.ascent.tools.versions.model.AgeIndicator;
+import gov.va.ascent.tools.versions.model.Revision;
+
+/**
+ * Benchmarks for parsing and comparing revisions, which is done for every version in every POM.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RevisionBenchmark {
+
+	/** The number of generated versions, a power of 2 */
+	private static final int SIZE = 1024;
+
+	/** Generated versions with a realistic mix of formats */
+	private String[] versions = new String[SIZE];
+	/** Revisions of the generated versions that could be parsed */
+	private Revision[] revisions;
+	/** Position in the arrays, so each invocation works on different data */
+	private int next;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		List<Revision> parsed = new ArrayList<>();
+		for (int i = 0; i < SIZE; i++) {
+			versions[i] = SyntheticPoms.version(random);
+			Revision revision = RevisionParser.parseRevision(versions[i]);
+			if (revision != null) {
+				parsed.add(revision);
+			}
+		}
+		revisions = parsed.toArray(new Revision[parsed.size()]);
+	}
+
+	@Benchmark
+	public Revision parseRevision() {
+		return RevisionParser.parseRevision(versions[next++ & (SIZE - 1)]);
+	}
+
+	@Benchmark
+	public AgeIndicator compare() {
+		int i = next++ % revisions.length;
+		return revisions[i].compare(revisions[(i + 1) % revisions.length]);
+	}
+}
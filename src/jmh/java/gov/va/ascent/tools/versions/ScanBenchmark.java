@@ -0,0 +1,197 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import gov.va.ascent.tools.utils.BufferedReportSink;
+import gov.va.ascent.tools.versions.model.Version;
+
+/**
+ * End-to-end load test of the Versions pipeline (scan, nexus checks and report) against a generated workspace
+ * and a local {@link NexusStub}, comparing serial and concurrent configurations.
+ * <p>
+ * Run from the benchmarks jar:<br/>
+ * {@code java -cp target/benchmarks.jar gov.va.ascent.tools.versions.ScanBenchmark --projects=500 --threads=1,4,16}
+ * <p>
+ * Arguments, all optional:
+ * <ul>
+ * <li>{@code --projects=200} top level projects to generate, every tenth also has two subprojects
+ * <li>{@code --dependencies=20} dependencies per POM
+ * <li>{@code --threads=1,4,16} scan thread counts to compare
+ * <li>{@code --max-connections=8} pooled connections to the stub
+ * <li>{@code --latency-millis=20}, {@code --jitter-millis=10}, {@code --error-rate=0} stub behavior
+ * <li>{@code --retries=2} times a failed request is retried; the circuit breaker is off, so errors never stop the run
+ * <li>{@code --batch} search once per artifact instead of checking each version
+ * <li>{@code --maven} in batch mode, read the maven-metadata.xml of each artifact instead of searching
+ * <li>{@code --rounds=3}, {@code --warmup=1} measured and unmeasured runs of each configuration
+ * <li>{@code --verbose} show the output of each run
+ * </ul>
+ */
+public class ScanBenchmark {
+
+	/** The result of one measured configuration */
+	private static class Result {
+		int threads;
+		int projects;
+		List<Long> nanos = new ArrayList<>();
+		long requests;
+		long errors;
+	}
+
+	/**
+	 * ScanBenchmark is a command line program, do not instantiate it.
+	 */
+	private ScanBenchmark() {
+		throw new IllegalAccessError("ScanBenchmark is a command line program, do not instantiate it.");
+	}
+
+	/**
+	 * Generate the workspace, start the stub, and run each configuration.
+	 *
+	 * @param args - the command line arguments
+	 * @throws IOException - problem generating the workspace or starting the stub
+	 */
+	public static void main(String[] args) throws IOException {
+		int projects = intArg(args, "--projects=", 200);
+		int dependencies = intArg(args, "--dependencies=", 20);
+		String[] threads = stringArg(args, "--threads=", "1,4,16").split(",");
+		int maxConnections = intArg(args, "--max-connections=", ArtifactChecker.DEFAULT_MAX_PER_ROUTE);
+		int latency = intArg(args, "--latency-millis=", 20);
+		int jitter = intArg(args, "--jitter-millis=", 10);
+		double errorRate = Double.parseDouble(stringArg(args, "--error-rate=", "0"));
+		int retries = intArg(args, "--retries=", ArtifactChecker.DEFAULT_RETRIES);
+		boolean maven = hasArg(args, "--maven");
+		boolean batch = maven || hasArg(args, "--batch");
+		int rounds = intArg(args, "--rounds=", 3);
+		int warmup = intArg(args, "--warmup=", 1);
+		boolean verbose = hasArg(args, "--verbose");
+
+		Path gitHome = Files.createTempDirectory("versions-benchmark");
+		WorkspaceGenerator workspace = new WorkspaceGenerator(gitHome, projects, dependencies, 42L).generate();
+		System.out.println("Generated " + workspace.getProjectCount() + " projects in " + gitHome);
+
+		ArtifactChecker.configure(ArtifactChecker.DEFAULT_CONNECT_TIMEOUT, ArtifactChecker.DEFAULT_READ_TIMEOUT,
+				maxConnections);
+		ArtifactChecker.configureRetries(retries, ArtifactChecker.DEFAULT_RETRY_BACKOFF, 0, ArtifactChecker.DEFAULT_BREAKER_OPEN);
+		List<Result> results = new ArrayList<>();
+		try (NexusStub stub = new NexusStub(latency, jitter, errorRate, Math.max(maxConnections, 4))) {
+			workspace.getProjectVersions()
+					.forEach((artifactId, version) -> stub.publish(SyntheticPoms.GROUP_ID, artifactId, version));
+			workspace.getThirdPartyArtifacts()
+					.forEach((groupId, artifactIds) -> artifactIds.forEach(artifactId -> stub.derive(groupId, artifactId)));
+			for (String count : threads) {
+				Result result = new Result();
+				result.threads = Integer.parseInt(count.trim());
+				for (int i = 0; i < warmup + rounds; i++) {
+					long requests = stub.getRequests();
+					long errors = stub.getErrors();
+					long start = System.nanoTime();
+					result.projects = run(gitHome, workspace.getExtraProjects(), stub, batch, maven, result.threads,
+							verbose);
+					if (i >= warmup) {
+						result.nanos.add(System.nanoTime() - start);
+						result.requests += stub.getRequests() - requests;
+						result.errors += stub.getErrors() - errors;
+					}
+				}
+				results.add(result);
+			}
+		} finally {
+			ArtifactChecker.close();
+			delete(gitHome);
+		}
+
+		System.out.println();
+		System.out.println(String.format("Scan benchmark: %d projects, %d dependencies, %s, %d connections, "
+				+ "stub latency %d+%dms, error rate %.3f, %d rounds", workspace.getProjectCount(), dependencies,
+				maven ? "maven metadata" : batch ? "batch" : "per version", maxConnections, latency, jitter, errorRate, rounds));
+		System.out.println(String.format("%8s %10s %10s %10s %12s %10s %8s", "threads", "projects", "mean ms", "best ms",
+				"projects/s", "requests", "errors"));
+		for (Result result : results) {
+			double mean = result.nanos.stream().mapToLong(Long::longValue).average().orElse(0) / TimeUnit.MILLISECONDS.toNanos(1);
+			double best = Collections.min(result.nanos) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+			System.out.println(String.format("%8d %10d %10.1f %10.1f %12.1f %10d %8d", result.threads, result.projects,
+					mean, best, result.projects / (mean / 1000), result.requests / rounds, result.errors / rounds));
+		}
+	}
+
+	/**
+	 * Run the pipeline once: scan the workspace, check nexus, and render the report.
+	 *
+	 * @return int - the number of projects scanned
+	 */
+	private static int run(Path gitHome, Map<String, List<String>> extraProjects, NexusStub stub, boolean batch,
+			boolean maven, int threads, boolean verbose) {
+		PrintStream console = System.out;
+		if (!verbose) {
+			System.setOut(new PrintStream(new OutputStream() {
+				@Override
+				public void write(int b) {
+					// discard
+				}
+
+				@Override
+				public void write(byte[] b, int off, int len) {
+					// discard
+				}
+			}));
+		}
+		try {
+			PomVersionsParser parser = new PomVersionsParser(new TreeMap<>(Comparator.comparing(String::toString)),
+					extraProjects, gitHome.toString(), stub.getBaseProjectsUrl(), batch ? stub.getSearchUrl() : null,
+					threads, null, null);
+			if (maven) {
+				parser.setRepositories("maven:" + stub.getMavenUrl());
+			}
+			Map<String, Version> versions = parser.processProjectDirectories();
+			try (ReportListener text = new TextReportWriter(new BufferedReportSink(new DiscardingWriter()))) {
+				Reporter.buildReport(versions, parser.getNexusVersions(), gitHome.toString(), Collections.singletonList(text));
+			}
+			return versions.size();
+		} finally {
+			System.setOut(console);
+		}
+	}
+
+	/**
+	 * Delete the generated workspace.
+	 */
+	private static void delete(Path gitHome) throws IOException {
+		try (Stream<Path> paths = Files.walk(gitHome)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	private static boolean hasArg(String[] args, String name) {
+		for (String arg : args) {
+			if (name.equals(arg)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String stringArg(String[] args, String prefix, String defaultValue) {
+		for (String arg : args) {
+			if (arg.startsWith(prefix)) {
+				return arg.substring(prefix.length());
+			}
+		}
+		return defaultValue;
+	}
+
+	private static int intArg(String[] args, String prefix, int defaultValue) {
+		return Integer.parseInt(stringArg(args, prefix, String.valueOf(defaultValue)));
+	}
+}
@@ -0,0 +1,175 @@
+package gov.va.ascent.tools.versions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates realistic pom.xml content and version strings for benchmarks.
+ * <p>
+ * Generation is seeded, so every run of a benchmark works on the same data.
+ */
+public class SyntheticPoms {
+
+	/** The groupId of generated workspace projects */
+	public static final String GROUP_ID = "gov.va.ascent";
+	/** Third party groupIds used for generated dependencies */
+	private static final String[] THIRD_PARTY_GROUPS =
+			{ "org.springframework.boot", "org.apache.commons", "com.fasterxml.jackson.core", "io.springfox", "junit" };
+	/** The groupId of the build plugin in every POM */
+	private static final String PLUGIN_GROUP_ID = "org.apache.maven.plugins";
+	/** The artifactId of the build plugin in every POM */
+	private static final String PLUGIN_ARTIFACT_ID = "maven-compiler-plugin";
+	/** Dependency scopes, in rough proportion to their use */
+	private static final String[] SCOPES = { null, null, null, "test", "provided", "runtime" };
+
+	/**
+	 * SyntheticPoms is a static class, do not instantiate it.
+	 */
+	private SyntheticPoms() {
+		throw new IllegalAccessError("SyntheticPoms is a static class, do not instantiate it.");
+	}
+
+	/**
+	 * Generate a version with the mix found in a real workspace: mostly releases and snapshots,
+	 * with some qualifiers, four part versions and unresolved properties.
+	 *
+	 * @param random - the seeded random source
+	 * @return String - the version
+	 */
+	public static String version(Random random) {
+		String base = random.nextInt(6) + "." + random.nextInt(20) + "." + random.nextInt(40);
+		int kind = random.nextInt(20);
+		if (kind < 8) {
+			return base;
+		} else if (kind < 15) {
+			return base + "-SNAPSHOT";
+		} else if (kind == 15) {
+			return base + ".RELEASE";
+		} else if (kind == 16) {
+			return base + "-RC" + (1 + random.nextInt(3));
+		} else if (kind == 17) {
+			return base + "." + random.nextInt(10);
+		} else if (kind == 18) {
+			return base + "-M" + (1 + random.nextInt(5)) + "-SNAPSHOT";
+		}
+		return "${dependency" + random.nextInt(10) + ".version}";
+	}
+
+	/**
+	 * Generate a pom.xml with a parent, properties, dependencies, managed dependencies and build plugins.
+	 *
+	 * @param random - the seeded random source
+	 * @param artifactId - the artifactId of the project
+	 * @param version - the version of the project
+	 * @param parentArtifactId - the artifactId of the parent project in the same group, or {@code null} for no parent
+	 * @param parentVersion - the version of the parent project
+	 * @param dependencies - the number of &lt;dependencies&gt;
+	 * @param managed - the number of &lt;dependencyManagement&gt; dependencies
+	 * @param workspaceArtifactIds - artifactIds of workspace projects that dependencies may refer to
+	 * @return String - the pom.xml content
+	 */
+	public static String pom(Random random, String artifactId, String version, String parentArtifactId, String parentVersion,
+			int dependencies, int managed, String[] workspaceArtifactIds) {
+		StringBuilder pom = new StringBuilder(1024 + (dependencies + managed) * 220);
+		pom.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+				.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\"")
+				.append(" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n")
+				.append("\txsi:schemaLocation=\"http://maven.apache.org/POM/4.0.0 http://maven.apache.org/xsd/maven-4.0.0.xsd\">\n")
+				.append("\t<modelVersion>4.0.0</modelVersion>\n\n");
+		if (parentArtifactId != null) {
+			pom.append("\t<parent>\n");
+			coordinates(pom, "\t\t", GROUP_ID, parentArtifactId, parentVersion);
+			pom.append("\t\t<relativePath>../").append(parentArtifactId).append("</relativePath>\n")
+					.append("\t</parent>\n\n");
+		}
+		pom.append("\t<groupId>").append(GROUP_ID).append("</groupId>\n")
+				.append("\t<artifactId>").append(artifactId).append("</artifactId>\n")
+				.append("\t<version>").append(version).append("</version>\n")
+				.append("\t<name>${project.artifactId}</name>\n")
+				.append("\t<!-- generated for benchmarks -->\n")
+				.append("\t<description>Synthetic project ").append(artifactId).append("</description>\n\n")
+				.append("\t<properties>\n")
+				.append("\t\t<project.build.sourceEncoding>UTF-8</project.build.sourceEncoding>\n");
+		for (int i = 0; i < 10; i++) {
+			pom.append("\t\t<dependency").append(i).append(".version>").append(random.nextInt(6)).append('.')
+					.append(random.nextInt(20)).append('.').append(random.nextInt(40)).append("</dependency").append(i)
+					.append(".version>\n");
+		}
+		pom.append("\t</properties>\n\n");
+
+		if (managed > 0) {
+			pom.append("\t<dependencyManagement>\n\t\t<dependencies>\n");
+			for (int i = 0; i < managed; i++) {
+				dependency(pom, "\t\t\t", random, workspaceArtifactIds, i);
+			}
+			pom.append("\t\t</dependencies>\n\t</dependencyManagement>\n\n");
+		}
+		if (dependencies > 0) {
+			pom.append("\t<dependencies>\n");
+			for (int i = 0; i < dependencies; i++) {
+				dependency(pom, "\t\t", random, workspaceArtifactIds, i);
+			}
+			pom.append("\t</dependencies>\n\n");
+		}
+
+		pom.append("\t<build>\n\t\t<plugins>\n\t\t\t<plugin>\n")
+				.append("\t\t\t\t<groupId>").append(PLUGIN_GROUP_ID).append("</groupId>\n")
+				.append("\t\t\t\t<artifactId>").append(PLUGIN_ARTIFACT_ID).append("</artifactId>\n")
+				.append("\t\t\t\t<version>3.8.0</version>\n")
+				.append("\t\t\t\t<configuration>\n\t\t\t\t\t<source>1.8</source>\n\t\t\t\t\t<target>1.8</target>\n")
+				.append("\t\t\t\t</configuration>\n\t\t\t</plugin>\n\t\t</plugins>\n\t</build>\n")
+				.append("</project>\n");
+		return pom.toString();
+	}
+
+	/**
+	 * The third party artifacts that generated POMs may refer to, in dependencies and build plugins.
+	 *
+	 * @param dependencies - the most &lt;dependencies&gt; in a generated POM
+	 * @return Map&lt;String, List&lt;String&gt;&gt; - artifactIds keyed by groupId
+	 */
+	public static Map<String, List<String>> thirdPartyArtifacts(int dependencies) {
+		Map<String, List<String>> artifacts = new LinkedHashMap<>();
+		for (String groupId : THIRD_PARTY_GROUPS) {
+			List<String> artifactIds = new ArrayList<>();
+			for (int i = 0; i < dependencies; i++) {
+				artifactIds.add("library-" + i);
+			}
+			artifacts.put(groupId, artifactIds);
+		}
+		artifacts.put(PLUGIN_GROUP_ID, Collections.singletonList(PLUGIN_ARTIFACT_ID));
+		return artifacts;
+	}
+
+	/**
+	 * Append a dependency, on a workspace project about a third of the time, otherwise on a third party artifact.
+	 */
+	private static void dependency(StringBuilder pom, String indent, Random random, String[] workspaceArtifactIds, int index) {
+		pom.append(indent).append("<dependency>\n");
+		if (workspaceArtifactIds != null && workspaceArtifactIds.length > 0 && random.nextInt(3) == 0) {
+			coordinates(pom, indent + "\t", GROUP_ID, workspaceArtifactIds[random.nextInt(workspaceArtifactIds.length)],
+					version(random));
+		} else {
+			coordinates(pom, indent + "\t", THIRD_PARTY_GROUPS[random.nextInt(THIRD_PARTY_GROUPS.length)],
+					"library-" + index, version(random));
+		}
+		String scope = SCOPES[random.nextInt(SCOPES.length)];
+		if (scope != null) {
+			pom.append(indent).append("\t<scope>").append(scope).append("</scope>\n");
+		}
+		pom.append(indent).append("</dependency>\n");
+	}
+
+	/**
+	 * Append groupId, artifactId and version elements.
+	 */
+	private static void coordinates(StringBuilder pom, String indent, String groupId, String artifactId, String version) {
+		pom.append(indent).append("<groupId>").append(groupId).append("</groupId>\n")
+				.append(indent).append("<artifactId>").append(artifactId).append("</artifactId>\n")
+				.append(indent).append("<version>").append(version).append("</version>\n");
+	}
+}
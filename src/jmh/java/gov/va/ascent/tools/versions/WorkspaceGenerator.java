@@ -0,0 +1,184 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Generates a synthetic GIT_HOME workspace of projects for load testing the Versions pipeline.
+ * <p>
+ * The first project is the parent of the other top level projects. Every tenth project also has
+ * second-level subprojects, declared the same way as the versions.projects.second-level property.
+ * Generation is seeded, so the same arguments always generate the same workspace.
+ */
+public class WorkspaceGenerator {
+
+	/** Every n-th project has second-level subprojects */
+	private static final int SUBPROJECT_INTERVAL = 10;
+	/** The names of the subprojects, appended to the project name */
+	private static final String[] SUBPROJECT_SUFFIXES = { "-parent", "-service" };
+
+	/** The GIT_HOME directory of the workspace */
+	private Path gitHome;
+	/** The number of top level projects */
+	private int projects;
+	/** The number of &lt;dependencies&gt; in each POM */
+	private int dependencies;
+	/** The seeded random source */
+	private Random random;
+
+	/** The subprojects of each project that has them, as for versions.projects.second-level */
+	private Map<String, List<String>> extraProjects = new LinkedHashMap<>();
+	/** The artifactIds of all generated projects */
+	private List<String> artifactIds = new ArrayList<>();
+	/** The version of each generated project, keyed by artifactId */
+	private Map<String, String> projectVersions = new LinkedHashMap<>();
+
+	/**
+	 * Prepare to generate a workspace.
+	 *
+	 * @param gitHome - the directory to generate the projects in, which is created if necessary
+	 * @param projects - the number of top level projects, at least 1
+	 * @param dependencies - the number of &lt;dependencies&gt; in each POM, half as many are also managed
+	 * @param seed - the random seed
+	 */
+	public WorkspaceGenerator(Path gitHome, int projects, int dependencies, long seed) {
+		this.gitHome = gitHome;
+		this.projects = Math.max(1, projects);
+		this.dependencies = dependencies;
+		this.random = new Random(seed);
+	}
+
+	/**
+	 * Write the projects.
+	 *
+	 * @return WorkspaceGenerator - this generator
+	 * @throws IOException - problem writing a POM
+	 */
+	public WorkspaceGenerator generate() throws IOException {
+		// names and versions first, so dependencies can refer to any project
+		for (int i = 0; i < projects; i++) {
+			String name = "project-" + i;
+			addProject(name);
+			if (i > 0 && i % SUBPROJECT_INTERVAL == 0) {
+				List<String> subprojects = new ArrayList<>();
+				for (String suffix : SUBPROJECT_SUFFIXES) {
+					subprojects.add(name + suffix);
+					addProject(name + suffix);
+				}
+				extraProjects.put(name, subprojects);
+			}
+		}
+		String[] workspace = artifactIds.toArray(new String[artifactIds.size()]);
+		String root = artifactIds.get(0);
+
+		writePom(gitHome.resolve(root), root, null, workspace);
+		for (int i = 1; i < projects; i++) {
+			String name = "project-" + i;
+			Path dir = gitHome.resolve(name);
+			writePom(dir, name, root, workspace);
+			for (String subproject : extraProjects.getOrDefault(name, new ArrayList<>())) {
+				writePom(dir.resolve(subproject), subproject, name, workspace);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * The subprojects of each project that has them.
+	 *
+	 * @return Map&lt;String, List&lt;String&gt;&gt; - subproject names, keyed by project name
+	 */
+	public Map<String, List<String>> getExtraProjects() {
+		return extraProjects;
+	}
+
+	/**
+	 * The subprojects, in the format of the versions.projects.second-level property.
+	 *
+	 * @return String - the property value
+	 */
+	public String getSecondLevelProperty() {
+		return extraProjects.entrySet().stream()
+				.map(e -> e.getKey() + "[" + String.join("|", e.getValue()) + "]")
+				.collect(Collectors.joining(","));
+	}
+
+	/**
+	 * The version of each generated project.
+	 *
+	 * @return Map&lt;String, String&gt; - versions keyed by artifactId
+	 */
+	public Map<String, String> getProjectVersions() {
+		return projectVersions;
+	}
+
+	/**
+	 * The third party artifacts that the generated projects may depend on.
+	 *
+	 * @return Map&lt;String, List&lt;String&gt;&gt; - artifactIds keyed by groupId
+	 */
+	public Map<String, List<String>> getThirdPartyArtifacts() {
+		return SyntheticPoms.thirdPartyArtifacts(dependencies);
+	}
+
+	/**
+	 * The number of generated projects, including subprojects.
+	 *
+	 * @return int - the count
+	 */
+	public int getProjectCount() {
+		return artifactIds.size();
+	}
+
+	/**
+	 * Choose a version for a project. Projects are mostly snapshots, as in a development workspace.
+	 */
+	private void addProject(String artifactId) {
+		artifactIds.add(artifactId);
+		String version = random.nextInt(4) == 0
+				? random.nextInt(3) + "." + random.nextInt(10) + "." + random.nextInt(20)
+				: "0." + random.nextInt(3) + "." + random.nextInt(20) + "-SNAPSHOT";
+		projectVersions.put(artifactId, version);
+	}
+
+	/**
+	 * Write the POM of a project.
+	 */
+	private void writePom(Path dir, String artifactId, String parentArtifactId, String[] workspace) throws IOException {
+		Files.createDirectories(dir);
+		String pom = SyntheticPoms.pom(random, artifactId, projectVersions.get(artifactId), parentArtifactId,
+				parentArtifactId == null ? null : projectVersions.get(parentArtifactId), dependencies, dependencies / 2,
+				workspace);
+		Files.write(dir.resolve("pom.xml"), pom.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Generate a workspace from the command line, e.g. to run the Versions program against it.
+	 * <p>
+	 * Arguments: {@code <directory> [projects] [dependencies] [seed]}
+	 *
+	 * @param args - the command line arguments
+	 * @throws IOException - problem writing a POM
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.out.println("Usage: WorkspaceGenerator <directory> [projects=100] [dependencies=20] [seed=42]");
+			return;
+		}
+		WorkspaceGenerator generator = new WorkspaceGenerator(Paths.get(args[0]),
+				args.length > 1 ? Integer.parseInt(args[1]) : 100,
+				args.length > 2 ? Integer.parseInt(args[2]) : 20,
+				args.length > 3 ? Long.parseLong(args[3]) : 42L).generate();
+		System.out.println("Generated " + generator.getProjectCount() + " projects in " + args[0]);
+		System.out.println("versions.projects.second-level=" + generator.getSecondLevelProperty());
+	}
+}
@@ -0,0 +1,177 @@
+package gov.va.ascent.tools;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.commons.lang3.StringUtils;
+
+import gov.va.ascent.tools.utils.Out;
+import gov.va.ascent.tools.utils.Severity;
+import gov.va.ascent.tools.versions.BuildGraph;
+import gov.va.ascent.tools.versions.BuildRunner;
+
+/**
+ * Build all the projects in GIT_HOME in parallel, in the order worked out by {@link BuildOrder}
+ * from their pom.xml files.
+ * <p>
+ * Each project is built as soon as all of the GIT_HOME projects it depends on have been built,
+ * with at most versions.build.concurrency builds at once. The output of each build is written to
+ * its own log file. If a build fails, the projects that depend on it are not built.
+ * A timing summary with the critical path is printed at the end.
+ * <p>
+ * java -cp target/ascent-developer.jar gov.va.ascent.tools.BuildAll . [--concurrency=4] [--command="mvn clean install"]
+ */
+public class BuildAll {
+
+	/** Property name for the command run in each project directory */
+	private static final String PROPS_COMMAND = "versions.build.command";
+	/** Property name for the maximum number of builds that run at once */
+	private static final String PROPS_CONCURRENCY = "versions.build.concurrency";
+	/** Property name for the directory the per-project build logs are written to */
+	private static final String PROPS_LOG_DIRECTORY = "versions.build.log-directory";
+	/** The command run in each project directory if there is no property */
+	private static final String DEFAULT_COMMAND = "mvn clean install";
+	/**
+	 * The directory under the home directory for the build logs if there is no property.
+	 * Not under GIT_HOME, where every directory is scanned as a project.
+	 */
+	private static final String DEFAULT_LOG_DIRECTORY = ".ascent-developer/build-logs";
+
+	/** Command line argument to override the command run in each project directory */
+	private static final String ARG_COMMAND = "--command=";
+	/** Command line argument to override the maximum number of builds that run at once */
+	private static final String ARG_CONCURRENCY = "--concurrency=";
+	/** Command line argument to override the directory the build logs are written to */
+	private static final String ARG_LOG_DIRECTORY = "--log-directory=";
+
+	/** The path to the git directory */
+	private String gitHomePath;
+	/** The names of additional projects to process */
+	private Map<String, List<String>> extraProjects;
+	/** The number of threads used to scan projects, 1 for a serial scan */
+	private int scanThreads = 1;
+	/** The file in which parsed POMs are indexed between runs, or {@code null} */
+	private Path indexFile;
+	/** If {@code true}, ignore the POM index */
+	private boolean fullScan = false;
+	/** The command and its arguments, run in each project directory */
+	private List<String> command;
+	/** The maximum number of builds that run at once */
+	private int concurrency = 1;
+	/** The directory the per-project build logs are written to */
+	private Path logDirectory;
+
+	/**
+	 * Do not instantiate
+	 */
+	private BuildAll() {
+		// noop
+	}
+
+	/**
+	 * Run the BuildAll program from the ascent-developer directory:<br/>
+	 * {@code java -cp target/ascent-developer.jar gov.va.ascent.tools.BuildAll .}
+	 * <p>
+	 * Exits with status 1 if any project was not built successfully.
+	 *
+	 * @param args - arguments passed in from the command line
+	 */
+	public static void main(String[] args) {
+		if (!new BuildAll().runMe(args)) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Entry point for running the program in the instantiated BuildAll object.
+	 *
+	 * @param args - arguments passed in from the command line
+	 * @return boolean - {@code true} if every project was built successfully
+	 */
+	private boolean runMe(String[] args) {
+		gitHomePath = Versions.gitHomePath();
+		Properties props = Versions.loadProperties();
+		extraProjects = Versions.readExtraProjects(props);
+		scanThreads = Versions.readNumber(props, Versions.PROPS_THREADS, 1);
+		indexFile = Versions.readPath(props, Versions.PROPS_INDEX_FILE);
+		command = splitCommand(props.getProperty(PROPS_COMMAND, ""));
+		concurrency = Versions.readNumber(props, PROPS_CONCURRENCY, 1);
+		logDirectory = Versions.readPath(props, PROPS_LOG_DIRECTORY);
+		if (logDirectory == null) {
+			logDirectory = Paths.get(System.getProperty("user.home"), DEFAULT_LOG_DIRECTORY);
+		}
+		readArguments(args);
+
+		BuildGraph graph = new BuildGraph(BuildOrder.readProjects(gitHomePath, extraProjects, scanThreads, indexFile, fullScan),
+				gitHomePath);
+		for (List<BuildGraph.Edge> cycle : graph.getCycles()) {
+			Out.println(0, Severity.ERROR, "Dependency cycle, these projects will not be built:");
+			for (BuildGraph.Edge edge : cycle) {
+				Out.println(1, edge.toString());
+			}
+		}
+
+		BuildRunner runner = new BuildRunner(graph, Paths.get(gitHomePath), command, concurrency, logDirectory);
+		Out.println("");
+		Out.println("Building " + graph.getProjects().size() + " projects with \"" + String.join(" ", command) + "\", "
+				+ concurrency + " at a time, logs in " + logDirectory.toAbsolutePath());
+		boolean success;
+		try {
+			success = runner.run();
+		} catch (IOException e) {
+			throw new RuntimeException("Could not create the build log directory " + logDirectory, e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted, the running builds were stopped", e);
+		}
+		Out.println("");
+		Out.println("Build summary:");
+		for (String line : runner.summary()) {
+			Out.println(line.isEmpty() ? 0 : 1, line);
+		}
+		return success;
+	}
+
+	/**
+	 * Split a command into its arguments on whitespace.
+	 *
+	 * @param value - the command, or blank for the default command
+	 * @return List&lt;String&gt; - the command and its arguments
+	 */
+	private static List<String> splitCommand(String value) {
+		return Arrays.asList(StringUtils.isBlank(value) ? DEFAULT_COMMAND.split(" ") : value.trim().split("\\s+"));
+	}
+
+	/**
+	 * Apply any command line arguments that override values from versions.properties.
+	 * Arguments that are not recognized (e.g. the "." directory argument) are ignored.
+	 *
+	 * @param args - arguments passed in from the command line
+	 */
+	private void readArguments(String[] args) {
+		if (args == null) {
+			return;
+		}
+		for (String arg : args) {
+			if (arg == null) {
+				continue;
+			}
+			if (arg.startsWith(Versions.ARG_THREADS)) {
+				scanThreads = Versions.parseNumber(arg.substring(Versions.ARG_THREADS.length()), arg + " argument");
+			} else if (Versions.ARG_FULL_SCAN.equals(arg)) {
+				fullScan = true;
+			} else if (arg.startsWith(ARG_COMMAND)) {
+				command = splitCommand(arg.substring(ARG_COMMAND.length()));
+			} else if (arg.startsWith(ARG_CONCURRENCY)) {
+				concurrency = Versions.parseNumber(arg.substring(ARG_CONCURRENCY.length()), arg + " argument");
+			} else if (arg.startsWith(ARG_LOG_DIRECTORY)) {
+				logDirectory = Paths.get(arg.substring(ARG_LOG_DIRECTORY.length()));
+			}
+		}
+	}
+}
@@ -0,0 +1,271 @@
+package gov.va.ascent.tools;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+
+import gov.va.ascent.tools.utils.Out;
+import gov.va.ascent.tools.utils.Severity;
+import gov.va.ascent.tools.versions.BuildGraph;
+import gov.va.ascent.tools.versions.ImpactIndex;
+import gov.va.ascent.tools.versions.PomIndex;
+import gov.va.ascent.tools.versions.PomVersionsParser;
+import gov.va.ascent.tools.versions.model.PomTags;
+import gov.va.ascent.tools.versions.model.Version;
+
+/**
+ * Work out the order in which the projects in GIT_HOME must be built, from the parent and dependency
+ * references in their pom.xml files, instead of the hand-maintained maven-build-projects.txt.
+ * <p>
+ * The projects are grouped into waves. The projects in a wave depend only on projects in earlier waves,
+ * so they can be built in parallel. Dependency cycles are reported with the references that form them.
+ * <p>
+ * With --impact=groupId:artifactId, lists the projects affected by a change to the artifact instead,
+ * and the directories to rebuild, in build order.
+ * <p>
+ * Uses the same versions.properties as {@link Versions} for the subprojects, scan threads and POM index.
+ * Nexus is not checked.
+ * <p>
+ * java -cp target/ascent-developer.jar gov.va.ascent.tools.BuildOrder . [--order-file=maven-build-projects.txt]
+ */
+public class BuildOrder {
+
+	/** Command line argument to write the ordered project list, in the format of maven-build-projects.txt */
+	private static final String ARG_ORDER_FILE = "--order-file=";
+	/** Command line argument to write the projects grouped into waves */
+	private static final String ARG_WAVES_FILE = "--waves-file=";
+	/** Command line argument to list the projects affected by a change to an artifact, given as groupId:artifactId */
+	private static final String ARG_IMPACT = "--impact=";
+	/** Nanoseconds per millisecond, for the query time */
+	private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+	/** Prefix of the wave header lines in the waves file */
+	private static final String WAVE_HEADER = "# wave ";
+	/** Header of the projects that cannot be ordered in the waves file */
+	private static final String UNORDERED_HEADER = "# not ordered, in or depends on a dependency cycle";
+
+	/** The path to the git directory */
+	private String gitHomePath;
+	/** The names of additional projects to process */
+	private Map<String, List<String>> extraProjects;
+	/** The number of threads used to scan projects, 1 for a serial scan */
+	private int scanThreads = 1;
+	/** The file in which parsed POMs are indexed between runs, or {@code null} */
+	private Path indexFile;
+	/** If {@code true}, ignore the POM index */
+	private boolean fullScan = false;
+	/** The file the ordered project list is written to, or {@code null} */
+	private Path orderFile;
+	/** The file the waves are written to, or {@code null} */
+	private Path wavesFile;
+	/** The groupId:artifactId to list the affected projects of, or {@code null} to list the build order */
+	private String impact;
+
+	/**
+	 * Do not instantiate
+	 */
+	private BuildOrder() {
+		// noop
+	}
+
+	/**
+	 * Run the BuildOrder program from the ascent-developer directory:<br/>
+	 * {@code java -cp target/ascent-developer.jar gov.va.ascent.tools.BuildOrder .}
+	 *
+	 * @param args - arguments passed in from the command line
+	 */
+	public static void main(String[] args) {
+		new BuildOrder().runMe(args);
+	}
+
+	/**
+	 * Entry point for running the program in the instantiated BuildOrder object.
+	 *
+	 * @param args - arguments passed in from the command line
+	 */
+	private void runMe(String[] args) {
+		gitHomePath = Versions.gitHomePath();
+		Properties props = Versions.loadProperties();
+		extraProjects = Versions.readExtraProjects(props);
+		scanThreads = Versions.readNumber(props, Versions.PROPS_THREADS, 1);
+		indexFile = Versions.readPath(props, Versions.PROPS_INDEX_FILE);
+		readArguments(args);
+
+		Map<String, Version> versions = readProjects(gitHomePath, extraProjects, scanThreads, indexFile, fullScan);
+		BuildGraph graph = new BuildGraph(versions, gitHomePath);
+		if (impact != null) {
+			printImpact(new ImpactIndex(versions, gitHomePath), graph);
+			return;
+		}
+		List<String> waves = waveLines(graph);
+		Out.println("");
+		Out.println("Build order:");
+		for (String line : waves) {
+			Out.println(line.startsWith("#") ? 0 : 1, line);
+		}
+		for (List<BuildGraph.Edge> cycle : graph.getCycles()) {
+			Out.println(0, Severity.ERROR, "Dependency cycle:");
+			for (BuildGraph.Edge edge : cycle) {
+				Out.println(1, edge.toString());
+			}
+		}
+		if (orderFile != null) {
+			// projects that cannot be ordered must still be built, so they go last
+			List<String> order = graph.getOrder();
+			order.addAll(graph.getUnordered());
+			write(orderFile, order);
+		}
+		if (wavesFile != null) {
+			write(wavesFile, waves);
+		}
+	}
+
+	/**
+	 * Parse the POMs of the projects in GIT_HOME, without checking nexus.
+	 *
+	 * @param gitHomePath - the value of system GIT_HOME environment variable
+	 * @param extraProjects - any sub-projects to be parsed with their base project
+	 * @param scanThreads - the number of worker threads, 1 or less for a serial scan
+	 * @param indexFile - the file in which parsed POMs are indexed between runs, or {@code null}
+	 * @param fullScan - if {@code true}, ignore the POM index
+	 * @return Map&lt;String, Version&gt; - the projects, keyed by absolute project path
+	 */
+	static Map<String, Version> readProjects(String gitHomePath, Map<String, List<String>> extraProjects, int scanThreads,
+			Path indexFile, boolean fullScan) {
+		PomIndex pomIndex = null;
+		if (indexFile != null) {
+			pomIndex = new PomIndex(indexFile, fullScan);
+			pomIndex.load();
+		}
+		Map<String, Version> versions = new TreeMap<>(Comparator.comparing(String::toString));
+		PomVersionsParser parser = new PomVersionsParser(versions, extraProjects, gitHomePath, null, null, scanThreads, null,
+				pomIndex);
+		return parser.processProjectDirectories();
+	}
+
+	/**
+	 * Print the projects affected by a change to the --impact artifact, and the directories to rebuild in build order.
+	 * The rebuild list is written to the order file, if there is one.
+	 *
+	 * @param index - the reverse dependencies of the workspace projects
+	 * @param graph - the sorted build graph
+	 */
+	private void printImpact(ImpactIndex index, BuildGraph graph) {
+		String[] coordinates = impact.split(":");
+		if (coordinates.length != 2) {
+			throw new RuntimeException("Invalid " + ARG_IMPACT + " argument, expected groupId:artifactId");
+		}
+		long start = System.nanoTime();
+		ImpactIndex.Impact found = index.impact(coordinates[0].trim(), coordinates[1].trim());
+		List<String> projects = found.getProjects();
+		long nanos = System.nanoTime() - start;
+
+		Out.println("");
+		Out.println("Projects affected by a change to " + impact + String.format(" (%.3f ms):", nanos / NANOS_PER_MILLI));
+		Set<String> directories = new HashSet<>();
+		if (found.getChangedProject() != null) {
+			directories.add(Paths.get(found.getChangedProject()).getName(0).toString());
+		}
+		for (String project : projects) {
+			PomTags reference = found.getReference(project);
+			// as in the versions report, e.g. "managed" for a <dependencyManagement> reference
+			Out.println(1, project + (reference == null ? " (through another project)"
+					: " (" + StringUtils.removeEnd(reference.getOutputPrefix().trim(), ":") + ")"));
+			directories.add(Paths.get(project).getName(0).toString());
+		}
+		if (projects.isEmpty()) {
+			Out.println(1, "none");
+		}
+
+		// the same order as a full build, without the projects that are not affected
+		List<String> rebuild = new ArrayList<>();
+		for (String directory : graph.getOrder()) {
+			if (directories.contains(directory)) {
+				rebuild.add(directory);
+			}
+		}
+		for (String directory : graph.getUnordered()) {
+			if (directories.contains(directory)) {
+				rebuild.add(directory);
+			}
+		}
+		Out.println("");
+		Out.println("Rebuild order:");
+		for (String directory : rebuild) {
+			Out.println(1, directory);
+		}
+		if (orderFile != null) {
+			write(orderFile, rebuild);
+		}
+	}
+
+	/**
+	 * The projects grouped into waves, each wave after a header line,
+	 * followed by any projects that cannot be ordered.
+	 *
+	 * @param graph - the sorted build graph
+	 * @return List&lt;String&gt; - the lines
+	 */
+	private static List<String> waveLines(BuildGraph graph) {
+		List<String> lines = new ArrayList<>();
+		int number = 0;
+		for (List<String> wave : graph.getWaves()) {
+			lines.add(WAVE_HEADER + ++number);
+			lines.addAll(wave);
+		}
+		if (!graph.getUnordered().isEmpty()) {
+			lines.add(UNORDERED_HEADER);
+			lines.addAll(graph.getUnordered());
+		}
+		return lines;
+	}
+
+	private static void write(Path file, List<String> lines) {
+		try {
+			Files.write(file, lines, StandardCharsets.UTF_8);
+			Out.println("Written to " + file.toAbsolutePath());
+		} catch (IOException e) {
+			Out.println(0, Severity.ERROR, "Could not write " + file, e);
+		}
+	}
+
+	/**
+	 * Apply any command line arguments that override values from versions.properties.
+	 * Arguments that are not recognized (e.g. the "." directory argument) are ignored.
+	 *
+	 * @param args - arguments passed in from the command line
+	 */
+	private void readArguments(String[] args) {
+		if (args == null) {
+			return;
+		}
+		for (String arg : args) {
+			if (arg == null) {
+				continue;
+			}
+			if (arg.startsWith(Versions.ARG_THREADS)) {
+				scanThreads = Versions.parseNumber(arg.substring(Versions.ARG_THREADS.length()), arg + " argument");
+			} else if (Versions.ARG_FULL_SCAN.equals(arg)) {
+				fullScan = true;
+			} else if (arg.startsWith(ARG_ORDER_FILE)) {
+				orderFile = Paths.get(arg.substring(ARG_ORDER_FILE.length()));
+			} else if (arg.startsWith(ARG_IMPACT)) {
+				impact = arg.substring(ARG_IMPACT.length()).trim();
+			} else if (arg.startsWith(ARG_WAVES_FILE)) {
+				wavesFile = Paths.get(arg.substring(ARG_WAVES_FILE.length()));
+			}
+		}
+	}
+}
@@ -2,6 +2,9 @@ package gov.va.ascent.tools;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -12,10 +15,21 @@ import java.util.TreeMap;
 
 import org.apache.commons.lang3.StringUtils;
 
+import gov.va.ascent.tools.utils.BufferedReportSink;
 import gov.va.ascent.tools.utils.Out;
+import gov.va.ascent.tools.utils.RunMetrics;
 import gov.va.ascent.tools.utils.Severity;
+import gov.va.ascent.tools.versions.ArtifactChecker;
+import gov.va.ascent.tools.versions.CsvReportWriter;
+import gov.va.ascent.tools.versions.JsonLinesReportWriter;
+import gov.va.ascent.tools.versions.NexusResultStore;
+import gov.va.ascent.tools.versions.PomIndex;
 import gov.va.ascent.tools.versions.PomVersionsParser;
+import gov.va.ascent.tools.versions.ReportListener;
 import gov.va.ascent.tools.versions.Reporter;
+import gov.va.ascent.tools.versions.TextReportWriter;
+import gov.va.ascent.tools.versions.VersionsWatcher;
+import gov.va.ascent.tools.versions.model.ArtifactVersions;
 import gov.va.ascent.tools.versions.model.Version;
 
 /**
@@ -36,14 +50,117 @@ public class Versions {
 	private static final String PROPS_NEXUS = "versions.nexus.base-projects-url";
 	/** Property name for any second level projects to be processed */
 	private static final String PROPS_2NDLEVEL = "versions.projects.second-level";
+	/** Property name for the number of threads used to scan projects */
+	static final String PROPS_THREADS = "versions.scan.threads";
+	/** Property name for the nexus search REST API url used for batch lookups */
+	private static final String PROPS_SEARCH_URL = "versions.nexus.search-url";
+	/** Property name to search nexus once per artifact instead of once per version */
+	private static final String PROPS_BATCH = "versions.nexus.batch";
+	/** Property name for milliseconds to wait for a connection to nexus */
+	private static final String PROPS_CONNECT_TIMEOUT = "versions.nexus.connect-timeout-millis";
+	/** Property name for milliseconds to wait for data from nexus */
+	private static final String PROPS_READ_TIMEOUT = "versions.nexus.read-timeout-millis";
+	/** Property name for the maximum number of pooled connections to nexus */
+	private static final String PROPS_MAX_CONNECTIONS = "versions.nexus.max-connections";
+	/** Property name for the number of times a failed nexus request is retried */
+	private static final String PROPS_RETRIES = "versions.nexus.retries";
+	/** Property name for milliseconds before the first retry of a failed nexus request */
+	private static final String PROPS_RETRY_BACKOFF = "versions.nexus.retry-backoff-millis";
+	/** Property name for consecutive failed nexus requests that stop all nexus requests */
+	private static final String PROPS_BREAKER_FAILURES = "versions.nexus.breaker.failures";
+	/** Property name for milliseconds before nexus is tried again once requests are stopped */
+	private static final String PROPS_BREAKER_OPEN = "versions.nexus.breaker.open-millis";
+	/** Property name for the file in which nexus results are saved between runs */
+	private static final String PROPS_CACHE_FILE = "versions.nexus.cache.file";
+	/** Property name for minutes that a cached SNAPSHOT result is valid */
+	private static final String PROPS_CACHE_SNAPSHOT_TTL = "versions.nexus.cache.snapshot-ttl-minutes";
+	/** Property name for minutes that a cached "not found" result is valid */
+	private static final String PROPS_CACHE_NEGATIVE_TTL = "versions.nexus.cache.negative-ttl-minutes";
+	/** Property name for the file in which parsed POMs are indexed between runs */
+	static final String PROPS_INDEX_FILE = "versions.scan.index-file";
+	/** Property name for the JSON file that run metrics are written to */
+	private static final String PROPS_METRICS_FILE = "versions.metrics.file";
+	/** Property name for the local maven repository, for parent POMs that are not in GIT_HOME */
+	static final String PROPS_LOCAL_REPOSITORY = "versions.maven.local-repository";
+	/** Property name to answer nexus lookups from the local maven repository only */
+	private static final String PROPS_OFFLINE = "versions.nexus.offline";
+	/** Property name to answer nexus lookups that fail from the local maven repository */
+	private static final String PROPS_LOCAL_FALLBACK = "versions.nexus.local-fallback";
+	/** Property name for the repositories to look up every artifact in, in priority order */
+	private static final String PROPS_REPOSITORIES = "versions.repositories";
+	/** Property name for milliseconds without file events before watch mode processes a batch of changes */
+	private static final String PROPS_WATCH_DEBOUNCE = "versions.watch.debounce-millis";
+	/** Default milliseconds without file events before watch mode processes a batch of changes */
+	private static final int DEFAULT_WATCH_DEBOUNCE = 500;
+	/** Default minutes that cached SNAPSHOT and "not found" results are valid */
+	private static final int DEFAULT_CACHE_TTL = 60;
+
+	/** Command line argument to override the number of threads used to scan projects */
+	static final String ARG_THREADS = "--threads=";
+	/** Command line argument to ignore saved nexus results and check everything again */
+	private static final String ARG_REFRESH = "--refresh";
+	/** Command line argument to search nexus once per artifact instead of once per version */
+	private static final String ARG_BATCH = "--batch";
+	/** Command line argument to answer nexus lookups from the local maven repository only */
+	private static final String ARG_OFFLINE = "--offline";
+	/** Command line argument to ignore the POM index and parse every POM */
+	static final String ARG_FULL_SCAN = "--full-scan";
+	/** Command line argument to keep running, and re-report projects as their POMs change */
+	private static final String ARG_WATCH = "--watch";
+	/** Command line argument to write the report to a file instead of standard out */
+	private static final String ARG_REPORT_FILE = "--report-file=";
+	/** Command line argument to also write the report as JSON Lines to a file */
+	private static final String ARG_REPORT_JSONL = "--report-jsonl=";
+	/** Command line argument to also write the report as CSV to a file */
+	private static final String ARG_REPORT_CSV = "--report-csv=";
+	/** Command line argument to write the run metrics to a JSON file */
+	private static final String ARG_METRICS_FILE = "--metrics-file=";
 
 	/** The path to the git directory */
 	private String gitHomePath;
 
 	/** The base Nexus URL for Ascent and VetServices projects */
 	String nexusUrl;
+	/** The nexus search REST API url used for batch lookups */
+	String nexusSearchUrl;
+	/** If {@code true}, search nexus once per artifact instead of once per version */
+	boolean batch = false;
 	/** The names of additional projects to process */
 	Map<String, List<String>> extraProjects = new HashMap<>();
+	/** The number of threads used to scan projects, 1 for a serial scan */
+	int scanThreads = 1;
+	/** The file in which nexus results are saved between runs, or {@code null} */
+	Path cacheFile;
+	/** Minutes that cached SNAPSHOT results are valid */
+	int cacheSnapshotTtl = DEFAULT_CACHE_TTL;
+	/** Minutes that cached "not found" results are valid */
+	int cacheNegativeTtl = DEFAULT_CACHE_TTL;
+	/** If {@code true}, ignore saved nexus results */
+	boolean refresh = false;
+	/** The file in which parsed POMs are indexed between runs, or {@code null} */
+	Path indexFile;
+	/** If {@code true}, ignore the POM index */
+	boolean fullScan = false;
+	/** If {@code true}, keep running and re-report projects as their POMs change */
+	boolean watch = false;
+	/** Milliseconds without file events before watch mode processes a batch of changes */
+	int watchDebounce = DEFAULT_WATCH_DEBOUNCE;
+	/** The file the report is written to, or {@code null} for standard out */
+	Path reportFile;
+	/** The file the JSON Lines report is written to, or {@code null} */
+	Path reportJsonlFile;
+	/** The file the CSV report is written to, or {@code null} */
+	Path reportCsvFile;
+	/** The file the run metrics are written to, or {@code null} */
+	Path metricsFile;
+	/** The local maven repository, or {@code null} to only use the projects in GIT_HOME */
+	Path localRepository;
+	/** If {@code true}, answer nexus lookups from the local repository only */
+	boolean offline = false;
+	/** If {@code true}, answer nexus lookups that fail from the local repository */
+	boolean localFallback = false;
+	/** The repositories to look up every artifact in, see {@link PomVersionsParser#setRepositories(String)}, or {@code null} for nexus only */
+	String repositories;
 
 	/** All the collection versioning information */
 	private Map<String, Version> versions = new TreeMap<>(Comparator.comparing(String::toString));
@@ -63,49 +180,234 @@ public class Versions {
 	 */
 	public static void main(String[] args) {
 //		gov.va.ascent.tools.utils.SystemUtils.printSystemProperties();
-		new Versions().runMe();
+		new Versions().runMe(args);
 	}
 
 	/**
 	 * Entry point for running the program in the instantiated Versions object.
 	 *
-	 * @throws IOException
+	 * @param args - arguments passed in from the command line
 	 */
-	private void runMe() {
+	@SuppressWarnings("try")
+	private void runMe(String[] args) {
 		readGitHomePath();
 		readProperties();
-		versions = new PomVersionsParser(this.versions, this.extraProjects, this.gitHomePath, this.nexusUrl)
-				.processProjectDirectories();
-		Reporter.buildReport(this.versions, this.gitHomePath);
+		readArguments(args);
+		if (batch && StringUtils.isBlank(nexusSearchUrl) && repositories == null) {
+			throw new RuntimeException("Batch mode requires the " + PROPS_SEARCH_URL + " property in versions.properties.");
+		}
+		if ((offline || localFallback) && localRepository == null) {
+			throw new RuntimeException("Offline mode and local fallback require the " + PROPS_LOCAL_REPOSITORY
+					+ " property in versions.properties.");
+		}
+
+		NexusResultStore resultStore = null;
+		if (cacheFile != null) {
+			resultStore = new NexusResultStore(cacheFile, cacheSnapshotTtl, cacheNegativeTtl, refresh);
+			resultStore.load();
+		}
+		PomIndex pomIndex = null;
+		if (indexFile != null) {
+			pomIndex = new PomIndex(indexFile, fullScan);
+			pomIndex.load();
+		}
+		try {
+			PomVersionsParser parser = new PomVersionsParser(this.versions, this.extraProjects, this.gitHomePath, this.nexusUrl,
+					this.batch ? this.nexusSearchUrl : null, this.scanThreads, resultStore, pomIndex);
+			parser.setLocalRepository(localRepository);
+			parser.setLocalRepositoryLookups(offline, localFallback);
+			try {
+				parser.setRepositories(repositories);
+			} catch (IllegalArgumentException e) {
+				throw new RuntimeException("Invalid " + PROPS_REPOSITORIES + " property in versions.properties: " + e.getMessage());
+			}
+			versions = parser.processProjectDirectories();
+			try (RunMetrics.Phase phase = parser.getMetrics().phase("write report")) {
+				writeReport(parser.getNexusVersions());
+			}
+			writeMetrics(parser.getMetrics());
+			if (watch) {
+				new VersionsWatcher(parser, this.versions, this.watchDebounce).watch();
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("While watching projects for POM changes", e);
+		} finally {
+			ArtifactChecker.close();
+		}
+	}
+
+	/**
+	 * Write the text report to the report file, or to standard out if there is no report file,
+	 * and any machine readable reports to their files, in one pass over the versions.
+	 *
+	 * @param nexusVersions - the versions found in nexus, keyed by groupId:artifactId
+	 */
+	private void writeReport(Map<String, ArtifactVersions> nexusVersions) {
+		List<ReportListener> listeners = new ArrayList<>();
+		List<Path> files = new ArrayList<>();
+		Throwable failure = null;
+		try {
+			listeners.add(new TextReportWriter(
+					reportFile == null ? BufferedReportSink.toStdout() : BufferedReportSink.toFile(reportFile)));
+			if (reportJsonlFile != null) {
+				listeners.add(JsonLinesReportWriter.toFile(reportJsonlFile));
+				files.add(reportJsonlFile);
+			}
+			if (reportCsvFile != null) {
+				listeners.add(CsvReportWriter.toFile(reportCsvFile));
+				files.add(reportCsvFile);
+			}
+			Reporter.buildReport(this.versions, nexusVersions, this.gitHomePath, listeners);
+		} catch (IOException e) {
+			failure = new RuntimeException("Could not open a report file", e);
+			throw (RuntimeException) failure;
+		} catch (RuntimeException | Error e) {
+			failure = e;
+			throw e;
+		} finally {
+			closeAll(listeners, failure);
+		}
+		if (reportFile != null) {
+			files.add(0, reportFile);
+		}
+		for (Path file : files) {
+			Out.println("Report written to " + file.toAbsolutePath());
+		}
+	}
+
+	/**
+	 * Close every report listener, even if closing one of them fails, so that the other reports are still written.
+	 *
+	 * @param listeners - the listeners to close
+	 * @param failure - the exception the report failed with, which close failures are added to as suppressed,
+	 *            or {@code null} if the report was written
+	 * @throws RuntimeException - the first close failure, if the report was written
+	 */
+	private static void closeAll(List<ReportListener> listeners, Throwable failure) {
+		RuntimeException closeFailure = null;
+		for (ReportListener listener : listeners) {
+			try {
+				listener.close();
+			} catch (RuntimeException e) {
+				if (failure != null) {
+					failure.addSuppressed(e);
+				} else if (closeFailure == null) {
+					closeFailure = e;
+				} else {
+					closeFailure.addSuppressed(e);
+				}
+			}
+		}
+		if (closeFailure != null) {
+			throw closeFailure;
+		}
+	}
+
+	/**
+	 * Print the run metrics table, and write the metrics file if there is one.
+	 *
+	 * @param metrics - the run metrics
+	 */
+	private void writeMetrics(RunMetrics metrics) {
+		Out.println("");
+		Out.println("Run metrics:");
+		for (String line : metrics.summary()) {
+			Out.println(line.isEmpty() ? 0 : 1, line);
+		}
+		if (metricsFile != null) {
+			try {
+				metrics.write(metricsFile);
+				Out.println("Metrics written to " + metricsFile.toAbsolutePath());
+			} catch (IOException e) {
+				Out.println(0, Severity.ERROR, "Could not write the metrics to " + metricsFile, e);
+			}
+		}
 	}
 
 	/**
 	 * Retrieve the GIT_HOME property from the host OS environment variables.
 	 */
 	private void readGitHomePath() {
-		gitHomePath = System.getenv("GIT_HOME");
-		if (StringUtils.isBlank(gitHomePath)) {
+		gitHomePath = gitHomePath();
+	}
+
+	/**
+	 * Get the GIT_HOME property from the host OS environment variables.
+	 *
+	 * @return String - the path to the git directory
+	 */
+	static String gitHomePath() {
+		String path = System.getenv("GIT_HOME");
+		if (StringUtils.isBlank(path)) {
 			Out.println(0, Severity.ERROR,
 					"Could not find environment variable \"GIT_HOME\". Please set the variable to your git directory and try again.");
 			throw new RuntimeException();
 		}
+		return path;
 	}
 
-	private void readProperties() {
+	/**
+	 * Load versions.properties from the classpath.
+	 *
+	 * @return Properties - the properties
+	 */
+	static Properties loadProperties() {
 		Properties props = new Properties();
 		// using getResourceAsStream instead of Files.newInputStream
 		// because Files.newInputStream does not instantiate a ZipFileSystemProvider to read from inside a JAR
-		try (InputStream in = this.getClass().getResourceAsStream(PROPERTIES_FILENAME)) {
+		try (InputStream in = Versions.class.getResourceAsStream(PROPERTIES_FILENAME)) {
 			props.load(in);
 		} catch (IOException e) {
 			throw new RuntimeException("While reading versions.properties", e);
 		}
+		return props;
+	}
+
+	private void readProperties() {
+		Properties props = loadProperties();
 
 		nexusUrl = props.getProperty(PROPS_NEXUS).trim();
 		if (StringUtils.isBlank(nexusUrl)) {
 			throw new RuntimeException("Cannot have empty " + PROPS_NEXUS + " property in versions.properties.");
 		}
 
+		nexusSearchUrl = props.getProperty(PROPS_SEARCH_URL, "").trim();
+		batch = Boolean.parseBoolean(props.getProperty(PROPS_BATCH, "false").trim());
+
+		extraProjects = readExtraProjects(props);
+
+		scanThreads = readNumber(props, PROPS_THREADS, 1);
+
+		cacheFile = readPath(props, PROPS_CACHE_FILE);
+		indexFile = readPath(props, PROPS_INDEX_FILE);
+		metricsFile = readPath(props, PROPS_METRICS_FILE);
+		localRepository = readPath(props, PROPS_LOCAL_REPOSITORY);
+		offline = Boolean.parseBoolean(props.getProperty(PROPS_OFFLINE, "false").trim());
+		localFallback = Boolean.parseBoolean(props.getProperty(PROPS_LOCAL_FALLBACK, "false").trim());
+		repositories = StringUtils.trimToNull(props.getProperty(PROPS_REPOSITORIES));
+		watchDebounce = readNumber(props, PROPS_WATCH_DEBOUNCE, DEFAULT_WATCH_DEBOUNCE);
+		cacheSnapshotTtl = readNumber(props, PROPS_CACHE_SNAPSHOT_TTL, DEFAULT_CACHE_TTL);
+		cacheNegativeTtl = readNumber(props, PROPS_CACHE_NEGATIVE_TTL, DEFAULT_CACHE_TTL);
+
+		ArtifactChecker.configure(
+				readNumber(props, PROPS_CONNECT_TIMEOUT, ArtifactChecker.DEFAULT_CONNECT_TIMEOUT),
+				readNumber(props, PROPS_READ_TIMEOUT, ArtifactChecker.DEFAULT_READ_TIMEOUT),
+				readNumber(props, PROPS_MAX_CONNECTIONS, ArtifactChecker.DEFAULT_MAX_PER_ROUTE));
+		ArtifactChecker.configureRetries(
+				readNonNegativeNumber(props, PROPS_RETRIES, ArtifactChecker.DEFAULT_RETRIES),
+				readNonNegativeNumber(props, PROPS_RETRY_BACKOFF, ArtifactChecker.DEFAULT_RETRY_BACKOFF),
+				readNonNegativeNumber(props, PROPS_BREAKER_FAILURES, ArtifactChecker.DEFAULT_BREAKER_FAILURES),
+				readNumber(props, PROPS_BREAKER_OPEN, ArtifactChecker.DEFAULT_BREAKER_OPEN));
+	}
+
+	/**
+	 * Read the second level projects to be processed from the properties.
+	 *
+	 * @param props - the properties read from versions.properties
+	 * @return Map&lt;String, List&lt;String&gt;&gt; - the subproject names, keyed by base project name
+	 */
+	static Map<String, List<String>> readExtraProjects(Properties props) {
+		Map<String, List<String>> extraProjects = new HashMap<>();
 		String secondLevel = props.getProperty(PROPS_2NDLEVEL).trim();
 		if (!StringUtils.isBlank(secondLevel)) {
 			String[] chunks = secondLevel.split(",");
@@ -123,5 +425,109 @@ public class Versions {
 				}
 			}
 		}
+		return extraProjects;
+	}
+
+	/**
+	 * Read an optional file path from the properties.
+	 * A leading ~ is replaced with the user's home directory.
+	 *
+	 * @param props - the properties read from versions.properties
+	 * @param name - the property name
+	 * @return Path - the path, or {@code null} if the property is blank or missing
+	 */
+	static Path readPath(Properties props, String name) {
+		String value = props.getProperty(name, "").trim();
+		if (StringUtils.isBlank(value)) {
+			return null;
+		}
+		// resources are filtered by maven, so the home directory is written as ~ instead of ${user.home}
+		return Paths.get(value.startsWith("~") ? System.getProperty("user.home") + value.substring(1) : value);
+	}
+
+	/**
+	 * Read an optional positive number from the properties.
+	 *
+	 * @param props - the properties read from versions.properties
+	 * @param name - the property name
+	 * @param defaultValue - the value to use if the property is blank or missing
+	 * @return int - the number
+	 */
+	static int readNumber(Properties props, String name, int defaultValue) {
+		String value = props.getProperty(name, "").trim();
+		return StringUtils.isBlank(value) ? defaultValue : parseNumber(value, name + " property in versions.properties");
+	}
+
+	/**
+	 * Read an optional number from the properties, where 0 is allowed (e.g. to turn a feature off).
+	 *
+	 * @param props - the properties read from versions.properties
+	 * @param name - the property name
+	 * @param defaultValue - the value to use if the property is blank or missing
+	 * @return int - the number, at least 0
+	 */
+	static int readNonNegativeNumber(Properties props, String name, int defaultValue) {
+		String value = props.getProperty(name, "").trim();
+		if (StringUtils.isBlank(value)) {
+			return defaultValue;
+		}
+		try {
+			return Math.max(0, Integer.parseInt(value));
+		} catch (NumberFormatException e) {
+			throw new RuntimeException("Invalid number in " + name + " property in versions.properties", e);
+		}
+	}
+
+	/**
+	 * Apply any command line arguments that override values from versions.properties.
+	 * Arguments that are not recognized (e.g. the "." directory argument) are ignored.
+	 *
+	 * @param args - arguments passed in from the command line
+	 */
+	private void readArguments(String[] args) {
+		if (args == null) {
+			return;
+		}
+		for (String arg : args) {
+			if (arg == null) {
+				continue;
+			}
+			if (arg.startsWith(ARG_THREADS)) {
+				scanThreads = parseNumber(arg.substring(ARG_THREADS.length()), arg + " argument");
+			} else if (ARG_REFRESH.equals(arg)) {
+				refresh = true;
+			} else if (ARG_BATCH.equals(arg)) {
+				batch = true;
+			} else if (ARG_OFFLINE.equals(arg)) {
+				offline = true;
+			} else if (ARG_FULL_SCAN.equals(arg)) {
+				fullScan = true;
+			} else if (ARG_WATCH.equals(arg)) {
+				watch = true;
+			} else if (arg.startsWith(ARG_REPORT_FILE)) {
+				reportFile = Paths.get(arg.substring(ARG_REPORT_FILE.length()));
+			} else if (arg.startsWith(ARG_REPORT_JSONL)) {
+				reportJsonlFile = Paths.get(arg.substring(ARG_REPORT_JSONL.length()));
+			} else if (arg.startsWith(ARG_REPORT_CSV)) {
+				reportCsvFile = Paths.get(arg.substring(ARG_REPORT_CSV.length()));
+			} else if (arg.startsWith(ARG_METRICS_FILE)) {
+				metricsFile = Paths.get(arg.substring(ARG_METRICS_FILE.length()));
+			}
+		}
+	}
+
+	/**
+	 * Parse a positive number.
+	 *
+	 * @param value - the number to parse
+	 * @param source - description of where the value came from, for the error message
+	 * @return int - the number, at least 1
+	 */
+	static int parseNumber(String value, String source) {
+		try {
+			return Math.max(1, Integer.parseInt(value.trim()));
+		} catch (NumberFormatException e) {
+			throw new RuntimeException("Invalid number in " + source, e);
+		}
 	}
 }
@@ -0,0 +1,121 @@
+package gov.va.ascent.tools.utils;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A {@link ReportSink} that writes the report to standard out or to a file through a fixed size buffer.
+ * <p>
+ * Unlike {@code System.out.println}, nothing is synchronized or flushed per line,
+ * and indentation is written from a shared array of spaces instead of new strings.
+ * The buffer is written out each time it fills, so memory use does not grow with the report,
+ * and the rest of the output is flushed when the sink is closed.
+ */
+public class BufferedReportSink implements ReportSink {
+
+	/** Size of the output buffer */
+	private static final int BUFFER_SIZE = 64 * 1024;
+	/** Spaces for indentation, extended when deeper indentation is needed */
+	private static char[] spaces = new char[16 * TAB_LEN];
+	static {
+		Arrays.fill(spaces, ' ');
+	}
+
+	/** The buffered destination */
+	private Writer writer;
+	/** The line separator of the platform */
+	private String lineSeparator = System.lineSeparator();
+
+	/**
+	 * Create a sink that writes to the writer.
+	 *
+	 * @param writer - the destination, which is buffered by this sink
+	 */
+	public BufferedReportSink(Writer writer) {
+		this.writer = new BufferedWriter(writer, BUFFER_SIZE);
+	}
+
+	/**
+	 * Create a sink that writes to standard out. Closing the sink flushes, but does not close, standard out.
+	 *
+	 * @return BufferedReportSink - the sink
+	 */
+	public static BufferedReportSink toStdout() {
+		// standard out must stay open for the rest of the program
+		return new BufferedReportSink(new OutputStreamWriter(new FilterOutputStream(System.out) {
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				out.write(b, off, len);
+			}
+
+			@Override
+			public void close() throws IOException {
+				flush();
+			}
+		}));
+	}
+
+	/**
+	 * Create a sink that writes a UTF-8 file, replacing any existing file.
+	 *
+	 * @param file - the file to write
+	 * @return BufferedReportSink - the sink
+	 * @throws IOException - problem creating the file
+	 */
+	public static BufferedReportSink toFile(Path file) throws IOException {
+		return new BufferedReportSink(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public ReportSink append(String text) {
+		if (text != null) {
+			try {
+				writer.write(text);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public ReportSink indent(int tabs) {
+		if (tabs > 0) {
+			int count = tabs * TAB_LEN;
+			char[] indentation = spaces;
+			if (indentation.length < count) {
+				indentation = new char[count];
+				Arrays.fill(indentation, ' ');
+				spaces = indentation;
+			}
+			try {
+				writer.write(indentation, 0, count);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public ReportSink newLine() {
+		return append(lineSeparator);
+	}
+
+	@Override
+	public void close() {
+		try {
+			writer.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
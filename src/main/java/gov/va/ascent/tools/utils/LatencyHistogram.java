@@ -0,0 +1,136 @@
+package gov.va.ascent.tools.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe histogram of operation latencies, for percentiles without keeping every sample.
+ * <p>
+ * Samples are counted in exponential buckets of microseconds, four buckets per doubling,
+ * so a percentile is accurate to within about 19%.
+ */
+public class LatencyHistogram {
+
+	/** Buckets per doubling of the latency */
+	private static final int BUCKETS_PER_DOUBLING = 4;
+	/** The number of buckets, enough for latencies of about an hour */
+	private static final int BUCKETS = 128;
+
+	/** Sample counts per bucket */
+	private AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	/** The number of samples */
+	private LongAdder count = new LongAdder();
+	/** The number of samples for operations that failed */
+	private LongAdder failures = new LongAdder();
+	/** The sum of all samples, in nanoseconds */
+	private LongAdder totalNanos = new LongAdder();
+	/** The largest sample, in nanoseconds */
+	private AtomicLong maxNanos = new AtomicLong();
+
+	/**
+	 * Record the latency of an operation.
+	 *
+	 * @param nanos - the latency in nanoseconds
+	 * @param failed - {@code true} if the operation failed
+	 */
+	public void record(long nanos, boolean failed) {
+		long value = Math.max(0, nanos);
+		buckets.incrementAndGet(bucket(value));
+		count.increment();
+		if (failed) {
+			failures.increment();
+		}
+		totalNanos.add(value);
+		maxNanos.accumulateAndGet(value, Math::max);
+	}
+
+	/**
+	 * Record the latency of an operation that started at {@code startNanos}.
+	 *
+	 * @param startNanos - the {@link System#nanoTime()} when the operation started
+	 * @param failed - {@code true} if the operation failed
+	 */
+	public void recordSince(long startNanos, boolean failed) {
+		record(System.nanoTime() - startNanos, failed);
+	}
+
+	/**
+	 * The number of recorded samples.
+	 *
+	 * @return long - the count
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * The number of recorded samples for operations that failed.
+	 *
+	 * @return long - the count
+	 */
+	public long getFailures() {
+		return failures.sum();
+	}
+
+	/**
+	 * The mean latency.
+	 *
+	 * @return double - the mean in milliseconds, 0 if there are no samples
+	 */
+	public double getMeanMillis() {
+		long n = getCount();
+		return n == 0 ? 0 : totalNanos.sum() / (double) n / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	/**
+	 * The largest latency.
+	 *
+	 * @return double - the maximum in milliseconds
+	 */
+	public double getMaxMillis() {
+		return maxNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	/**
+	 * The latency at or below which the given fraction of samples fall.
+	 *
+	 * @param fraction - the percentile as a fraction, e.g. 0.99
+	 * @return double - the upper bound of the percentile bucket in milliseconds, at most the maximum
+	 */
+	public double getPercentileMillis(double fraction) {
+		long n = getCount();
+		if (n == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(fraction * n));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += buckets.get(i);
+			if (seen >= rank) {
+				return Math.min(upperBoundMicros(i) / 1000, getMaxMillis());
+			}
+		}
+		return getMaxMillis();
+	}
+
+	/**
+	 * Get the bucket for a latency.
+	 */
+	private static int bucket(long nanos) {
+		long micros = nanos / 1000;
+		if (micros < 1) {
+			return 0;
+		}
+		double log2 = Math.log(micros) / Math.log(2);
+		return (int) Math.min(BUCKETS - 1, Math.ceil(log2 * BUCKETS_PER_DOUBLING));
+	}
+
+	/**
+	 * Get the largest latency counted in a bucket, in microseconds.
+	 */
+	private static double upperBoundMicros(int bucket) {
+		return Math.pow(2, bucket / (double) BUCKETS_PER_DOUBLING);
+	}
+}
@@ -0,0 +1,52 @@
+package gov.va.ascent.tools.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link ReportSink} that collects the report as a list of lines, for example to compare two reports.
+ */
+public class LinesReportSink implements ReportSink {
+
+	/** The completed lines */
+	private List<String> lines = new ArrayList<>();
+	/** The current line */
+	private StringBuilder line = new StringBuilder();
+
+	@Override
+	public ReportSink append(String text) {
+		if (text != null) {
+			line.append(text);
+		}
+		return this;
+	}
+
+	@Override
+	public ReportSink indent(int tabs) {
+		for (int i = tabs * TAB_LEN; i > 0; i--) {
+			line.append(' ');
+		}
+		return this;
+	}
+
+	@Override
+	public ReportSink newLine() {
+		lines.add(line.toString());
+		line.setLength(0);
+		return this;
+	}
+
+	/**
+	 * The completed lines. Text after the last new line is not included.
+	 *
+	 * @return List&lt;String&gt; - the lines
+	 */
+	public List<String> getLines() {
+		return lines;
+	}
+
+	@Override
+	public void close() {
+		// noop
+	}
+}
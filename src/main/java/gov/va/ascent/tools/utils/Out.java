@@ -48,15 +48,28 @@ public class Out {
 	}
 
 	public static String println(String indicator, int tabs, Severity severity, String message, Throwable t) {
+		String output = format(indicator, tabs, severity, message, t);
+		System.out.println(output);
+		return output;
+	}
+
+	/**
+	 * Format a line the same way as {@link #println(String, int, Severity, String, Throwable)}, without printing it.
+	 *
+	 * @param indicator - optional prefix before the indentation
+	 * @param tabs - the number of tabs to indent
+	 * @param severity - optional severity
+	 * @param message - the message
+	 * @param t - optional throwable, appended as a stack trace
+	 * @return String - the formatted line
+	 */
+	public static String format(String indicator, int tabs, Severity severity, String message, Throwable t) {
 		String throwable = t == null ? null : ExceptionUtils.getStackTrace(t);
-		String output = (indicator == null ? "" : indicator)
+		return (indicator == null ? "" : indicator)
 				+ (tabs < 1 ? "" : StringUtils.repeat(" ", tabs * TAB_LEN))
 				+ (severity == null ? "" : severity.toString() + ": ")
 				+ (message == null ? "" : message)
 				+ (throwable == null ? "" : "\\n" + throwable);
-
-		System.out.println(output);
-		return output;
 	}
 
 	public static String printlns(List<String> messages) {
@@ -68,18 +81,21 @@ public class Out {
 	}
 
 	public static String printlns(int tabs, Severity severity, List<String> messages) {
-		String outputs = "";
+		StringBuilder outputs = new StringBuilder();
 		if (messages != null && messages.size() > 0) {
 			for (String message : messages) {
 				String output = (tabs < 1 ? "" : StringUtils.repeat(" ", tabs * TAB_LEN))
 						+ (severity == null ? "" : severity.toString() + ": ")
 						+ (message == null ? "" : message);
 
-				outputs += (outputs.isEmpty() ? "" : "\\n") + output;
+				if (outputs.length() > 0) {
+					outputs.append("\\n");
+				}
+				outputs.append(output);
 				System.out.println(output);
 			}
 		}
-		return outputs;
+		return outputs.toString();
 	}
 
 	public static String print(String message) {
@@ -0,0 +1,87 @@
+package gov.va.ascent.tools.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A single console line that shows how many items are done, the throughput, and the time remaining.
+ * <p>
+ * On an interactive console the line is redrawn in place as items complete.
+ * Otherwise (e.g. when output is redirected to a file) only the final line is printed.
+ * The total may grow while work is in progress, for example as subprojects are discovered.
+ */
+public class Progress {
+
+	/** Minimum milliseconds between redraws of the line */
+	private static final long REDRAW_MILLIS = 200;
+
+	/** Text at the start of the line */
+	private String label;
+	/** If {@code true}, redraw the line as items complete */
+	private boolean interactive = System.console() != null;
+	/** When the work started, from {@link System#nanoTime()} */
+	private long startNanos = System.nanoTime();
+	/** When the line was last drawn, from {@link System#nanoTime()} */
+	private long drawnNanos;
+	/** The number of items to do */
+	private int total;
+	/** The number of items done */
+	private int done;
+	/** The length of the last line drawn, to blank out a longer previous line */
+	private int drawnLength;
+
+	/**
+	 * Start showing progress.
+	 *
+	 * @param label - text at the start of the line, e.g. "Parsing data from POMs"
+	 */
+	public Progress(String label) {
+		this.label = label;
+	}
+
+	/**
+	 * Add items to the total.
+	 *
+	 * @param items - the number of items
+	 */
+	public synchronized void add(int items) {
+		total += items;
+	}
+
+	/**
+	 * Record that an item is done, and redraw the line if it is time to.
+	 */
+	public synchronized void done() {
+		done++;
+		long now = System.nanoTime();
+		if (interactive && now - drawnNanos >= TimeUnit.MILLISECONDS.toNanos(REDRAW_MILLIS)) {
+			drawnNanos = now;
+			draw(false);
+		}
+	}
+
+	/**
+	 * Print the final line.
+	 */
+	public synchronized void finish() {
+		draw(true);
+	}
+
+	/**
+	 * Print the line, in place of the previous one.
+	 */
+	private void draw(boolean last) {
+		double seconds = Math.max(1, System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+		double rate = done / seconds;
+		String line = String.format("%s: %d/%d projects, %.1f/s, %s %.1fs", label, done, total, rate,
+				last ? "done in" : "ETA", last || rate == 0 ? seconds : (total - done) / rate);
+		String padding = StringUtils.repeat(' ', Math.max(0, drawnLength - line.length()));
+		drawnLength = line.length();
+		if (last) {
+			Out.println((interactive ? "\r" : "") + line + padding);
+		} else {
+			Out.print("\r" + line + padding);
+		}
+	}
+}
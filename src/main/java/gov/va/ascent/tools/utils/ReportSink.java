@@ -0,0 +1,67 @@
+package gov.va.ascent.tools.utils;
+
+import java.io.Closeable;
+
+/**
+ * Destination for report output.
+ * <p>
+ * Rows are written in pieces (indicator, indentation, text) so that implementations
+ * can write them without building intermediate strings.
+ */
+public interface ReportSink extends Closeable {
+
+	/** The number of spaces in one tab of indentation */
+	int TAB_LEN = 4;
+
+	/**
+	 * Write text to the current line.
+	 *
+	 * @param text - the text, {@code null} is written as nothing
+	 * @return ReportSink - this sink
+	 */
+	ReportSink append(String text);
+
+	/**
+	 * Write indentation to the current line.
+	 *
+	 * @param tabs - the number of tabs, each of {@link #TAB_LEN} spaces
+	 * @return ReportSink - this sink
+	 */
+	ReportSink indent(int tabs);
+
+	/**
+	 * End the current line.
+	 *
+	 * @return ReportSink - this sink
+	 */
+	ReportSink newLine();
+
+	/**
+	 * Write a complete line, formatted the same way as {@link Out#println(String, int, String)}.
+	 *
+	 * @param indicator - optional prefix before the indentation
+	 * @param tabs - the number of tabs to indent
+	 * @param message - the message
+	 * @return ReportSink - this sink
+	 */
+	default ReportSink println(String indicator, int tabs, String message) {
+		return append(indicator).indent(tabs).append(message).newLine();
+	}
+
+	/**
+	 * Write a complete line.
+	 *
+	 * @param message - the message
+	 * @return ReportSink - this sink
+	 */
+	default ReportSink println(String message) {
+		return append(message).newLine();
+	}
+
+	/**
+	 * Write any buffered output to the destination, and release the destination
+	 * (except standard out, which is only flushed).
+	 */
+	@Override
+	void close();
+}
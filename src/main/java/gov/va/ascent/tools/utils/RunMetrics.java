@@ -0,0 +1,235 @@
+package gov.va.ascent.tools.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Thread-safe timers and counters for a run: wall-clock time per phase, time per project,
+ * latency histograms, and named counts.
+ * <p>
+ * Reported as a summary table on the console, and optionally as a JSON file.
+ */
+public class RunMetrics {
+
+	/** The number of slowest projects shown in the summary */
+	private static final int SLOWEST = 5;
+	/** Factory for the metrics file generator */
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	/** Wall-clock nanoseconds per phase, in the order the phases first ran */
+	private Map<String, Long> phases = new LinkedHashMap<>();
+	/** Nanoseconds per project, keyed by project path */
+	private Map<String, Long> projects = new ConcurrentSkipListMap<>();
+	/** Latency histograms, keyed by name, in the order they were added */
+	private Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+	/** Named counts */
+	private Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+	/** Counter names in the order they were first counted */
+	private List<String> counterNames = new ArrayList<>();
+
+	/**
+	 * A running phase timer, which adds its elapsed time to the phase when closed.
+	 * A try-with-resources block that times its body never references the phase,
+	 * so the enclosing methods suppress the javac "try" lint warning.
+	 */
+	public class Phase implements AutoCloseable {
+		private String name;
+		private long startNanos = System.nanoTime();
+
+		private Phase(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public void close() {
+			addPhase(name, System.nanoTime() - startNanos);
+		}
+	}
+
+	/**
+	 * Start timing a phase. Use in a try-with-resources block.
+	 * Time from repeated runs of the same phase is added together.
+	 *
+	 * @param name - the phase name
+	 * @return Phase - the running timer
+	 */
+	public Phase phase(String name) {
+		return new Phase(name);
+	}
+
+	/**
+	 * Add time to a phase.
+	 *
+	 * @param name - the phase name
+	 * @param nanos - the elapsed nanoseconds
+	 */
+	public synchronized void addPhase(String name, long nanos) {
+		phases.merge(name, nanos, Long::sum);
+	}
+
+	/**
+	 * Record the time taken to process a project. Also recorded in the "project" latency histogram.
+	 *
+	 * @param projectPath - the project path
+	 * @param nanos - the elapsed nanoseconds
+	 * @param failed - {@code true} if the project could not be processed
+	 */
+	public void project(String projectPath, long nanos, boolean failed) {
+		projects.merge(projectPath, nanos, Long::sum);
+		latency("project scan").record(nanos, failed);
+	}
+
+	/**
+	 * Get a latency histogram, creating it if necessary.
+	 *
+	 * @param name - the histogram name
+	 * @return LatencyHistogram - the histogram
+	 */
+	public synchronized LatencyHistogram latency(String name) {
+		return latencies.computeIfAbsent(name, k -> new LatencyHistogram());
+	}
+
+	/**
+	 * Report a histogram that is recorded elsewhere, under a name.
+	 *
+	 * @param name - the histogram name
+	 * @param histogram - the histogram
+	 */
+	public synchronized void addLatency(String name, LatencyHistogram histogram) {
+		latencies.put(name, histogram);
+	}
+
+	/**
+	 * Add to a named count.
+	 *
+	 * @param name - the counter name
+	 * @param delta - the amount to add
+	 */
+	public void count(String name, long delta) {
+		LongAdder counter = counters.get(name);
+		if (counter == null) {
+			synchronized (this) {
+				counter = counters.computeIfAbsent(name, k -> {
+					counterNames.add(k);
+					return new LongAdder();
+				});
+			}
+		}
+		counter.add(delta);
+	}
+
+	/**
+	 * The summary table, one row per line.
+	 *
+	 * @return List&lt;String&gt; - the lines of the table
+	 */
+	public synchronized List<String> summary() {
+		List<String> lines = new ArrayList<>();
+		lines.add(String.format("%-32s %10s", "Phase", "ms"));
+		phases.forEach((name, nanos) -> lines.add(String.format("%-32s %10.1f", name, millis(nanos))));
+
+		lines.add("");
+		lines.add(String.format("%-32s %8s %8s %8s %8s %8s %8s %8s", "Latency (ms)", "count", "failed", "mean", "p50",
+				"p90", "p99", "max"));
+		latencies.forEach((name, h) -> lines.add(String.format("%-32s %8d %8d %8.1f %8.1f %8.1f %8.1f %8.1f", name,
+				h.getCount(), h.getFailures(), h.getMeanMillis(), h.getPercentileMillis(0.5), h.getPercentileMillis(0.9),
+				h.getPercentileMillis(0.99), h.getMaxMillis())));
+
+		if (!counterNames.isEmpty()) {
+			lines.add("");
+			lines.add(String.format("%-32s %10s", "Counter", "count"));
+			for (String name : counterNames) {
+				lines.add(String.format("%-32s %10d", name, counters.get(name).sum()));
+			}
+		}
+
+		List<Map.Entry<String, Long>> slowest = slowestProjects();
+		if (!slowest.isEmpty()) {
+			lines.add("");
+			lines.add(String.format("%-60s %10s", "Slowest projects", "ms"));
+			for (Map.Entry<String, Long> entry : slowest) {
+				lines.add(String.format("%-60s %10.1f", StringUtils.abbreviateMiddle(entry.getKey(), "...", 60),
+						millis(entry.getValue())));
+			}
+		}
+		return lines;
+	}
+
+	/**
+	 * Write all metrics, including the time for every project, to a JSON file.
+	 *
+	 * @param file - the file to write, any existing file is replaced
+	 * @throws IOException - problem writing the file
+	 */
+	public synchronized void write(Path file) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+				JsonGenerator json = JSON_FACTORY.createGenerator(writer).useDefaultPrettyPrinter()) {
+			json.writeStartObject();
+			json.writeObjectFieldStart("phasesMillis");
+			for (Map.Entry<String, Long> entry : phases.entrySet()) {
+				json.writeNumberField(entry.getKey(), millis(entry.getValue()));
+			}
+			json.writeEndObject();
+
+			json.writeObjectFieldStart("latenciesMillis");
+			for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+				LatencyHistogram h = entry.getValue();
+				json.writeObjectFieldStart(entry.getKey());
+				json.writeNumberField("count", h.getCount());
+				json.writeNumberField("failed", h.getFailures());
+				json.writeNumberField("mean", h.getMeanMillis());
+				json.writeNumberField("p50", h.getPercentileMillis(0.5));
+				json.writeNumberField("p90", h.getPercentileMillis(0.9));
+				json.writeNumberField("p99", h.getPercentileMillis(0.99));
+				json.writeNumberField("max", h.getMaxMillis());
+				json.writeEndObject();
+			}
+			json.writeEndObject();
+
+			json.writeObjectFieldStart("counters");
+			for (String name : counterNames) {
+				json.writeNumberField(name, counters.get(name).sum());
+			}
+			json.writeEndObject();
+
+			json.writeObjectFieldStart("projectsMillis");
+			for (Map.Entry<String, Long> entry : projects.entrySet()) {
+				json.writeNumberField(entry.getKey(), millis(entry.getValue()));
+			}
+			json.writeEndObject();
+			json.writeEndObject();
+		}
+	}
+
+	/**
+	 * The projects that took the longest, slowest first.
+	 */
+	private List<Map.Entry<String, Long>> slowestProjects() {
+		return projects.entrySet().stream()
+				.sorted(Map.Entry.<String, Long> comparingByValue(Comparator.reverseOrder()))
+				.limit(SLOWEST)
+				.collect(Collectors.toList());
+	}
+
+	private static double millis(long nanos) {
+		return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+}
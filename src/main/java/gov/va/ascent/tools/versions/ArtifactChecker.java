@@ -1,18 +1,176 @@
 package gov.va.ascent.tools.versions;
 
 import java.io.IOException;
-import java.nio.file.Path;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.lang3.StringUtils;
 
 import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.ssl.SSLContexts;
+import org.apache.http.util.EntityUtils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import gov.va.ascent.tools.utils.LatencyHistogram;
+import gov.va.ascent.tools.versions.model.ArtifactVersions;
 
 public class ArtifactChecker {
 
 	private static final int STATUS_SUCCESS = 200;
+	private static final int STATUS_NOT_FOUND = 404;
+	/** Responses with this status or above are nexus failures, which may not happen again */
+	private static final int STATUS_SERVER_ERROR = 500;
+	/** The most times the retry wait is doubled, so it cannot overflow */
+	private static final int MAX_BACKOFF_DOUBLINGS = 16;
+
+	/** Default milliseconds to wait for a connection to nexus */
+	public static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+	/** Default milliseconds to wait for data from nexus */
+	public static final int DEFAULT_READ_TIMEOUT = 30000;
+	/** Default maximum number of pooled connections to the nexus host */
+	public static final int DEFAULT_MAX_PER_ROUTE = 8;
+	/** Milliseconds to keep an idle connection alive if nexus does not say otherwise */
+	private static final long DEFAULT_KEEP_ALIVE = 30000;
+	/** Default number of times a failed nexus request is retried */
+	public static final int DEFAULT_RETRIES = 2;
+	/** Default milliseconds before the first retry, doubled for each retry after it */
+	public static final int DEFAULT_RETRY_BACKOFF = 500;
+	/** Default consecutive failed requests that stop all nexus requests */
+	public static final int DEFAULT_BREAKER_FAILURES = 5;
+	/** Default milliseconds before nexus is tried again once the requests are stopped */
+	public static final int DEFAULT_BREAKER_OPEN = 60000;
+
+	/** Milliseconds to wait for a connection to nexus */
+	private static int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+	/** Milliseconds to wait for data from nexus */
+	private static int readTimeout = DEFAULT_READ_TIMEOUT;
+	/** Maximum number of pooled connections to the nexus host */
+	private static int maxPerRoute = DEFAULT_MAX_PER_ROUTE;
+	/** Number of times a failed nexus request is retried */
+	private static int retries = DEFAULT_RETRIES;
+	/** Milliseconds before the first retry */
+	private static int retryBackoff = DEFAULT_RETRY_BACKOFF;
+	/** Consecutive failed requests that open a circuit breaker */
+	private static int breakerFailures = DEFAULT_BREAKER_FAILURES;
+	/** Milliseconds a circuit breaker stays open */
+	private static int breakerOpen = DEFAULT_BREAKER_OPEN;
+	/** Stops nexus requests after repeated failures */
+	private static NexusCircuitBreaker breaker = new NexusCircuitBreaker(DEFAULT_BREAKER_FAILURES, DEFAULT_BREAKER_OPEN);
+
+	/** Timestamp and build number that nexus puts in place of SNAPSHOT in component versions */
+	private static final Pattern SNAPSHOT_TIMESTAMP = Pattern.compile("-[0-9]{8}\\.[0-9]{6}-[0-9]+$");
+	/** Constant for SNAPSHOT version string */
+	private static final String SNAPSHOT = "-SNAPSHOT";
+	/** Search result field for the list of components */
+	private static final String FIELD_ITEMS = "items";
+	/** Search result field for the component version */
+	private static final String FIELD_VERSION = "version";
+	/** Search result field for the component name, which is the artifactId */
+	private static final String FIELD_NAME = "name";
+	/** Search result field for the token to request the next page */
+	private static final String FIELD_CONTINUATION = "continuationToken";
+
+	/** Thread-safe factory for search result parsers */
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+	/** Name of the metadata file of an artifact in a maven repository */
+	private static final String MAVEN_METADATA = "maven-metadata.xml";
+	/** The metadata element that lists the versions of the artifact */
+	private static final String ELEMENT_VERSIONS = "versions";
+	/** XMLInputFactory is not guaranteed to be thread-safe, so each thread gets its own */
+	private static final ThreadLocal<XMLInputFactory> XML_FACTORY = ThreadLocal.withInitial(() -> {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		return factory;
+	});
+
+	/** Latency of the artifact version requests made in the run */
+	private static final LatencyHistogram EXISTS_LATENCY = new LatencyHistogram();
+	/** Latency of the search page requests made in the run */
+	private static final LatencyHistogram SEARCH_LATENCY = new LatencyHistogram();
+	/** Latency of the maven-metadata.xml requests made in the run */
+	private static final LatencyHistogram METADATA_LATENCY = new LatencyHistogram();
+	/** The number of nexus requests retried in the run */
+	private static final LongAdder RETRIED = new LongAdder();
+
+	/** The client shared by all requests in the run, created on first use */
+	private static CloseableHttpClient httpClient;
+
+	/**
+	 * Reads the response to a nexus request.
+	 *
+	 * @param <T> the type of the result
+	 */
+	@FunctionalInterface
+	private interface ResponseHandler<T> {
+		/**
+		 * Read the response, which must be consumed for the connection to be returned to the pool.
+		 *
+		 * @param statusCode - the status of the response, never a 5xx
+		 * @param response - the response
+		 * @return T - the result
+		 * @throws IOException - issue reading the response, or a response that is not expected
+		 */
+		T handle(int statusCode, CloseableHttpResponse response) throws IOException;
+	}
+
+	/**
+	 * Nexus answered, but not as expected, e.g. with a 4xx. Not retried.
+	 */
+	private static class UnexpectedResponseException extends IOException {
+		private static final long serialVersionUID = 1L;
+
+		UnexpectedResponseException(String message) {
+			super(message);
+		}
+
+		UnexpectedResponseException(String message, Throwable cause) {
+			super(message, cause);
+		}
+	}
+
+	/** Search result page: the component versions, and the token for the next page */
+	private static class SearchPage {
+		/** The base versions of the components on the page, keyed by component name (artifactId) */
+		private Map<String, List<String>> versions = new HashMap<>();
+		/** The token to request the next page, or {@code null} if this is the last page */
+		private String continuationToken;
+	}
 
 	/**
 	 * ArtifactChecker is a static class, do not instantiate it.
@@ -22,38 +180,493 @@ public class ArtifactChecker {
 	}
 
 	/**
-	 * Determine if a specific project version still exists in nexus.<br/>
-	 * Should NOT be used for subprojects, (e.g. only the reactor project)
+	 * Configure the connections used for nexus requests.
+	 * Must be called before the first request is made, otherwise the defaults are used.
+	 *
+	 * @param connectTimeoutMillis - milliseconds to wait for a connection to nexus
+	 * @param readTimeoutMillis - milliseconds to wait for data from nexus
+	 * @param maxConnectionsPerRoute - maximum number of pooled connections to the nexus host
+	 */
+	public static synchronized void configure(int connectTimeoutMillis, int readTimeoutMillis, int maxConnectionsPerRoute) {
+		connectTimeout = connectTimeoutMillis;
+		readTimeout = readTimeoutMillis;
+		maxPerRoute = Math.max(1, maxConnectionsPerRoute);
+	}
+
+	/**
+	 * Configure how failed nexus requests are retried, and when nexus requests are stopped.
+	 * <p>
+	 * A request that fails with an IO error (including a timeout) or a 5xx response is retried up to {@code retries} times,
+	 * waiting {@code backoffMillis} before the first retry and twice as long before each retry after it, with random
+	 * jitter so that concurrent requests do not retry together. After {@code breakerFailures} consecutive requests fail
+	 * even with their retries, requests are rejected without calling nexus, until {@code breakerOpenMillis} have passed
+	 * and a trial request succeeds.
+	 * <p>
+	 * So a run against a nexus that cannot be reached takes at most about {@code breakerFailures} times
+	 * the time of a request with all its retries, whatever the number of lookups.
+	 *
+	 * @param retries - number of times a failed request is retried, 0 for none
+	 * @param backoffMillis - milliseconds before the first retry
+	 * @param breakerFailures - consecutive failed requests that stop all requests, 0 to never stop them
+	 * @param breakerOpenMillis - milliseconds before nexus is tried again once requests are stopped
+	 */
+	public static synchronized void configureRetries(int retries, int backoffMillis, int breakerFailures,
+			int breakerOpenMillis) {
+		ArtifactChecker.retries = Math.max(0, retries);
+		retryBackoff = Math.max(0, backoffMillis);
+		ArtifactChecker.breakerFailures = breakerFailures;
+		breakerOpen = breakerOpenMillis;
+		breaker = new NexusCircuitBreaker(breakerFailures, breakerOpenMillis);
+	}
+
+	/**
+	 * Create a circuit breaker with the configured settings, for a repository that is not nexus,
+	 * so that its failures do not stop the nexus requests.
+	 *
+	 * @return NexusCircuitBreaker - a closed breaker
+	 */
+	static synchronized NexusCircuitBreaker newCircuitBreaker() {
+		return new NexusCircuitBreaker(breakerFailures, breakerOpen);
+	}
+
+	/**
+	 * The breaker that stops nexus requests after repeated failures.
+	 *
+	 * @return NexusCircuitBreaker - the breaker
+	 */
+	static synchronized NexusCircuitBreaker getCircuitBreaker() {
+		return breaker;
+	}
+
+	/**
+	 * The number of nexus requests retried after a failure.
+	 *
+	 * @return long - the retries
+	 */
+	static long getRetried() {
+		return RETRIED.sum();
+	}
+
+	/**
+	 * The maximum number of pooled connections to the nexus host,
+	 * which is also the useful limit for concurrent nexus requests.
+	 *
+	 * @return int - the maximum number of connections
+	 */
+	public static synchronized int getMaxConnections() {
+		return maxPerRoute;
+	}
+
+	/**
+	 * The latency of the artifact version requests made by {@link #exists(String, String, String, String)}.
+	 *
+	 * @return LatencyHistogram - the request latencies
+	 */
+	public static LatencyHistogram getExistsLatency() {
+		return EXISTS_LATENCY;
+	}
+
+	/**
+	 * The latency of the search page requests made by {@link #findVersions(String, String, String)}.
+	 *
+	 * @return LatencyHistogram - the request latencies
+	 */
+	public static LatencyHistogram getSearchLatency() {
+		return SEARCH_LATENCY;
+	}
+
+	/**
+	 * The latency of the maven-metadata.xml requests made by
+	 * {@link #findMetadataVersions(String, String, String, NexusCircuitBreaker)}.
+	 *
+	 * @return LatencyHistogram - the request latencies
+	 */
+	public static LatencyHistogram getMetadataLatency() {
+		return METADATA_LATENCY;
+	}
+
+	/**
+	 * Close the shared client and its pooled connections.
+	 * Should be called once when the run is finished.
+	 */
+	public static synchronized void close() {
+		if (httpClient != null) {
+			try {
+				httpClient.close();
+			} catch (IOException e) { // NOSONAR nothing more can be done with the connections
+				// noop
+			}
+			httpClient = null;
+		}
+	}
+
+	/**
+	 * Determine if a specific artifact version still exists in nexus.
 	 *
 	 * @param nexusBaseProjectsUrl - the VA artifacts base directory in nexus
-	 * @param relativePath - the relative path for the project from GIT_HOME
+	 * @param groupId - the groupId of the artifact, or {@code null} if not known
+	 * @param artifactId - the artifactId of the artifact
 	 * @param version - the version explicitly declared in the POM
 	 * @return true if the artifact/version directory exists in nexus
 	 * @throws ClientProtocolException - issue in HttpClient
-	 * @throws IOException - issue reaching nexusBaseProjectUrl in nexus
+	 * @throws IOException - issue reaching nexusBaseProjectUrl in nexus, a 5xx response after the retries,
+	 *             or a {@link NexusCircuitBreaker.OpenException} if nexus was not called
 	 */
-	static boolean exists(String nexusBaseProjectsUrl, Path relativePath, String version) throws ClientProtocolException, IOException {
-		int statusCode = 0;
+	static boolean exists(String nexusBaseProjectsUrl, String groupId, String artifactId, String version)
+			throws ClientProtocolException, IOException {
+		String url = makeNexusUrl(nexusBaseProjectsUrl, groupId, artifactId, version);
 
-		String url = makeNexusUrl(nexusBaseProjectsUrl, relativePath, version);
+		return send(new HttpGet(url), EXISTS_LATENCY, getCircuitBreaker(), (statusCode, response) -> {
+			// the entity must be consumed for the connection to be returned to the pool
+			EntityUtils.consume(response.getEntity());
+			return statusCode == STATUS_SUCCESS;
+		});
+	}
 
-		CloseableHttpClient httpclient = HttpClients.custom().setSSLHostnameVerifier(NoopHostnameVerifier.INSTANCE).build();
-		HttpGet httpGet = new HttpGet(url);
-		CloseableHttpResponse response = httpclient.execute(httpGet);
+	/**
+	 * Find all versions of an artifact that are available in nexus, using the Nexus 3 search REST API.
+	 * <p>
+	 * One query is made for the artifact, following continuation tokens until all pages are read.
+	 * Timestamped SNAPSHOT components are reported by their base version (#.#.#-SNAPSHOT).
+	 *
+	 * @param nexusSearchUrl - the search REST API url, e.g. https://host/service/rest/v1/search
+	 * @param groupId - the groupId of the artifact, or {@code null} if not known
+	 * @param artifactId - the artifactId of the artifact
+	 * @return ArtifactVersions - the available versions
+	 * @throws IOException - issue reaching the search url, or an unsuccessful response after the retries,
+	 *             or a {@link NexusCircuitBreaker.OpenException} if nexus was not called
+	 */
+	static ArtifactVersions findVersions(String nexusSearchUrl, String groupId, String artifactId) throws IOException {
+		ArtifactVersions found = new ArtifactVersions(groupId, artifactId);
+		String continuationToken = null;
+		do {
+			SearchPage page = readSearchPage(makeSearchUri(nexusSearchUrl, groupId, artifactId, continuationToken));
+			for (List<String> versions : page.versions.values()) {
+				for (String version : versions) {
+					found.add(version);
+				}
+			}
+			continuationToken = page.continuationToken;
+		} while (continuationToken != null);
+		return found;
+	}
+
+	/**
+	 * Find all versions of every artifact in a groupId, with one Nexus 3 search for the whole group.
+	 * <p>
+	 * A group can have far more components than the artifacts being looked up, so the search is abandoned
+	 * after {@code maxPages} pages, when searching for each artifact would have been no more requests.
+	 *
+	 * @param nexusSearchUrl - the search REST API url, e.g. https://host/service/rest/v1/search
+	 * @param groupId - the groupId
+	 * @param maxPages - the most pages to read
+	 * @return Map&lt;String, ArtifactVersions&gt; - the available versions, keyed by artifactId,
+	 *         or {@code null} if the group has more than {@code maxPages} pages
+	 * @throws IOException - issue reaching the search url, or an unsuccessful response after the retries,
+	 *             or a {@link NexusCircuitBreaker.OpenException} if nexus was not called
+	 */
+	static Map<String, ArtifactVersions> findGroupVersions(String nexusSearchUrl, String groupId, int maxPages)
+			throws IOException {
+		Map<String, ArtifactVersions> found = new HashMap<>();
+		String continuationToken = null;
+		int pages = 0;
+		do {
+			if (++pages > maxPages) {
+				return null;
+			}
+			SearchPage page = readSearchPage(makeSearchUri(nexusSearchUrl, groupId, null, continuationToken));
+			page.versions.forEach((artifactId, versions) -> {
+				ArtifactVersions artifact = found.computeIfAbsent(artifactId, k -> new ArtifactVersions(groupId, k));
+				for (String version : versions) {
+					artifact.add(version);
+				}
+			});
+			continuationToken = page.continuationToken;
+		} while (continuationToken != null);
+		return found;
+	}
+
+	/**
+	 * Request one page of search results. The caller adds the versions once the whole page has been read,
+	 * so that a page that fails partway through and is retried adds nothing.
+	 *
+	 * @param uri - the search url of the page
+	 * @return SearchPage - the component versions, and the token for the next page
+	 * @throws IOException - issue reaching the search url, or an unsuccessful response after the retries
+	 */
+	private static SearchPage readSearchPage(URI uri) throws IOException {
+		return send(new HttpGet(uri), SEARCH_LATENCY, getCircuitBreaker(), (statusCode, response) -> {
+			if (statusCode != STATUS_SUCCESS) {
+				EntityUtils.consume(response.getEntity());
+				throw new UnexpectedResponseException(
+						"Nexus search returned HTTP " + statusCode + " for " + uri.toString());
+			}
+			try (InputStream in = response.getEntity().getContent()) {
+				return readSearchPage(in);
+			}
+		});
+	}
+
+	/**
+	 * Read one page of search results.
+	 *
+	 * @param in - the JSON search result
+	 * @return SearchPage - the component versions, and the token for the next page
+	 * @throws IOException - issue reading the JSON
+	 */
+	private static SearchPage readSearchPage(InputStream in) throws IOException {
+		SearchPage page = new SearchPage();
+		try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new IOException("Nexus search result is not a JSON object");
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken value = parser.nextToken();
+				if (FIELD_ITEMS.equals(field) && value == JsonToken.START_ARRAY) {
+					while (parser.nextToken() == JsonToken.START_OBJECT) {
+						readComponent(parser, page);
+					}
+				} else if (FIELD_CONTINUATION.equals(field)) {
+					page.continuationToken = value == JsonToken.VALUE_NULL ? null : parser.getText();
+				} else {
+					parser.skipChildren();
+				}
+			}
+		}
+		return page;
+	}
+
+	/**
+	 * Read one component object from the search results, adding its base version to the page versions.
+	 *
+	 * @param parser - the parser, positioned at the start of the component object
+	 * @param page - the page so far
+	 * @throws IOException - issue reading the JSON
+	 */
+	private static void readComponent(JsonParser parser, SearchPage page) throws IOException {
+		String name = null;
+		String version = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken value = parser.nextToken();
+			if (FIELD_VERSION.equals(field) && value == JsonToken.VALUE_STRING) {
+				version = SNAPSHOT_TIMESTAMP.matcher(parser.getText()).replaceFirst(SNAPSHOT);
+			} else if (FIELD_NAME.equals(field) && value == JsonToken.VALUE_STRING) {
+				name = parser.getText();
+			} else {
+				parser.skipChildren();
+			}
+		}
+		if (version != null) {
+			page.versions.computeIfAbsent(name, k -> new ArrayList<>()).add(version);
+		}
+	}
+
+	/**
+	 * Find all versions of an artifact in a maven repository from its maven-metadata.xml,
+	 * i.e. repositoryUrl/group/path/artifactId/maven-metadata.xml, with one request.
+	 *
+	 * @param repositoryUrl - the root url of the repository, e.g. https://repo.maven.apache.org/maven2
+	 * @param groupId - the groupId of the artifact
+	 * @param artifactId - the artifactId of the artifact
+	 * @param circuitBreaker - the breaker of the repository
+	 * @return ArtifactVersions - the available versions, or {@code null} if the repository does not have the artifact
+	 * @throws IOException - issue reaching the repository, or an unsuccessful response after the retries,
+	 *             or a {@link NexusCircuitBreaker.OpenException} if the repository was not called
+	 */
+	static ArtifactVersions findMetadataVersions(String repositoryUrl, String groupId, String artifactId,
+			NexusCircuitBreaker circuitBreaker) throws IOException {
+		String url = StringUtils.removeEnd(repositoryUrl, "/") + "/" + groupId.replace('.', '/') + "/" + artifactId + "/"
+				+ MAVEN_METADATA;
+		return send(new HttpGet(url), METADATA_LATENCY, circuitBreaker, (statusCode, response) -> {
+			if (statusCode != STATUS_SUCCESS) {
+				EntityUtils.consume(response.getEntity());
+				if (statusCode == STATUS_NOT_FOUND) {
+					return null;
+				}
+				throw new UnexpectedResponseException("Maven repository returned HTTP " + statusCode + " for " + url);
+			}
+			try (InputStream in = response.getEntity().getContent()) {
+				return readMetadata(in, new ArtifactVersions(groupId, artifactId));
+			} catch (XMLStreamException e) {
+				throw new UnexpectedResponseException("Cannot read " + url, e);
+			}
+		});
+	}
+
+	/**
+	 * Read the &lt;versions&gt; of a maven-metadata.xml, which are base versions, with SNAPSHOTs as #.#.#-SNAPSHOT.
+	 *
+	 * @param in - the maven-metadata.xml content
+	 * @param found - the versions to add to
+	 * @return ArtifactVersions - the found versions
+	 * @throws XMLStreamException - the content is not well formed XML
+	 */
+	private static ArtifactVersions readMetadata(InputStream in, ArtifactVersions found) throws XMLStreamException {
+		XMLStreamReader reader = XML_FACTORY.get().createXMLStreamReader(in);
 		try {
-			statusCode = response.getStatusLine().getStatusCode();
+			boolean inVersions = false;
+			while (reader.hasNext()) {
+				int event = reader.next();
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					if (ELEMENT_VERSIONS.equals(reader.getLocalName())) {
+						inVersions = true;
+					} else if (inVersions && FIELD_VERSION.equals(reader.getLocalName())) {
+						found.add(reader.getElementText().trim());
+					}
+				} else if (event == XMLStreamConstants.END_ELEMENT && ELEMENT_VERSIONS.equals(reader.getLocalName())) {
+					inVersions = false;
+				}
+			}
+			return found;
 		} finally {
-			if (response != null) {
-				response.close();
+			reader.close();
+		}
+	}
+
+	/**
+	 * Send a request to nexus (or another repository), retrying it if it fails, and recording the outcome
+	 * in the circuit breaker of the repository.
+	 * <p>
+	 * IO errors and 5xx responses are retried. Anything else, including an exception thrown by the handler
+	 * for an unexpected status or an unreadable response, is an answer from nexus, and is not retried.
+	 *
+	 * @param request - the request
+	 * @param latency - records the latency of each attempt
+	 * @param circuitBreaker - the breaker of the repository
+	 * @param handler - reads the response of an attempt that was not a 5xx
+	 * @return T - the result of the handler
+	 * @throws IOException - the last failure, or a {@link NexusCircuitBreaker.OpenException} if nexus was not called
+	 */
+	private static <T> T send(HttpGet request, LatencyHistogram latency, NexusCircuitBreaker circuitBreaker,
+			ResponseHandler<T> handler) throws IOException {
+		circuitBreaker.acquire();
+		boolean answered = false;
+		try {
+			for (int attempt = 0;; attempt++) {
+				long start = System.nanoTime();
+				boolean failed = true;
+				IOException failure;
+				try (CloseableHttpResponse response = getHttpClient().execute(request)) {
+					int statusCode = response.getStatusLine().getStatusCode();
+					if (statusCode >= STATUS_SERVER_ERROR) {
+						EntityUtils.consume(response.getEntity());
+						throw new IOException("Nexus returned HTTP " + statusCode + " for " + request.getURI());
+					}
+					T result = handler.handle(statusCode, response);
+					failed = false;
+					answered = true;
+					return result;
+				} catch (UnexpectedResponseException | ClientProtocolException | JsonProcessingException e) {
+					// nexus is up, and the answer will not be any different if the request is retried
+					answered = true;
+					throw e;
+				} catch (IOException e) {
+					failure = e;
+				} finally {
+					latency.recordSince(start, failed);
+				}
+				// no retry once the breaker is open, even if other requests opened it
+				if (attempt >= retries || circuitBreaker.isOpen() || Thread.currentThread().isInterrupted()) {
+					throw failure;
+				}
+				RETRIED.increment();
+				backoff(attempt, failure);
+			}
+		} finally {
+			// every call the breaker let through records its outcome, however it ends,
+			// otherwise a trial call that ends any other way would leave the breaker half open for good
+			if (answered) {
+				circuitBreaker.success();
+			} else {
+				circuitBreaker.failure();
+			}
+		}
+	}
+
+	/**
+	 * Wait before the next attempt of a request, twice as long for each attempt,
+	 * less random jitter of up to half the wait, so that concurrent requests spread out.
+	 *
+	 * @param attempt - the attempt that failed, from 0
+	 * @param failure - the failure, added to the exception if the wait is interrupted
+	 * @throws InterruptedIOException - interrupted while waiting
+	 */
+	private static void backoff(int attempt, IOException failure) throws InterruptedIOException {
+		long wait = (long) retryBackoff << Math.min(attempt, MAX_BACKOFF_DOUBLINGS);
+		wait -= ThreadLocalRandom.current().nextLong(wait / 2 + 1);
+		try {
+			Thread.sleep(wait);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			InterruptedIOException interrupted = new InterruptedIOException("Interrupted before retrying nexus");
+			interrupted.addSuppressed(failure);
+			throw interrupted;
+		}
+	}
+
+	private static URI makeSearchUri(String nexusSearchUrl, String groupId, String artifactId, String continuationToken)
+			throws IOException {
+		try {
+			URIBuilder builder = new URIBuilder(nexusSearchUrl);
+			if (artifactId != null) {
+				builder.addParameter("maven.artifactId", artifactId);
+			}
+			if (groupId != null) {
+				builder.addParameter("maven.groupId", groupId);
+			}
+			if (continuationToken != null) {
+				builder.addParameter(FIELD_CONTINUATION, continuationToken);
 			}
+			return builder.build();
+		} catch (URISyntaxException e) {
+			throw new IOException("Invalid nexus search url " + nexusSearchUrl, e);
+		}
+	}
+
+	/**
+	 * Get the shared client, creating it with a pooled connection manager if necessary.
+	 *
+	 * @return CloseableHttpClient - the shared client
+	 */
+	private static synchronized CloseableHttpClient getHttpClient() {
+		if (httpClient == null) {
+			// the hostname verifier must be on the socket factory, as the builder's verifier is ignored with a connection manager
+			Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory> create()
+					.register("http", PlainConnectionSocketFactory.getSocketFactory())
+					.register("https", new SSLConnectionSocketFactory(SSLContexts.createDefault(), NoopHostnameVerifier.INSTANCE))
+					.build();
+			PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(registry);
+			connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+			connectionManager.setMaxTotal(maxPerRoute * 2);
+
+			RequestConfig requestConfig = RequestConfig.custom()
+					.setConnectTimeout(connectTimeout)
+					.setConnectionRequestTimeout(connectTimeout)
+					.setSocketTimeout(readTimeout)
+					.build();
+
+			ConnectionKeepAliveStrategy keepAlive = (response, context) -> {
+				long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+				return duration > 0 ? duration : DEFAULT_KEEP_ALIVE;
+			};
+
+			httpClient = HttpClients.custom()
+					.setConnectionManager(connectionManager)
+					.setDefaultRequestConfig(requestConfig)
+					.setKeepAliveStrategy(keepAlive)
+					.evictIdleConnections(DEFAULT_KEEP_ALIVE, TimeUnit.MILLISECONDS)
+					.build();
 		}
-		return statusCode == STATUS_SUCCESS;
+		return httpClient;
 	}
 
-	private static String makeNexusUrl(String nexusBaseProjectsUrl, Path relativePath, String version) {
-		Path projectName = relativePath.getNameCount() > 1 ? relativePath.getParent() : relativePath;
+	private static String makeNexusUrl(String nexusBaseProjectsUrl, String groupId, String artifactId, String version) {
 		// no need to use URLEncoder - nothing else needs encoding
-		String queryString = "name.raw%3D" + projectName.toString() + "%20AND%20attributes.maven2.baseVersion%3D" + version;
+		String queryString = "name.raw%3D" + artifactId
+				+ (groupId == null ? "" : "%20AND%20attributes.maven2.groupId%3D" + groupId)
+				+ "%20AND%20attributes.maven2.baseVersion%3D" + version;
 		return nexusBaseProjectsUrl + queryString;
 	}
 }
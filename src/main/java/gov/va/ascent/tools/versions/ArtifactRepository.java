@@ -0,0 +1,47 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+import gov.va.ascent.tools.versions.model.ArtifactVersions;
+
+/**
+ * A repository that can list the available versions of artifacts, e.g. nexus, a maven repository over http,
+ * or the local maven repository.
+ * <p>
+ * Lookups are batched by groupId, as every repository layout groups its artifacts by groupId:
+ * each implementation answers all the artifacts of a batch with the fewest requests its layout allows.
+ * Repositories are tried in priority order by a {@link RepositoryChain}.
+ * <p>
+ * Implementations must be thread-safe, as batches for different groupIds are looked up concurrently.
+ */
+public interface ArtifactRepository {
+
+	/**
+	 * A short description of the repository for messages, e.g. "nexus search https://host/service/rest/v1/search".
+	 *
+	 * @return String - the description
+	 */
+	String getName();
+
+	/**
+	 * Are the versions found here the ones in nexus (or another shared repository)?
+	 * Only versions found in a remote repository are saved in the {@link NexusResultStore},
+	 * as a version in the local repository may not be available to anyone else.
+	 *
+	 * @return boolean - {@code true} for a remote repository
+	 */
+	boolean isRemote();
+
+	/**
+	 * Find all the versions of some artifacts of a groupId.
+	 *
+	 * @param groupId - the groupId of the artifacts, or {@code null} if not known
+	 * @param artifactIds - the artifactIds to look up
+	 * @return Map&lt;String, ArtifactVersions&gt; - the available versions, keyed by artifactId, for the requested
+	 *         artifacts that have at least one version in the repository. Other artifacts may also be included.
+	 * @throws IOException - the repository could not be searched
+	 */
+	Map<String, ArtifactVersions> findVersions(String groupId, Collection<String> artifactIds) throws IOException;
+}
@@ -0,0 +1,308 @@
+package gov.va.ascent.tools.versions;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import gov.va.ascent.tools.versions.model.PomTags;
+import gov.va.ascent.tools.versions.model.Version;
+
+/**
+ * The build dependencies between the project directories in GIT_HOME, from the parsed POMs.
+ * <p>
+ * Each node is a directory immediately under GIT_HOME (e.g. ascent-platform), as listed in maven-build-projects.txt,
+ * so the POMs of its configured subprojects belong to it. A directory depends on another if any of its POMs
+ * declares a &lt;parent&gt; or a dependency whose groupId:artifactId is a project in the other directory.
+ * &lt;dependencyManagement&gt; entries are not build dependencies, and are ignored.
+ * <p>
+ * The directories are sorted into waves: every directory in a wave depends only on directories in earlier waves,
+ * so the directories in one wave can be built in parallel. Directories in a dependency cycle, and directories that
+ * depend on a cycle, cannot be ordered; the cycles are reported with the dependencies that form them.
+ */
+public class BuildGraph {
+
+	/** The project directories, in name order */
+	private Set<String> projects = new TreeSet<>();
+	/** The dependencies of each project directory, keyed by directory, then by the directory depended on */
+	private Map<String, Map<String, Edge>> dependencies = new HashMap<>();
+	/** The project directories in build order, grouped into waves that can be built in parallel */
+	private List<List<String>> waves = new ArrayList<>();
+	/** The project directories that cannot be ordered, because they are in or depend on a cycle */
+	private Set<String> unordered = new TreeSet<>();
+	/** The dependency cycles, each as the dependencies between the directories in the cycle */
+	private List<List<Edge>> cycles = new ArrayList<>();
+
+	/**
+	 * A dependency of one project directory on another, and the first POM reference that declares it.
+	 */
+	public static class Edge {
+		/** The directory that depends on the other */
+		private String from;
+		/** The directory that is depended on */
+		private String to;
+		/** groupId:artifactId of the POM that declares the dependency */
+		private String declaredBy;
+		/** groupId:artifactId of the project in the directory that is depended on */
+		private String dependsOn;
+		/** The POM tag of the dependency */
+		private PomTags tag;
+
+		Edge(String from, String to, String declaredBy, String dependsOn, PomTags tag) {
+			this.from = from;
+			this.to = to;
+			this.declaredBy = declaredBy;
+			this.dependsOn = dependsOn;
+			this.tag = tag;
+		}
+
+		/**
+		 * The directory that depends on the other.
+		 *
+		 * @return String - the directory name
+		 */
+		public String getFrom() {
+			return from;
+		}
+
+		/**
+		 * The directory that is depended on.
+		 *
+		 * @return String - the directory name
+		 */
+		public String getTo() {
+			return to;
+		}
+
+		/**
+		 * Describe the dependency, e.g.
+		 * {@code ascent-framework -> ascent-libraries-parent (gov.va.ascent:ascent-framework has parent gov.va.ascent:ascent-libraries-parent)}
+		 */
+		@Override
+		public String toString() {
+			return from + " -> " + to + " (" + declaredBy + (PomTags.PARENT.equals(tag) ? " has parent " : " depends on ") + dependsOn
+					+ ")";
+		}
+	}
+
+	/**
+	 * Build the graph of the project directories in GIT_HOME, and sort it into waves.
+	 *
+	 * @param versions - the parsed projects, keyed by absolute project path
+	 * @param gitHomePath - the value of system GIT_HOME environment variable
+	 */
+	public BuildGraph(Map<String, Version> versions, String gitHomePath) {
+		Path gitHome = Paths.get(gitHomePath).toAbsolutePath().normalize();
+		Map<String, String> directoryOf = new HashMap<>();
+		List<Version> ordered = new ArrayList<>();
+		List<String> orderedDirectories = new ArrayList<>();
+		for (Map.Entry<String, Version> entry : versions.entrySet()) {
+			Path path = Paths.get(entry.getKey()).toAbsolutePath().normalize();
+			if (entry.getValue() == null || !path.startsWith(gitHome) || path.equals(gitHome)) {
+				continue;
+			}
+			String directory = gitHome.relativize(path).getName(0).toString();
+			Version project = entry.getValue();
+			projects.add(directory);
+			directoryOf.putIfAbsent(NexusLookupCache.key(project.getEffectiveGroupId(), project.getArtifactId()), directory);
+			ordered.add(project);
+			orderedDirectories.add(directory);
+		}
+		for (int i = 0; i < ordered.size(); i++) {
+			addEdges(orderedDirectories.get(i), ordered.get(i), directoryOf);
+		}
+		sort();
+	}
+
+	/**
+	 * Add the dependencies of a project on the other workspace directories.
+	 */
+	private void addEdges(String directory, Version project, Map<String, String> directoryOf) {
+		String declaredBy = NexusLookupCache.key(project.getEffectiveGroupId(), project.getArtifactId());
+		Map<String, Edge> edges = dependencies.computeIfAbsent(directory, k -> new TreeMap<>());
+		if (project.getParent() != null) {
+			addEdge(edges, directory, declaredBy, project.getParent(), PomTags.PARENT, directoryOf);
+		}
+		for (Version dependency : project.getDependencies()) {
+			if (!PomTags.DEPENDENCY_MANAGEMENT.equals(dependency.getHierarchyIdTag())) {
+				addEdge(edges, directory, declaredBy, dependency, PomTags.DEPENDENCIES, directoryOf);
+			}
+		}
+	}
+
+	private static void addEdge(Map<String, Edge> edges, String directory, String declaredBy, Version element, PomTags tag,
+			Map<String, String> directoryOf) {
+		String dependsOn = NexusLookupCache.key(element.getGroupId(), element.getArtifactId());
+		String to = directoryOf.get(dependsOn);
+		// modules of the same directory are ordered by its own maven reactor
+		if (to != null && !to.equals(directory)) {
+			edges.putIfAbsent(to, new Edge(directory, to, declaredBy, dependsOn, tag));
+		}
+	}
+
+	/**
+	 * Sort the directories into waves with Kahn's algorithm, then find the cycles among the directories left over.
+	 */
+	private void sort() {
+		Map<String, Integer> waiting = new HashMap<>();
+		Map<String, List<String>> dependents = new HashMap<>();
+		for (String project : projects) {
+			Map<String, Edge> edges = dependencies.getOrDefault(project, Collections.emptyMap());
+			waiting.put(project, edges.size());
+			for (String to : edges.keySet()) {
+				dependents.computeIfAbsent(to, k -> new ArrayList<>()).add(project);
+			}
+		}
+		List<String> wave = new ArrayList<>();
+		for (String project : projects) {
+			if (waiting.get(project) == 0) {
+				wave.add(project);
+			}
+		}
+		while (!wave.isEmpty()) {
+			waves.add(Collections.unmodifiableList(wave));
+			Set<String> next = new TreeSet<>();
+			for (String built : wave) {
+				for (String dependent : dependents.getOrDefault(built, Collections.emptyList())) {
+					if (waiting.merge(dependent, -1, Integer::sum) == 0) {
+						next.add(dependent);
+					}
+				}
+			}
+			wave = new ArrayList<>(next);
+		}
+		for (String project : projects) {
+			if (waiting.get(project) > 0) {
+				unordered.add(project);
+			}
+		}
+		if (!unordered.isEmpty()) {
+			findCycles();
+		}
+	}
+
+	/**
+	 * Find the strongly connected components of the unordered directories with Tarjan's algorithm.
+	 * Every component of more than one directory is a cycle; the other unordered directories only depend on one.
+	 */
+	private void findCycles() {
+		Map<String, Integer> index = new HashMap<>();
+		Map<String, Integer> lowLink = new HashMap<>();
+		Deque<String> stack = new ArrayDeque<>();
+		Set<String> onStack = new TreeSet<>();
+		for (String project : unordered) {
+			if (!index.containsKey(project)) {
+				connect(project, index, lowLink, stack, onStack);
+			}
+		}
+	}
+
+	private void connect(String project, Map<String, Integer> index, Map<String, Integer> lowLink, Deque<String> stack,
+			Set<String> onStack) {
+		index.put(project, index.size());
+		lowLink.put(project, index.get(project));
+		stack.push(project);
+		onStack.add(project);
+		for (String to : dependencies.getOrDefault(project, Collections.emptyMap()).keySet()) {
+			if (!unordered.contains(to)) {
+				continue;
+			}
+			if (!index.containsKey(to)) {
+				connect(to, index, lowLink, stack, onStack);
+				lowLink.put(project, Math.min(lowLink.get(project), lowLink.get(to)));
+			} else if (onStack.contains(to)) {
+				lowLink.put(project, Math.min(lowLink.get(project), index.get(to)));
+			}
+		}
+		if (lowLink.get(project).equals(index.get(project))) {
+			Set<String> component = new TreeSet<>();
+			String member;
+			do {
+				member = stack.pop();
+				onStack.remove(member);
+				component.add(member);
+			} while (!member.equals(project));
+			if (component.size() > 1) {
+				List<Edge> edges = new ArrayList<>();
+				for (String from : component) {
+					for (Edge edge : dependencies.get(from).values()) {
+						if (component.contains(edge.to)) {
+							edges.add(edge);
+						}
+					}
+				}
+				cycles.add(edges);
+			}
+		}
+	}
+
+	/**
+	 * The project directories in build order, grouped into waves.
+	 * Every directory in a wave depends only on directories in earlier waves.
+	 * Directories that cannot be ordered are not in any wave.
+	 *
+	 * @return List&lt;List&lt;String&gt;&gt; - the waves, each in name order
+	 */
+	public List<List<String>> getWaves() {
+		return Collections.unmodifiableList(waves);
+	}
+
+	/**
+	 * The project directories in build order, one wave after the other.
+	 * Directories that cannot be ordered are not included.
+	 *
+	 * @return List&lt;String&gt; - the directory names
+	 */
+	public List<String> getOrder() {
+		List<String> order = new ArrayList<>(projects.size());
+		for (List<String> wave : waves) {
+			order.addAll(wave);
+		}
+		return order;
+	}
+
+	/**
+	 * The project directories that cannot be ordered, because they are in a cycle or depend on one.
+	 *
+	 * @return Set&lt;String&gt; - the directory names, in name order
+	 */
+	public Set<String> getUnordered() {
+		return Collections.unmodifiableSet(unordered);
+	}
+
+	/**
+	 * The dependency cycles, each as the dependencies between the directories in the cycle.
+	 *
+	 * @return List&lt;List&lt;Edge&gt;&gt; - the cycles, empty if there are none
+	 */
+	public List<List<Edge>> getCycles() {
+		return Collections.unmodifiableList(cycles);
+	}
+
+	/**
+	 * All the project directories in the graph.
+	 *
+	 * @return Set&lt;String&gt; - the directory names, in name order
+	 */
+	public Set<String> getProjects() {
+		return Collections.unmodifiableSet(projects);
+	}
+
+	/**
+	 * The project directories that a directory depends on directly.
+	 *
+	 * @param project - the directory name
+	 * @return Set&lt;String&gt; - the directory names, in name order
+	 */
+	public Set<String> getDependencies(String project) {
+		return Collections.unmodifiableSet(dependencies.getOrDefault(project, Collections.emptyMap()).keySet());
+	}
+}
@@ -0,0 +1,380 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import gov.va.ascent.tools.utils.Out;
+import gov.va.ascent.tools.utils.Severity;
+
+/**
+ * Runs a build command (e.g. {@code mvn clean install}) in each project directory of a {@link BuildGraph},
+ * starting each project as soon as all of the projects it depends on have been built.
+ * <p>
+ * At most {@code concurrency} builds run at once. The output of each build goes to its own log file,
+ * named for the project directory. If a build fails, the projects that depend on it, directly or not,
+ * are cancelled; other projects are still built. Projects in a dependency cycle are not run.
+ * <p>
+ * Once the run is done, the {@link #summary()} shows the time of each build, and the critical path:
+ * the chain of builds, each waiting for the one before it, that decided when the run finished.
+ */
+public class BuildRunner {
+
+	/** Extension of the per-project log files */
+	private static final String LOG_EXTENSION = ".log";
+	/** Nanoseconds per second, for the summary */
+	private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	/** The projects and their dependencies */
+	private BuildGraph graph;
+	/** The directory that contains the project directories */
+	private Path gitHome;
+	/** The command and its arguments, run in each project directory */
+	private List<String> command;
+	/** The maximum number of builds that run at once */
+	private int concurrency;
+	/** The directory the per-project log files are written to */
+	private Path logDirectory;
+	/** The result of each project, keyed by project directory */
+	private Map<String, Result> results = new TreeMap<>();
+	/** When the run started */
+	private long startNanos;
+	/** When the run finished */
+	private long endNanos;
+
+	/**
+	 * The outcome of the build of a project.
+	 */
+	public enum Status {
+		/** The build command succeeded */
+		SUCCESS,
+		/** The build command failed, or could not be started */
+		FAILED,
+		/** Not built, because a project it depends on failed */
+		CANCELLED,
+		/** Not built, because it is in or depends on a dependency cycle */
+		NOT_RUN
+	}
+
+	/**
+	 * The build of one project.
+	 */
+	public static class Result {
+		/** The project directory name */
+		private String project;
+		/** The outcome of the build */
+		private Status status;
+		/** The exit code of the build command, or -1 if it did not exit */
+		private int exitCode = -1;
+		/** When the build started, or 0 if it did not run */
+		private long startNanos;
+		/** When the build finished, or 0 if it did not run */
+		private long endNanos;
+		/** The log file of the build, or {@code null} if it did not run */
+		private Path log;
+		/** The failed project that caused a cancellation, or {@code null} */
+		private String cause;
+
+		Result(String project, Status status) {
+			this.project = project;
+			this.status = status;
+		}
+
+		/**
+		 * The project directory name.
+		 *
+		 * @return String - the project
+		 */
+		public String getProject() {
+			return project;
+		}
+
+		/**
+		 * The outcome of the build.
+		 *
+		 * @return Status - the status
+		 */
+		public Status getStatus() {
+			return status;
+		}
+
+		/**
+		 * The log file of the build.
+		 *
+		 * @return Path - the log file, or {@code null} if the build did not run
+		 */
+		public Path getLog() {
+			return log;
+		}
+
+		/**
+		 * How long the build took.
+		 *
+		 * @return long - the nanoseconds, 0 if the build did not run
+		 */
+		public long getNanos() {
+			return endNanos - startNanos;
+		}
+	}
+
+	/**
+	 * Create a runner for the projects in a graph.
+	 *
+	 * @param graph - the projects and their dependencies
+	 * @param gitHome - the directory that contains the project directories
+	 * @param command - the command and its arguments, run in each project directory
+	 * @param concurrency - the maximum number of builds that run at once
+	 * @param logDirectory - the directory the per-project log files are written to
+	 */
+	public BuildRunner(BuildGraph graph, Path gitHome, List<String> command, int concurrency, Path logDirectory) {
+		this.graph = graph;
+		this.gitHome = gitHome;
+		this.command = command;
+		this.concurrency = Math.max(1, concurrency);
+		this.logDirectory = logDirectory;
+	}
+
+	/**
+	 * Build every project, each once all of the projects it depends on have been built.
+	 *
+	 * @return boolean - {@code true} if every project was built successfully
+	 * @throws IOException - the log directory could not be created
+	 * @throws InterruptedException - interrupted while waiting for builds, which are stopped
+	 */
+	public boolean run() throws IOException, InterruptedException {
+		Files.createDirectories(logDirectory);
+		Map<String, Integer> waiting = new HashMap<>();
+		Map<String, List<String>> dependents = new HashMap<>();
+		for (String project : graph.getProjects()) {
+			waiting.put(project, graph.getDependencies(project).size());
+			for (String dependency : graph.getDependencies(project)) {
+				dependents.computeIfAbsent(dependency, k -> new ArrayList<>()).add(project);
+			}
+		}
+		for (String project : graph.getUnordered()) {
+			results.put(project, new Result(project, Status.NOT_RUN));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+			Thread thread = new Thread(runnable, "build");
+			thread.setDaemon(true);
+			return thread;
+		});
+		CompletionService<Result> completion = new ExecutorCompletionService<>(executor);
+		startNanos = System.nanoTime();
+		int running = 0;
+		try {
+			for (String project : graph.getProjects()) {
+				if (waiting.get(project) == 0) {
+					completion.submit(() -> build(project));
+					running++;
+				}
+			}
+			while (running > 0) {
+				Result result = completion.take().get();
+				running--;
+				results.put(result.project, result);
+				report(result);
+				if (result.status == Status.SUCCESS) {
+					for (String dependent : dependents.getOrDefault(result.project, Collections.emptyList())) {
+						if (waiting.merge(dependent, -1, Integer::sum) == 0 && !results.containsKey(dependent)) {
+							completion.submit(() -> build(dependent));
+							running++;
+						}
+					}
+				} else {
+					cancelDependents(result.project, dependents);
+				}
+			}
+		} catch (ExecutionException e) {
+			// build() catches everything it expects, so this is a bug
+			throw new IllegalStateException("Build thread failed", e.getCause());
+		} finally {
+			// interrupts any builds still running, which stops their processes
+			executor.shutdownNow();
+			endNanos = System.nanoTime();
+		}
+		for (Result result : results.values()) {
+			if (result.status != Status.SUCCESS) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Run the build command in a project directory, with its output in the project log file.
+	 *
+	 * @param project - the project directory name
+	 * @return Result - the outcome of the build
+	 */
+	private Result build(String project) {
+		Result result = new Result(project, Status.FAILED);
+		result.log = logDirectory.resolve(project + LOG_EXTENSION);
+		result.startNanos = System.nanoTime();
+		Process process = null;
+		try {
+			process = new ProcessBuilder(command)
+					.directory(gitHome.resolve(project).toFile())
+					.redirectErrorStream(true)
+					.redirectOutput(result.log.toFile())
+					.start();
+			result.exitCode = process.waitFor();
+			result.status = result.exitCode == 0 ? Status.SUCCESS : Status.FAILED;
+		} catch (IOException e) {
+			writeLog(result.log, "Could not run " + String.join(" ", command) + ": " + e.getMessage());
+		} catch (InterruptedException e) {
+			process.destroy();
+			Thread.currentThread().interrupt();
+		} finally {
+			result.endNanos = System.nanoTime();
+		}
+		return result;
+	}
+
+	private static void writeLog(Path log, String message) {
+		try {
+			Files.write(log, Collections.singletonList(message), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			Out.println(0, Severity.ERROR, "Could not write " + log, e);
+		}
+	}
+
+	/**
+	 * Cancel every project that depends on a failed project, directly or not.
+	 */
+	private void cancelDependents(String failed, Map<String, List<String>> dependents) {
+		Deque<String> queue = new ArrayDeque<>(dependents.getOrDefault(failed, Collections.emptyList()));
+		while (!queue.isEmpty()) {
+			String project = queue.poll();
+			if (!results.containsKey(project)) {
+				Result result = new Result(project, Status.CANCELLED);
+				result.cause = failed;
+				results.put(project, result);
+				report(result);
+				queue.addAll(dependents.getOrDefault(project, Collections.emptyList()));
+			}
+		}
+	}
+
+	private static void report(Result result) {
+		switch (result.status) {
+			case SUCCESS:
+				Out.println(1, result.project + " [OK] " + seconds(result.getNanos()));
+				break;
+			case FAILED:
+				Out.println(1, Severity.ERROR, result.project + " failed with exit code " + result.exitCode + " after "
+						+ seconds(result.getNanos()) + ", see " + result.log);
+				break;
+			case CANCELLED:
+				Out.println(1, Severity.WARN, result.project + " cancelled, depends on " + result.cause);
+				break;
+			default:
+				break;
+		}
+	}
+
+	/**
+	 * The outcome of each project, once the run is done.
+	 *
+	 * @return Map&lt;String, Result&gt; - the results, keyed by project directory name
+	 */
+	public Map<String, Result> getResults() {
+		return Collections.unmodifiableMap(results);
+	}
+
+	/**
+	 * The critical path of the run: starting from the build that finished last, each build
+	 * preceded by the dependency it waited on longest, i.e. the one that finished last.
+	 * Shortening any build on this path shortens the run, unless another path takes its place.
+	 *
+	 * @return List&lt;Result&gt; - the builds on the critical path, first to last
+	 */
+	public List<Result> getCriticalPath() {
+		Result last = null;
+		for (Result result : results.values()) {
+			if (result.log != null && (last == null || result.endNanos > last.endNanos)) {
+				last = result;
+			}
+		}
+		List<Result> path = new ArrayList<>();
+		while (last != null) {
+			path.add(0, last);
+			Result previous = null;
+			for (String dependency : graph.getDependencies(last.project)) {
+				Result result = results.get(dependency);
+				if (result != null && result.log != null && (previous == null || result.endNanos > previous.endNanos)) {
+					previous = result;
+				}
+			}
+			last = previous;
+		}
+		return path;
+	}
+
+	/**
+	 * The timing summary of the run: each build, slowest first, the totals, and the critical path.
+	 *
+	 * @return List&lt;String&gt; - the summary lines
+	 */
+	public List<String> summary() {
+		List<Result> built = new ArrayList<>();
+		List<String> lines = new ArrayList<>();
+		long total = 0;
+		for (Result result : results.values()) {
+			if (result.log != null) {
+				built.add(result);
+				total += result.getNanos();
+			}
+		}
+		built.sort((a, b) -> Long.compare(b.getNanos(), a.getNanos()));
+		lines.add(String.format("%-50s %10s %10s", "Project", "Status", "s"));
+		for (Result result : built) {
+			lines.add(String.format("%-50s %10s %10.1f", result.project, result.status, result.getNanos() / NANOS_PER_SECOND));
+		}
+		for (Result result : results.values()) {
+			if (result.log == null) {
+				lines.add(String.format("%-50s %10s %10s", result.project, result.status, "-"));
+			}
+		}
+		lines.add("");
+		lines.add(String.format("%-50s %21.1f", "Wall clock", (endNanos - startNanos) / NANOS_PER_SECOND));
+		lines.add(String.format("%-50s %21.1f", "All builds one after another", total / NANOS_PER_SECOND));
+		lines.add("");
+		List<Result> path = getCriticalPath();
+		long pathNanos = 0;
+		lines.add("Critical path");
+		Result previous = null;
+		for (Result result : path) {
+			pathNanos += result.getNanos();
+			// time between the dependency finishing and the build starting was spent waiting for a free build slot
+			long queued = previous == null ? result.startNanos - startNanos : result.startNanos - previous.endNanos;
+			lines.add(String.format("%-50s %10s %10.1f", result.project,
+					queued > TimeUnit.MILLISECONDS.toNanos(100) ? "+" + seconds(queued) + " queued" : "",
+					result.getNanos() / NANOS_PER_SECOND));
+			previous = result;
+		}
+		lines.add(String.format("%-50s %21.1f", "Critical path builds", pathNanos / NANOS_PER_SECOND));
+		return lines;
+	}
+
+	private static String seconds(long nanos) {
+		return String.format("%.1fs", nanos / NANOS_PER_SECOND);
+	}
+}
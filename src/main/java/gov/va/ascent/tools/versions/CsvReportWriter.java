@@ -0,0 +1,108 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes the Versions report as RFC 4180 CSV: a header row, then one row
+ * for each project, parent and dependency.
+ */
+public class CsvReportWriter extends RecordReportWriter {
+
+	/** Line separator required by RFC 4180 */
+	private static final String CRLF = "\r\n";
+
+	/** The destination of the report */
+	private Writer writer;
+
+	/**
+	 * Write the report to the writer. The writer is closed when this writer is closed.
+	 *
+	 * @param writer - the destination of the report
+	 */
+	public CsvReportWriter(Writer writer) {
+		this.writer = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+	}
+
+	/**
+	 * Create a writer for a UTF-8 file, replacing any existing file.
+	 *
+	 * @param file - the file to write
+	 * @return CsvReportWriter - the writer
+	 * @throws IOException - problem creating the file
+	 */
+	public static CsvReportWriter toFile(Path file) throws IOException {
+		return new CsvReportWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public void startReport(String gitHomePath, List<String> warnings) {
+		try {
+			for (String field : FIELDS) {
+				writer.write(field);
+				writer.write(',');
+			}
+			writer.write(FIELD_EXISTS);
+			writer.write(CRLF);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	void record(String[] values, Boolean exists) {
+		try {
+			for (String value : values) {
+				writeValue(value);
+				writer.write(',');
+			}
+			writer.write(exists == null ? "" : exists.toString());
+			writer.write(CRLF);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Write a value, quoting it if it contains a comma, quote or line break.
+	 * A {@code null} value is written as an empty field.
+	 */
+	private void writeValue(String value) throws IOException {
+		if (value == null) {
+			return;
+		}
+		boolean quote = false;
+		for (int i = 0; i < value.length() && !quote; i++) {
+			char c = value.charAt(i);
+			quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+		}
+		if (!quote) {
+			writer.write(value);
+			return;
+		}
+		writer.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"') {
+				writer.write('"');
+			}
+			writer.write(c);
+		}
+		writer.write('"');
+	}
+
+	@Override
+	public void close() {
+		try {
+			writer.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
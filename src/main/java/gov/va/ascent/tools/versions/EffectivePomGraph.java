@@ -0,0 +1,265 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.stream.XMLStreamException;
+
+import gov.va.ascent.tools.versions.model.PomTags;
+import gov.va.ascent.tools.versions.model.Version;
+
+/**
+ * The workspace projects keyed by groupId:artifactId:version, with the &lt;parent&gt; inheritance
+ * that maven applies to build the effective POM, without running maven.
+ * <p>
+ * The parent of each project is looked up once, in order:
+ * <ol>
+ * <li>the workspace project with the parent's groupId:artifactId:version
+ * <li>the parent POM in the local maven repository (e.g. ~/.m2/repository), if there is one
+ * <li>the workspace project with the parent's groupId:artifactId, as the workspace may be ahead of the declared parent
+ * </ol>
+ * The inherited &lt;dependencyManagement&gt; of each project is merged once, so a parent shared by many
+ * projects is only walked once per run. The &lt;properties&gt; are inherited by the {@link PropertyInterpolator},
+ * which uses this graph to find the parents.
+ * <p>
+ * Not thread-safe: the graph is built once parsing is done, before the report is built.
+ */
+class EffectivePomGraph {
+
+	/** The POM of a project, in the local repository */
+	private static final String POM_EXTENSION = ".pom";
+
+	/** The workspace projects, keyed by groupId:artifactId:version */
+	private Map<String, Version> byCoordinates = new HashMap<>();
+	/** The workspace projects, keyed by groupId:artifactId */
+	private Map<String, Version> byArtifact = new HashMap<>();
+	/** The local maven repository, or {@code null} to only use the workspace */
+	private Path localRepository;
+	/** The POMs read from the local repository, with a {@code null} value if there is none */
+	private Map<String, Version> repositoryPoms = new HashMap<>();
+	/** The parent project of each project, with a {@code null} value if it is not known */
+	private Map<Version, Version> parents = new IdentityHashMap<>();
+	/** The declared and inherited &lt;dependencyManagement&gt; of each project, merged once per project */
+	private Map<Version, Map<String, Managed>> managedVersions = new IdentityHashMap<>();
+	/** Projects whose inherited &lt;dependencyManagement&gt; is being merged, to detect parent cycles */
+	private Set<Version> inheriting = Collections.newSetFromMap(new IdentityHashMap<>());
+	/** The number of parents found in the local repository */
+	private long repositoryParents;
+	/** The number of parents that could not be found */
+	private long missingParents;
+
+	/**
+	 * A managed dependency, and the POM that declares it.
+	 */
+	private static class Managed {
+		/** The &lt;dependencyManagement&gt; dependency */
+		Version dependency;
+		/** groupId:artifactId:version of the POM that declares the dependency */
+		String owner;
+
+		Managed(Version dependency, String owner) {
+			this.dependency = dependency;
+			this.owner = owner;
+		}
+	}
+
+	/**
+	 * Create the graph of workspace projects.
+	 * If more than one project has the same coordinates, the first is used.
+	 *
+	 * @param projects - the workspace projects, in report order
+	 * @param localRepository - the local maven repository, or {@code null} to only use the workspace
+	 */
+	EffectivePomGraph(Collection<Version> projects, Path localRepository) {
+		this.localRepository = localRepository;
+		for (Version project : projects) {
+			if (project != null) {
+				byCoordinates.putIfAbsent(coordinates(project.getEffectiveGroupId(), project.getArtifactId(), project.getVersion()),
+						project);
+				byArtifact.putIfAbsent(NexusLookupCache.key(project.getEffectiveGroupId(), project.getArtifactId()), project);
+			}
+		}
+	}
+
+	private static String coordinates(String groupId, String artifactId, String version) {
+		return NexusLookupCache.key(groupId, artifactId, version);
+	}
+
+	/**
+	 * Find the parent project of a project, once per project.
+	 *
+	 * @param project - the project
+	 * @return Version - the parent project, or {@code null} if there is no parent, or it cannot be found
+	 */
+	Version parentOf(Version project) {
+		if (parents.containsKey(project)) {
+			return parents.get(project);
+		}
+		Version parent = findParent(project);
+		parents.put(project, parent);
+		return parent;
+	}
+
+	private Version findParent(Version project) {
+		Version element = project.getParent();
+		if (element == null) {
+			return null;
+		}
+		String groupId = element.getGroupId();
+		String artifactId = element.getArtifactId();
+		String version = element.getVersion();
+		// a parent version with an unresolved property can only be matched by groupId:artifactId
+		if (version != null && !version.contains(PropertyInterpolator.PROPERTY_START)) {
+			Version found = byCoordinates.get(coordinates(groupId, artifactId, version));
+			if (found == null) {
+				found = readRepositoryPom(groupId, artifactId, version);
+				if (found != null) {
+					repositoryParents++;
+				}
+			}
+			if (found != null && found != project) {
+				return found;
+			}
+		}
+		Version found = byArtifact.get(NexusLookupCache.key(groupId, artifactId));
+		if (found == null || found == project) {
+			missingParents++;
+			return null;
+		}
+		return found;
+	}
+
+	/**
+	 * Read a POM from the local repository, once per groupId:artifactId:version.
+	 *
+	 * @return Version - the project, or {@code null} if the POM is not in the repository or cannot be read
+	 */
+	private Version readRepositoryPom(String groupId, String artifactId, String version) {
+		if (localRepository == null || Version.NULL.equals(groupId) || Version.NULL.equals(artifactId)) {
+			return null;
+		}
+		String key = coordinates(groupId, artifactId, version);
+		if (repositoryPoms.containsKey(key)) {
+			return repositoryPoms.get(key);
+		}
+		Path relative = Paths.get(groupId.replace('.', '/'), artifactId, version);
+		Path pom = localRepository.resolve(relative).resolve(artifactId + "-" + version + POM_EXTENSION);
+		Version project = null;
+		if (Files.isReadable(pom)) {
+			try {
+				project = new PomReader(relative).read(pom);
+			} catch (IOException | XMLStreamException e) {
+				// a broken download is the same as a missing one, the workspace is used instead
+				project = null;
+			}
+		}
+		repositoryPoms.put(key, project);
+		return project;
+	}
+
+	/**
+	 * Set the version of each dependency of a project that does not declare one,
+	 * from the &lt;dependencyManagement&gt; of the project and its parent chain.
+	 * <p>
+	 * As with maven, the managed version is resolved with the properties of the project, not of the POM that declares it.
+	 *
+	 * @param project - the Version for the root &lt;project&gt; element
+	 * @param interpolator - resolves property references in the managed versions
+	 * @param problems - the list to add descriptions of dependencies without a managed version to
+	 */
+	void applyManagedVersions(Version project, PropertyInterpolator interpolator, List<String> problems) {
+		Map<String, Managed> managed = null;
+		for (Version dependency : project.getDependencies()) {
+			if (!dependency.isManaged()) {
+				continue;
+			}
+			if (managed == null) {
+				managed = managedVersions(project, problems);
+			}
+			Managed found = managed.get(NexusLookupCache.key(dependency.getGroupId(), dependency.getArtifactId()));
+			if (found == null) {
+				dependency.setVersion(null);
+				dependency.setManagedBy(null);
+				problems.add("No managed version for " + dependency.getGroupId() + ":" + dependency.getArtifactId());
+				continue;
+			}
+			String text = found.dependency.getDeclaredVersion() == null ? found.dependency.getVersion()
+					: found.dependency.getDeclaredVersion();
+			String value = interpolator.resolve(project, text, problems);
+			if (value == null) {
+				problems.add("Could not resolve managed version " + text + " of " + dependency.getGroupId() + ":"
+						+ dependency.getArtifactId() + " from " + found.owner);
+			}
+			dependency.setVersion(value == null ? text : value);
+			dependency.setManagedBy(found.owner);
+		}
+	}
+
+	/**
+	 * The &lt;dependencyManagement&gt; declared by a project and inherited from its parent chain,
+	 * keyed by groupId:artifactId, merged once per project.
+	 * A project that manages no dependencies of its own shares the map of its parent.
+	 */
+	private Map<String, Managed> managedVersions(Version project, List<String> problems) {
+		Map<String, Managed> managed = managedVersions.get(project);
+		if (managed != null) {
+			return managed;
+		}
+		Map<String, Managed> inherited = Collections.emptyMap();
+		Version parent = parentOf(project);
+		if (parent != null) {
+			if (inheriting.add(project)) {
+				try {
+					inherited = managedVersions(parent, problems);
+				} finally {
+					inheriting.remove(project);
+				}
+			} else {
+				problems.add("Parent cycle at " + project.getEffectiveGroupId() + ":" + project.getArtifactId());
+			}
+		}
+		String owner = null;
+		for (Version dependency : project.getDependencies()) {
+			if (PomTags.DEPENDENCY_MANAGEMENT.equals(dependency.getHierarchyIdTag())) {
+				if (owner == null) {
+					owner = coordinates(project.getEffectiveGroupId(), project.getArtifactId(), project.getVersion());
+					managed = new HashMap<>(inherited);
+				}
+				managed.put(NexusLookupCache.key(dependency.getGroupId(), dependency.getArtifactId()),
+						new Managed(dependency, owner));
+			}
+		}
+		if (managed == null) {
+			managed = inherited;
+		}
+		managedVersions.put(project, managed);
+		return managed;
+	}
+
+	/**
+	 * The number of parents found in the local repository instead of the workspace.
+	 *
+	 * @return long - the number of parents
+	 */
+	long getRepositoryParents() {
+		return repositoryParents;
+	}
+
+	/**
+	 * The number of parents that were neither in the workspace nor in the local repository.
+	 *
+	 * @return long - the number of parents
+	 */
+	long getMissingParents() {
+		return missingParents;
+	}
+}
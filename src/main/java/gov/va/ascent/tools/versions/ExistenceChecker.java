@@ -0,0 +1,410 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import gov.va.ascent.tools.utils.RunMetrics;
+
+import gov.va.ascent.tools.versions.model.ArtifactVersions;
+import gov.va.ascent.tools.versions.model.Version;
+
+/**
+ * Pipeline stage that checks if artifact versions exist in nexus.
+ * <p>
+ * POM parsing only records the coordinates of each {@link Version},
+ * and submits them to this stage. The nexus checks run on a bounded pool,
+ * so that network round trips overlap with the parsing of other POMs.
+ * The result of each check is set on its Version with {@link Version#setExists(Boolean)}.
+ * <p>
+ * Each distinct groupId:artifactId:version is requested from nexus only once per run,
+ * and not at all if a valid result was saved in the {@link NexusResultStore} by a previous run.
+ * <p>
+ * In batch mode, the available versions of each artifact are looked up once in a {@link RepositoryChain},
+ * and every check for that artifact is answered from the result. Artifacts of the same groupId that are waiting
+ * for a free request thread are looked up together, so a busy run makes fewer, larger requests.
+ * The result store is not read in batch mode, as the search also collects the versions the report lists
+ * for each artifact; the results are still saved for later runs that check each version separately.
+ * Answers from the local repository are not saved in the result store.
+ * <p>
+ * With a {@link LocalRepositoryIndex}, lookups that fail in nexus (e.g. off the VPN, or timed out) are answered from
+ * the local maven repository instead. Without one, lookups rejected by the nexus circuit breaker
+ * (see {@link ArtifactChecker#configureRetries(int, int, int, int)}) leave the version as not known, with no error.
+ * In offline mode the chain is the local repository only.
+ */
+class ExistenceChecker {
+
+	/** The versions.nexus.base-projects-url value from versions.properties */
+	private String nexusBaseProjectsUrl;
+	/** The pool that limits the number of nexus requests in flight */
+	private ExecutorService executor;
+	/** The repositories for batch lookups, or {@code null} to check each version separately in nexus */
+	private RepositoryChain repositories;
+	/** Shares the result of each distinct artifact version between all the versions that need it */
+	private NexusLookupCache<Boolean> cache = new NexusLookupCache<>();
+	/** In batch mode, shares the available versions of each artifact between all its versions */
+	private NexusLookupCache<ArtifactVersions> artifactCache = new NexusLookupCache<>();
+	/** In batch mode, the artifact lookups waiting for a request thread, keyed by groupId, then artifactId */
+	private Map<String, Map<String, CompletableFuture<ArtifactVersions>>> waiting = new HashMap<>();
+	/** The number of batches looked up in the repositories */
+	private AtomicLong batches = new AtomicLong();
+	/** Results saved by previous runs, or {@code null} */
+	private NexusResultStore store;
+	/** The store hits before this stage started, as the store is shared by every scan in the run */
+	private long storeHitsBefore;
+	/** The local maven repository, to answer lookups offline or when nexus fails, or {@code null} */
+	private LocalRepositoryIndex localRepository;
+	/** If {@code true}, the repositories are only the local repository, and nexus is not used */
+	private boolean offline;
+	/** The artifacts whose versions were found in the local repository instead of remotely, keyed by groupId:artifactId */
+	private Set<String> localResults = ConcurrentHashMap.newKeySet();
+	/** The number of failed nexus lookups that were answered from the local repository */
+	private AtomicLong fallbacks = new AtomicLong();
+	/** The number of lookups left as not known, because the nexus circuit breaker was open */
+	private AtomicLong skipped = new AtomicLong();
+	/** The nexus requests retried before this stage started, as the count is for the whole run */
+	private long retriedBefore = ArtifactChecker.getRetried();
+	/** The nexus circuit breaker trips before this stage started */
+	private long tripsBefore = ArtifactChecker.getCircuitBreaker().getTrips();
+
+	/**
+	 * A pending nexus check for one {@link Version}.
+	 */
+	static class Check {
+		/** The version being checked */
+		Version version;
+		/** Completes when the check is done */
+		CompletableFuture<Boolean> result;
+
+		Check(Version version, CompletableFuture<Boolean> result) {
+			this.version = version;
+			this.result = result;
+		}
+
+		/**
+		 * Wait for the check to complete.
+		 *
+		 * @return Throwable - the reason the check failed, or {@code null} if it succeeded
+		 */
+		Throwable await() {
+			try {
+				result.join();
+				return null;
+			} catch (CompletionException e) {
+				Throwable cause = e.getCause();
+				return cause;
+			}
+		}
+	}
+
+	/**
+	 * Create the nexus checking stage, with the local maven repository to answer lookups when nexus cannot.
+	 *
+	 * @param nexusBaseProjectsUrl - versions.nexus.base-projects-url value from versions.properties,
+	 *            or {@code null} with no {@code repositories} to not check nexus at all
+	 * @param repositories - the repositories for batch mode, or {@code null} to check each version separately
+	 * @param maxInFlight - the maximum number of concurrent nexus requests
+	 * @param store - results saved by previous runs, or {@code null} to always check nexus;
+	 *            only read when each version is checked separately
+	 * @param localRepository - answers the lookups that fail in nexus, or {@code null} to report the failures
+	 * @param offline - if {@code true}, the repositories are only the local repository
+	 */
+	ExistenceChecker(String nexusBaseProjectsUrl, RepositoryChain repositories, int maxInFlight, NexusResultStore store,
+			LocalRepositoryIndex localRepository, boolean offline) {
+		if (offline && repositories == null) {
+			throw new IllegalArgumentException("Offline checks need the local repository");
+		}
+		this.localRepository = localRepository;
+		this.offline = offline;
+		this.nexusBaseProjectsUrl = nexusBaseProjectsUrl;
+		this.repositories = repositories;
+		this.store = store;
+		this.storeHitsBefore = store == null ? 0 : store.getHits();
+		this.executor = Executors.newFixedThreadPool(Math.max(1, maxInFlight), runnable -> {
+			Thread thread = new Thread(runnable, "nexus-check");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Submit the project version, and the versions of its parent and dependencies,
+	 * if they are explicit. Versions that reference properties, and managed versions,
+	 * are submitted by {@link #submitResolved(Version)}.
+	 *
+	 * @param project - the Version for the root &lt;project&gt; element
+	 * @return List&lt;Check&gt; - the pending checks, in report order
+	 */
+	List<Check> submitAll(Version project) {
+		return submitAll(project, false);
+	}
+
+	/**
+	 * Submit the versions of the project, its parent and dependencies that referenced properties or were managed,
+	 * once the {@link PropertyInterpolator} and {@link EffectivePomGraph} have resolved them.
+	 * Versions that could not be resolved are not checked.
+	 *
+	 * @param project - the Version for the root &lt;project&gt; element
+	 * @return List&lt;Check&gt; - the pending checks, in report order
+	 */
+	List<Check> submitResolved(Version project) {
+		return submitAll(project, true);
+	}
+
+	/**
+	 * Submit either the explicit versions, or the resolved versions.
+	 */
+	private List<Check> submitAll(Version project, boolean resolved) {
+		List<Check> checks = new ArrayList<>();
+		if (isSubmitted(project, resolved)) {
+			checks.add(submit(project.getEffectiveGroupId(), project));
+		}
+		if (project.getParent() != null && isSubmitted(project.getParent(), resolved)) {
+			checks.add(submit(project.getParent().getGroupId(), project.getParent()));
+		}
+		for (Version dependency : project.getDependencies()) {
+			if (isSubmitted(dependency, resolved)) {
+				checks.add(submit(dependency.getGroupId(), dependency));
+			}
+		}
+		return checks;
+	}
+
+	private static boolean isSubmitted(Version version, boolean resolved) {
+		if (version.getDeclaredVersion() == null && !version.isManaged()) {
+			return !resolved;
+		}
+		return resolved && version.getVersion() != null
+				&& !version.getVersion().contains(PropertyInterpolator.PROPERTY_START);
+	}
+
+	/**
+	 * Submit a version to be checked in nexus.
+	 *
+	 * @param groupId - the effective groupId of the version
+	 * @param version - the version to check
+	 * @return Check - the pending check
+	 */
+	Check submit(String groupId, Version version) {
+		if (nexusBaseProjectsUrl == null && repositories == null) {
+			// nothing to check against, the version is left as not known
+			return new Check(version, CompletableFuture.completedFuture(null));
+		}
+		String artifactId = version.getArtifactId();
+		String key = NexusLookupCache.key(groupId, artifactId, version.getVersion());
+		CompletableFuture<Boolean> result = cache.get(key, pending -> {
+			if (repositories != null) {
+				// always searched, as the report also needs every version the repositories know for the artifact
+				String artifactKey = NexusLookupCache.key(groupId, artifactId);
+				findVersions(groupId, artifactId).whenComplete((found, t) -> {
+					if (t != null) {
+						failed(pending, t instanceof CompletionException ? t.getCause() : t);
+					} else if (localResults.contains(artifactKey)) {
+						// not stored, as a version in the local repository may not be in nexus
+						pending.complete(Version.NULL.equals(groupId) ? null : found.contains(version.getVersion()));
+					} else {
+						boolean exists = found.contains(version.getVersion());
+						if (store != null) {
+							store.put(key, exists);
+						}
+						pending.complete(exists);
+					}
+				});
+				return;
+			}
+			Boolean stored = store == null ? null : store.get(key);
+			if (stored != null) {
+				pending.complete(stored);
+				return;
+			}
+			executor.execute(() -> {
+				try {
+					boolean exists = ArtifactChecker.exists(nexusBaseProjectsUrl,
+							Version.NULL.equals(groupId) ? null : groupId, artifactId, version.getVersion());
+					if (store != null) {
+						store.put(key, exists);
+					}
+					pending.complete(exists);
+				} catch (IOException | RuntimeException e) {
+					if (localRepository == null) {
+						failed(pending, e);
+					} else {
+						fallbacks.incrementAndGet();
+						pending.complete(localRepository.exists(groupId, artifactId, version.getVersion()));
+					}
+				}
+			});
+		}).thenApply(exists -> {
+			version.setExists(exists);
+			return exists;
+		});
+		return new Check(version, result);
+	}
+
+	/**
+	 * Complete a check that nexus could not answer. If the circuit breaker stopped the lookup, the version is left
+	 * as not known, as the nexus failures that opened the breaker have already been reported.
+	 *
+	 * @param pending - the pending check
+	 * @param t - the reason nexus could not answer
+	 */
+	private void failed(CompletableFuture<Boolean> pending, Throwable t) {
+		if (t instanceof NexusCircuitBreaker.OpenException) {
+			skipped.incrementAndGet();
+			pending.complete(null);
+		} else {
+			pending.completeExceptionally(t);
+		}
+	}
+
+	/**
+	 * Look up all available versions of an artifact once. The lookup waits with the other artifacts of its groupId
+	 * for a request thread, and they are all looked up in one batch.
+	 *
+	 * @param groupId - the effective groupId of the artifact
+	 * @param artifactId - the artifactId of the artifact
+	 * @return CompletableFuture&lt;ArtifactVersions&gt; - the shared result for the artifact
+	 */
+	private CompletableFuture<ArtifactVersions> findVersions(String groupId, String artifactId) {
+		return artifactCache.get(NexusLookupCache.key(groupId, artifactId), pending -> {
+			boolean first;
+			synchronized (waiting) {
+				Map<String, CompletableFuture<ArtifactVersions>> batch = waiting.get(groupId);
+				first = batch == null;
+				if (first) {
+					batch = new LinkedHashMap<>();
+					waiting.put(groupId, batch);
+				}
+				batch.put(artifactId, pending);
+			}
+			if (first) {
+				executor.execute(() -> findBatch(groupId));
+			}
+		});
+	}
+
+	/**
+	 * Look up the artifacts of a groupId that are waiting, in the repositories.
+	 * Artifacts that arrive after the batch is taken start the next batch.
+	 *
+	 * @param groupId - the effective groupId of the artifacts
+	 */
+	private void findBatch(String groupId) {
+		Map<String, CompletableFuture<ArtifactVersions>> batch;
+		synchronized (waiting) {
+			batch = waiting.remove(groupId);
+		}
+		batches.incrementAndGet();
+		Map<String, RepositoryChain.Found> found;
+		try {
+			found = repositories.findVersions(Version.NULL.equals(groupId) ? null : groupId, batch.keySet());
+		} catch (RuntimeException e) {
+			batch.forEach((artifactId, pending) -> notKnown(groupId, artifactId, pending, e));
+			return;
+		}
+		batch.forEach((artifactId, pending) -> {
+			RepositoryChain.Found artifact = found.get(artifactId);
+			if (artifact.failure != null) {
+				// not known, rather than not found, as the repository that failed may have the artifact
+				notKnown(groupId, artifactId, pending, artifact.failure);
+				return;
+			}
+			if (!artifact.repository.isRemote()) {
+				localResults.add(NexusLookupCache.key(groupId, artifactId));
+			}
+			pending.complete(artifact.versions);
+		});
+	}
+
+	/**
+	 * Complete an artifact lookup that the repositories could not answer, from the local repository if there is one.
+	 *
+	 * @param groupId - the effective groupId of the artifact
+	 * @param artifactId - the artifactId of the artifact
+	 * @param pending - the pending lookup
+	 * @param e - the reason the repositories could not answer
+	 */
+	private void notKnown(String groupId, String artifactId, CompletableFuture<ArtifactVersions> pending, Exception e) {
+		if (localRepository == null) {
+			pending.completeExceptionally(e);
+		} else {
+			fallbacks.incrementAndGet();
+			localResults.add(NexusLookupCache.key(groupId, artifactId));
+			pending.complete(localRepository.findVersions(groupId, artifactId));
+		}
+	}
+
+	/**
+	 * The versions available in nexus for each artifact searched in batch mode.
+	 * Should only be called after all checks have completed.
+	 *
+	 * @return Map&lt;String, ArtifactVersions&gt; - the available versions, keyed by groupId:artifactId
+	 */
+	Map<String, ArtifactVersions> getArtifactVersions() {
+		return artifactCache.getCompleted();
+	}
+
+	/**
+	 * A one line summary of the nexus lookups made by this stage.
+	 *
+	 * @return String - the summary
+	 */
+	String summary() {
+		return cache.summary()
+				+ (repositories == null || offline ? "" : ", " + artifactCache.size() + " artifact searches")
+				+ (repositories == null || repositories.getRepositories().size() < 2 ? ""
+						: " in " + batches.get() + " batches (" + repositories.summary() + ")")
+				+ (store == null ? "" : ", " + store.getHits() + " from the nexus cache file")
+				+ (offline ? ", offline from the local repository" : "")
+				+ (fallbacks.get() == 0 ? "" : ", " + fallbacks.get() + " failed lookups answered from the local repository")
+				+ (skipped.get() == 0 ? "" : ", " + skipped.get() + " not checked as nexus is failing");
+	}
+
+	/**
+	 * Add the lookup and cache counts of this stage to the run metrics.
+	 *
+	 * @param metrics - the run metrics
+	 */
+	void addMetrics(RunMetrics metrics) {
+		metrics.count("nexus lookups", cache.getRequests());
+		metrics.count("nexus lookup cache hits", cache.getHits());
+		metrics.count("nexus lookup cache misses", cache.getRequests() - cache.getHits());
+		if (repositories != null) {
+			metrics.count("nexus artifact searches", artifactCache.size());
+			metrics.count("nexus artifact search batches", batches.get());
+			repositories.addMetrics(metrics);
+		}
+		if (store != null) {
+			metrics.count("nexus cache file hits", store.getHits() - storeHitsBefore);
+		}
+		metrics.count("nexus request retries", ArtifactChecker.getRetried() - retriedBefore);
+		metrics.count("nexus breaker trips", ArtifactChecker.getCircuitBreaker().getTrips() - tripsBefore);
+		metrics.count("nexus breaker skipped checks", skipped.get());
+		if (localRepository != null) {
+			metrics.count("local repository fallbacks", fallbacks.get());
+			metrics.count("local repository groupIds read", localRepository.getGroups());
+			metrics.count("local repository directories read", localRepository.getDirectories());
+		}
+	}
+
+	/**
+	 * Stop the pool, and save the results for the next run.
+	 * Any checks that have not completed are abandoned.
+	 */
+	void shutdown() {
+		executor.shutdownNow();
+		if (store != null) {
+			store.save();
+		}
+	}
+}
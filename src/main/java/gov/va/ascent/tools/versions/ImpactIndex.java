@@ -0,0 +1,207 @@
+package gov.va.ascent.tools.versions;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import gov.va.ascent.tools.versions.model.PomTags;
+import gov.va.ascent.tools.versions.model.Version;
+
+/**
+ * Which workspace projects are affected by a change to an artifact: the projects that reference it
+ * as a &lt;parent&gt;, a dependency or in &lt;dependencyManagement&gt;, and the projects that reference those, and so on.
+ * <p>
+ * Each workspace project has an id, and every artifact referenced by a workspace POM, in the workspace or not,
+ * has a precomputed bitset of the ids of all the projects it affects. A query is a map lookup,
+ * so it answers in microseconds however many projects there are.
+ * <p>
+ * The index is built once the POMs are parsed, and is not changed afterwards.
+ */
+public class ImpactIndex {
+
+	/** The workspace projects, by project id */
+	private List<Version> projects = new ArrayList<>();
+	/** The path of each project relative to GIT_HOME, by project id */
+	private List<String> projectPaths = new ArrayList<>();
+	/** The ids of the referenced artifacts, keyed by groupId:artifactId; workspace projects use their project id */
+	private Map<String, Integer> artifactIds = new HashMap<>();
+	/** The projects that reference each artifact directly, by artifact id */
+	private List<BitSet> direct = new ArrayList<>();
+	/** The projects affected by each artifact, directly or not, by artifact id */
+	private BitSet[] impacted;
+
+	/**
+	 * The projects affected by a change to an artifact.
+	 */
+	public class Impact {
+		/** The artifact groupId:artifactId */
+		private String artifact;
+		/** The artifact id, or -1 if no workspace project references the artifact */
+		private int id;
+
+		private Impact(String artifact, int id) {
+			this.artifact = artifact;
+			this.id = id;
+		}
+
+		/**
+		 * The path, relative to GIT_HOME, of the workspace project of the artifact.
+		 *
+		 * @return String - the project path, or {@code null} if the artifact is not a workspace project
+		 */
+		public String getChangedProject() {
+			return id >= 0 && id < projects.size() ? projectPaths.get(id) : null;
+		}
+
+		/**
+		 * The paths, relative to GIT_HOME, of the affected projects, in project id order.
+		 * The changed project itself is not included, even if it is in a dependency cycle.
+		 *
+		 * @return List&lt;String&gt; - the project paths
+		 */
+		public List<String> getProjects() {
+			List<String> paths = new ArrayList<>();
+			if (id >= 0) {
+				for (int p = impacted[id].nextSetBit(0); p >= 0; p = impacted[id].nextSetBit(p + 1)) {
+					if (p != id) {
+						paths.add(projectPaths.get(p));
+					}
+				}
+			}
+			return paths;
+		}
+
+		/**
+		 * How a project is affected: the tag of its direct reference to the artifact, if it has one.
+		 *
+		 * @param projectPath - the project path, as returned by {@link #getProjects()}
+		 * @return PomTags - {@link PomTags#PARENT}, {@link PomTags#DEPENDENCIES} or {@link PomTags#DEPENDENCY_MANAGEMENT}
+		 *         for a direct reference, or {@code null} if the project is only affected through other projects
+		 */
+		public PomTags getReference(String projectPath) {
+			int p = projectPaths.indexOf(projectPath);
+			if (id < 0 || p < 0 || !direct.get(id).get(p)) {
+				return null;
+			}
+			Version project = projects.get(p);
+			if (project.getParent() != null && artifact.equals(key(project.getParent()))) {
+				return PomTags.PARENT;
+			}
+			PomTags reference = null;
+			for (Version dependency : project.getDependencies()) {
+				if (artifact.equals(key(dependency))) {
+					// a dependency is a stronger reference than a managed version
+					if (!PomTags.DEPENDENCY_MANAGEMENT.equals(dependency.getHierarchyIdTag())) {
+						return PomTags.DEPENDENCIES;
+					}
+					reference = PomTags.DEPENDENCY_MANAGEMENT;
+				}
+			}
+			return reference;
+		}
+	}
+
+	/**
+	 * Index the workspace projects.
+	 *
+	 * @param versions - the parsed projects, keyed by absolute project path
+	 * @param gitHomePath - the value of system GIT_HOME environment variable
+	 */
+	public ImpactIndex(Map<String, Version> versions, String gitHomePath) {
+		Path gitHome = Paths.get(gitHomePath).toAbsolutePath().normalize();
+		for (Map.Entry<String, Version> entry : versions.entrySet()) {
+			Path path = Paths.get(entry.getKey()).toAbsolutePath().normalize();
+			if (entry.getValue() != null && path.startsWith(gitHome) && !path.equals(gitHome)) {
+				projects.add(entry.getValue());
+				projectPaths.add(gitHome.relativize(path).toString());
+			}
+		}
+		// workspace projects take the ids from 0, so a project id is also the id of its artifact
+		for (int p = 0; p < projects.size(); p++) {
+			artifactIds.putIfAbsent(NexusLookupCache.key(projects.get(p).getEffectiveGroupId(), projects.get(p).getArtifactId()), p);
+			direct.add(new BitSet());
+		}
+		for (int p = 0; p < projects.size(); p++) {
+			Version project = projects.get(p);
+			if (project.getParent() != null) {
+				reference(project.getParent(), p);
+			}
+			for (Version dependency : project.getDependencies()) {
+				reference(dependency, p);
+			}
+		}
+		impacted = new BitSet[direct.size()];
+		for (int p = 0; p < projects.size(); p++) {
+			impacted[p] = reachable(p);
+		}
+		// every project that references another artifact is indexed, so their closures can be combined
+		for (int a = projects.size(); a < direct.size(); a++) {
+			BitSet affected = (BitSet) direct.get(a).clone();
+			for (int p = direct.get(a).nextSetBit(0); p >= 0; p = direct.get(a).nextSetBit(p + 1)) {
+				affected.or(impacted[p]);
+			}
+			impacted[a] = affected;
+		}
+	}
+
+	private static String key(Version element) {
+		return NexusLookupCache.key(element.getGroupId(), element.getArtifactId());
+	}
+
+	/**
+	 * Record that a project references an artifact.
+	 */
+	private void reference(Version element, int project) {
+		Integer id = artifactIds.get(key(element));
+		if (id == null) {
+			id = direct.size();
+			artifactIds.put(key(element), id);
+			direct.add(new BitSet());
+		}
+		direct.get(id).set(project);
+	}
+
+	/**
+	 * The projects that reference a workspace project, directly or not, with a breadth first search.
+	 * Cycles are followed once; a project in a cycle reaches itself.
+	 */
+	private BitSet reachable(int project) {
+		BitSet seen = new BitSet(projects.size());
+		Deque<Integer> queue = new ArrayDeque<>();
+		queue.add(project);
+		while (!queue.isEmpty()) {
+			BitSet next = direct.get(queue.poll());
+			for (int p = next.nextSetBit(0); p >= 0; p = next.nextSetBit(p + 1)) {
+				if (!seen.get(p)) {
+					seen.set(p);
+					if (impacted[p] != null) {
+						// already closed, no need to search past it
+						seen.or(impacted[p]);
+					} else {
+						queue.add(p);
+					}
+				}
+			}
+		}
+		return seen;
+	}
+
+	/**
+	 * Find the projects affected by a change to an artifact.
+	 *
+	 * @param groupId - the groupId of the artifact
+	 * @param artifactId - the artifactId of the artifact
+	 * @return Impact - the affected projects, none if no workspace project references the artifact
+	 */
+	public Impact impact(String groupId, String artifactId) {
+		String artifact = NexusLookupCache.key(groupId, artifactId);
+		Integer id = artifactIds.get(artifact);
+		return new Impact(artifact, id == null ? -1 : id);
+	}
+}
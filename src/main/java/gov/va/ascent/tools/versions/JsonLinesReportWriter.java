@@ -0,0 +1,76 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Writes the Versions report as JSON Lines: one JSON object per line
+ * for each project, parent and dependency.
+ */
+public class JsonLinesReportWriter extends RecordReportWriter {
+
+	/** Factory for the streaming generator */
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	/** The streaming generator, which owns the writer */
+	private JsonGenerator generator;
+
+	/**
+	 * Write the report to the writer. The writer is closed when this writer is closed.
+	 *
+	 * @param writer - the destination of the report
+	 * @throws IOException - problem creating the generator
+	 */
+	public JsonLinesReportWriter(Writer writer) throws IOException {
+		this.generator = JSON_FACTORY.createGenerator(writer);
+		// each record ends with its own new line
+		this.generator.setRootValueSeparator(null);
+	}
+
+	/**
+	 * Create a writer for a UTF-8 file, replacing any existing file.
+	 *
+	 * @param file - the file to write
+	 * @return JsonLinesReportWriter - the writer
+	 * @throws IOException - problem creating the file
+	 */
+	public static JsonLinesReportWriter toFile(Path file) throws IOException {
+		return new JsonLinesReportWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+	}
+
+	@Override
+	void record(String[] values, Boolean exists) {
+		try {
+			generator.writeStartObject();
+			for (int i = 0; i < FIELDS.length; i++) {
+				generator.writeStringField(FIELDS[i], values[i]);
+			}
+			generator.writeFieldName(FIELD_EXISTS);
+			if (exists == null) {
+				generator.writeNull();
+			} else {
+				generator.writeBoolean(exists);
+			}
+			generator.writeEndObject();
+			generator.writeRaw('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			generator.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,176 @@
+package gov.va.ascent.tools.versions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import gov.va.ascent.tools.versions.model.ArtifactVersions;
+import gov.va.ascent.tools.versions.model.PomTags;
+import gov.va.ascent.tools.versions.model.Revision;
+import gov.va.ascent.tools.versions.model.Version;
+
+/**
+ * All the known revisions of each artifact, from the workspace projects and from nexus,
+ * keyed by groupId:artifactId.
+ * <p>
+ * The index is built once for a report. Each artifact keeps its releases and SNAPSHOTs in sorted arrays,
+ * so the newest versions are found in constant time, and the number of versions behind
+ * with a binary search.
+ */
+class LatestVersionIndex {
+
+	/** Artifact with no revisions */
+	private static final Revision[] NONE = new Revision[0];
+
+	/** The revisions of each artifact, keyed by groupId:artifactId */
+	private Map<String, Artifact> artifacts = new HashMap<>();
+
+	/**
+	 * The sorted revisions of one artifact.
+	 */
+	static class Artifact {
+		/** The distinct release revisions, oldest first */
+		private Revision[] releases;
+		/** The distinct SNAPSHOT revisions, oldest first */
+		private Revision[] snapshots;
+		/** The newest version of the artifact, release or SNAPSHOT */
+		private Version newest;
+
+		private Artifact(Revision[] releases, Revision[] snapshots, Version newest) {
+			this.releases = releases;
+			this.snapshots = snapshots;
+			this.newest = newest;
+		}
+
+		/**
+		 * The newest known version of the artifact, release or SNAPSHOT.
+		 * This is the workspace project, if it has the newest version.
+		 *
+		 * @return Version - the newest version
+		 */
+		Version getNewest() {
+			return newest;
+		}
+
+		/**
+		 * The newest known release of the artifact.
+		 *
+		 * @return Revision - the release, or {@code null} if there are no releases
+		 */
+		Revision getNewestRelease() {
+			return releases.length == 0 ? null : releases[releases.length - 1];
+		}
+
+		/**
+		 * The newest known SNAPSHOT of the artifact.
+		 *
+		 * @return Revision - the SNAPSHOT, or {@code null} if there are no SNAPSHOTs
+		 */
+		Revision getNewestSnapshot() {
+			return snapshots.length == 0 ? null : snapshots[snapshots.length - 1];
+		}
+
+		/**
+		 * The number of known releases that are newer than a revision, in O(log n).
+		 *
+		 * @param revision - the revision in use
+		 * @return int - the number of newer releases, 0 if the revision is {@code null}
+		 */
+		int releasesBehind(Revision revision) {
+			if (revision == null) {
+				return 0;
+			}
+			int index = Arrays.binarySearch(releases, revision);
+			// past the revision if it is a known release, otherwise the insertion point
+			int newer = index >= 0 ? index + 1 : -index - 1;
+			return releases.length - newer;
+		}
+	}
+
+	/**
+	 * Index the workspace projects and the versions found in nexus.
+	 *
+	 * @param workspaceVersions - the workspace project versions, keyed by groupId:artifactId
+	 * @param nexusVersions - the versions available in nexus, keyed by groupId:artifactId
+	 */
+	LatestVersionIndex(Map<String, Version> workspaceVersions, Map<String, ArtifactVersions> nexusVersions) {
+		Map<String, List<Revision>> revisions = new HashMap<>();
+		Map<String, Version> newest = new HashMap<>();
+		workspaceVersions.forEach((key, version) -> {
+			if (version.getRevision() != null) {
+				revisions.computeIfAbsent(key, k -> new ArrayList<>()).add(version.getRevision());
+				newest.put(key, version);
+			}
+		});
+		nexusVersions.forEach((key, available) -> {
+			Version workspace = newest.get(key);
+			Revision newestRevision = workspace == null ? null : workspace.getRevision();
+			String newestVersion = null;
+			List<Revision> list = revisions.computeIfAbsent(key, k -> new ArrayList<>());
+			for (String version : available.getVersions()) {
+				Revision revision = RevisionParser.parseRevision(version);
+				if (revision == null) {
+					continue;
+				}
+				list.add(revision);
+				if (newestRevision == null || revision.compareTo(newestRevision) > 0) {
+					newestRevision = revision;
+					newestVersion = version;
+				}
+			}
+			if (newestVersion != null) {
+				// newer than the workspace project, so only known to nexus
+				newest.put(key, new Version(null, PomTags.PROJECT, available.getGroupId(), available.getArtifactId(),
+						newestVersion, Boolean.TRUE));
+			}
+		});
+		revisions.forEach((key, list) -> {
+			if (!list.isEmpty()) {
+				artifacts.put(key, sort(list, newest.get(key)));
+			}
+		});
+	}
+
+	/**
+	 * Sort and split the revisions of an artifact.
+	 */
+	private static Artifact sort(List<Revision> list, Version newest) {
+		Revision[] sorted = list.toArray(new Revision[list.size()]);
+		Arrays.sort(sorted);
+		int distinct = 0;
+		int snapshotCount = 0;
+		for (Revision revision : sorted) {
+			if (distinct == 0 || revision.compareTo(sorted[distinct - 1]) != 0) {
+				sorted[distinct++] = revision;
+				if (revision.isSnapshot()) {
+					snapshotCount++;
+				}
+			}
+		}
+		Revision[] releases = distinct == snapshotCount ? NONE : new Revision[distinct - snapshotCount];
+		Revision[] snapshots = snapshotCount == 0 ? NONE : new Revision[snapshotCount];
+		int r = 0;
+		int s = 0;
+		for (int i = 0; i < distinct; i++) {
+			if (sorted[i].isSnapshot()) {
+				snapshots[s++] = sorted[i];
+			} else {
+				releases[r++] = sorted[i];
+			}
+		}
+		return new Artifact(releases, snapshots, newest);
+	}
+
+	/**
+	 * Get the known revisions of an artifact.
+	 *
+	 * @param groupId - the groupId of the artifact
+	 * @param artifactId - the artifactId of the artifact
+	 * @return Artifact - the revisions, or {@code null} if the artifact is not known
+	 */
+	Artifact get(String groupId, String artifactId) {
+		return artifacts.get(NexusLookupCache.key(groupId, artifactId));
+	}
+}
@@ -0,0 +1,176 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import gov.va.ascent.tools.versions.model.ArtifactVersions;
+import gov.va.ascent.tools.versions.model.Version;
+
+/**
+ * Answers nexus lookups from the local maven repository (e.g. ~/.m2/repository), for working without nexus.
+ * <p>
+ * The repository is laid out as groupId/artifactId/version/artifactId-version.pom. The first lookup in a groupId
+ * crawls that groupId directory once, three levels deep, and indexes every artifact version that has a .pom or .jar file.
+ * Every other lookup in the groupId is answered from the index, without touching the file system.
+ * Version directories with only the *.lastUpdated markers of a failed download are not counted.
+ * <p>
+ * A version found here is one that maven has installed or downloaded, not necessarily one that is still in nexus.
+ * <p>
+ * Thread-safe: each groupId is crawled at most once, even with concurrent lookups.
+ * <p>
+ * As an {@link ArtifactRepository}, a batch is answered from the one crawl of its groupId.
+ */
+class LocalRepositoryIndex implements ArtifactRepository {
+
+	/** The depth of the artifact files below a groupId directory: artifactId/version/file */
+	private static final int FILE_DEPTH = 3;
+	/** Extension of the POM files in the repository */
+	private static final String POM_EXTENSION = ".pom";
+	/** Extension of the jar files in the repository */
+	private static final String JAR_EXTENSION = ".jar";
+
+	/** The local maven repository */
+	private Path repository;
+	/** The artifact versions in each crawled groupId, keyed by groupId, then by artifactId */
+	private ConcurrentMap<String, Map<String, ArtifactVersions>> groups = new ConcurrentHashMap<>();
+	/** The number of directories read by the crawls */
+	private AtomicLong directories = new AtomicLong();
+
+	/**
+	 * Create an index of the local repository. Nothing is read until the first lookup.
+	 *
+	 * @param repository - the local maven repository, e.g. ~/.m2/repository
+	 */
+	LocalRepositoryIndex(Path repository) {
+		this.repository = repository;
+	}
+
+	@Override
+	public String getName() {
+		return "local repository " + repository;
+	}
+
+	@Override
+	public boolean isRemote() {
+		return false;
+	}
+
+	@Override
+	public Map<String, ArtifactVersions> findVersions(String groupId, Collection<String> artifactIds) {
+		if (groupId == null || Version.NULL.equals(groupId)) {
+			return Collections.emptyMap();
+		}
+		return groups.computeIfAbsent(groupId, this::crawl);
+	}
+
+	/**
+	 * Is an artifact version in the local repository?
+	 *
+	 * @param groupId - the effective groupId of the artifact
+	 * @param artifactId - the artifactId of the artifact
+	 * @param version - the base version, with SNAPSHOTs as #.#.#-SNAPSHOT
+	 * @return Boolean - {@code true} if the version is in the repository,
+	 *         or {@code null} if the groupId is not known, so the version cannot be found
+	 */
+	Boolean exists(String groupId, String artifactId, String version) {
+		if (groupId == null || Version.NULL.equals(groupId)) {
+			return null;
+		}
+		return findVersions(groupId, artifactId).contains(version);
+	}
+
+	/**
+	 * Find all the versions of an artifact in the local repository.
+	 * The returned versions are shared, and must not be changed.
+	 *
+	 * @param groupId - the effective groupId of the artifact
+	 * @param artifactId - the artifactId of the artifact
+	 * @return ArtifactVersions - the versions, empty if there are none or the groupId is not known
+	 */
+	ArtifactVersions findVersions(String groupId, String artifactId) {
+		if (groupId == null || Version.NULL.equals(groupId)) {
+			return new ArtifactVersions(null, artifactId);
+		}
+		ArtifactVersions found = groups.computeIfAbsent(groupId, this::crawl).get(artifactId);
+		return found == null ? new ArtifactVersions(groupId, artifactId) : found;
+	}
+
+	/**
+	 * Read the artifact versions of a groupId from its directory.
+	 *
+	 * @param groupId - the groupId
+	 * @return Map&lt;String, ArtifactVersions&gt; - the versions, keyed by artifactId, empty if the directory cannot be read
+	 */
+	private Map<String, ArtifactVersions> crawl(String groupId) {
+		Path groupDirectory = repository.resolve(groupId.replace('.', '/'));
+		if (!Files.isDirectory(groupDirectory)) {
+			return Collections.emptyMap();
+		}
+		Map<String, ArtifactVersions> artifacts = new HashMap<>();
+		try {
+			Files.walkFileTree(groupDirectory, EnumSet.noneOf(FileVisitOption.class), FILE_DEPTH,
+					new SimpleFileVisitor<Path>() {
+						@Override
+						public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+							directories.incrementAndGet();
+							return FileVisitResult.CONTINUE;
+						}
+
+						@Override
+						public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+							Path relative = groupDirectory.relativize(file);
+							String name = file.getFileName().toString();
+							if (relative.getNameCount() == FILE_DEPTH && attrs.isRegularFile()
+									&& (name.endsWith(POM_EXTENSION) || name.endsWith(JAR_EXTENSION))) {
+								String artifactId = relative.getName(0).toString();
+								artifacts.computeIfAbsent(artifactId, k -> new ArtifactVersions(groupId, k))
+										.add(relative.getName(1).toString());
+								// one artifact file is enough, the rest of the version directory is not needed
+								return FileVisitResult.SKIP_SIBLINGS;
+							}
+							return FileVisitResult.CONTINUE;
+						}
+
+						@Override
+						public FileVisitResult visitFileFailed(Path file, IOException e) {
+							// an unreadable directory is the same as a missing one
+							return FileVisitResult.CONTINUE;
+						}
+					});
+		} catch (IOException e) {
+			// the versions read before the failure are still valid
+		}
+		return artifacts;
+	}
+
+	/**
+	 * The number of groupId directories crawled.
+	 *
+	 * @return long - the number of groupIds
+	 */
+	long getGroups() {
+		return groups.size();
+	}
+
+	/**
+	 * The number of directories read by the crawls.
+	 *
+	 * @return long - the number of directories
+	 */
+	long getDirectories() {
+		return directories.get();
+	}
+}
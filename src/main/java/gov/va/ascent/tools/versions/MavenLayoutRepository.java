@@ -0,0 +1,58 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import gov.va.ascent.tools.versions.model.ArtifactVersions;
+
+/**
+ * The versions in a plain maven repository over http, e.g. https://repo.maven.apache.org/maven2 or a nexus
+ * repository url, read from the maven-metadata.xml of each artifact. One request lists every version of an artifact.
+ * <p>
+ * The repository has its own circuit breaker, so its failures do not stop the nexus requests, and the other way round.
+ * Artifacts with an unknown groupId cannot be found.
+ */
+class MavenLayoutRepository implements ArtifactRepository {
+
+	/** The root url of the repository */
+	private String repositoryUrl;
+	/** Stops requests to the repository after repeated failures */
+	private NexusCircuitBreaker circuitBreaker = ArtifactChecker.newCircuitBreaker();
+
+	/**
+	 * Create the repository.
+	 *
+	 * @param repositoryUrl - the root url of the repository, e.g. https://repo.maven.apache.org/maven2
+	 */
+	MavenLayoutRepository(String repositoryUrl) {
+		this.repositoryUrl = repositoryUrl;
+	}
+
+	@Override
+	public String getName() {
+		return "maven repository " + repositoryUrl;
+	}
+
+	@Override
+	public boolean isRemote() {
+		return true;
+	}
+
+	@Override
+	public Map<String, ArtifactVersions> findVersions(String groupId, Collection<String> artifactIds) throws IOException {
+		Map<String, ArtifactVersions> found = new HashMap<>();
+		if (groupId == null) {
+			return found;
+		}
+		for (String artifactId : artifactIds) {
+			ArtifactVersions versions = ArtifactChecker.findMetadataVersions(repositoryUrl, groupId, artifactId,
+					circuitBreaker);
+			if (versions != null) {
+				found.put(artifactId, versions);
+			}
+		}
+		return found;
+	}
+}
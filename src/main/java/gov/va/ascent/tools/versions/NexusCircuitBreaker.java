@@ -0,0 +1,127 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stops calling nexus after repeated failures, so an outage costs a few timeouts instead of one per lookup.
+ * <p>
+ * The breaker opens after {@code failureThreshold} consecutive failed calls. While it is open, calls are
+ * rejected at once with an {@link OpenException}. Once {@code openMillis} have passed, one trial call is let through:
+ * if it succeeds the breaker closes, otherwise it stays open for another {@code openMillis}.
+ * <p>
+ * A call only counts as failed if nexus could not answer it, e.g. a connection error, a timeout or a 5xx response,
+ * after any retries. Any answer from nexus, even an error status, counts as a success.
+ * <p>
+ * Thread-safe.
+ */
+class NexusCircuitBreaker {
+
+	/** Consecutive failed calls that open the breaker, 0 to never open it */
+	private int failureThreshold;
+	/** Nanoseconds the breaker stays open before a trial call */
+	private long openNanos;
+	/** Consecutive failed calls since the last success */
+	private int failures;
+	/** {@code true} while calls are rejected */
+	private boolean open;
+	/** When the breaker lets a trial call through, in nanoTime */
+	private long openUntil;
+	/** {@code true} while the trial call is in flight */
+	private boolean trial;
+	/** The number of times the breaker opened */
+	private AtomicLong trips = new AtomicLong();
+	/** The number of calls rejected while the breaker was open */
+	private AtomicLong rejected = new AtomicLong();
+
+	/**
+	 * Thrown instead of calling nexus while the breaker is open.
+	 */
+	static class OpenException extends IOException {
+		private static final long serialVersionUID = 1L;
+
+		OpenException(String message) {
+			super(message);
+		}
+	}
+
+	/**
+	 * Create a closed breaker.
+	 *
+	 * @param failureThreshold - consecutive failed calls that open the breaker, 0 or less to never open it
+	 * @param openMillis - milliseconds the breaker stays open before a trial call
+	 */
+	NexusCircuitBreaker(int failureThreshold, int openMillis) {
+		this.failureThreshold = failureThreshold;
+		this.openNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, openMillis));
+	}
+
+	/**
+	 * Ask to make a call. Each permitted call must be followed by {@link #success()} or {@link #failure()}.
+	 *
+	 * @throws OpenException - the breaker is open, nexus must not be called
+	 */
+	synchronized void acquire() throws OpenException {
+		if (!open) {
+			return;
+		}
+		if (!trial && System.nanoTime() - openUntil >= 0) {
+			trial = true;
+			return;
+		}
+		rejected.incrementAndGet();
+		throw new OpenException("Nexus not called, " + failures + " consecutive calls failed");
+	}
+
+	/**
+	 * Record that nexus answered a call. Closes the breaker.
+	 */
+	synchronized void success() {
+		failures = 0;
+		open = false;
+		trial = false;
+	}
+
+	/**
+	 * Record that nexus could not answer a call. Opens the breaker at the threshold, or again after a failed trial.
+	 */
+	synchronized void failure() {
+		failures++;
+		if (failureThreshold > 0 && failures >= failureThreshold) {
+			if (!open) {
+				trips.incrementAndGet();
+			}
+			open = true;
+			trial = false;
+			openUntil = System.nanoTime() + openNanos;
+		}
+	}
+
+	/**
+	 * Is the breaker rejecting calls?
+	 *
+	 * @return boolean - {@code true} if the breaker is open
+	 */
+	synchronized boolean isOpen() {
+		return open;
+	}
+
+	/**
+	 * The number of times the breaker opened.
+	 *
+	 * @return long - the trips
+	 */
+	long getTrips() {
+		return trips.get();
+	}
+
+	/**
+	 * The number of calls rejected while the breaker was open.
+	 *
+	 * @return long - the rejected calls
+	 */
+	long getRejected() {
+		return rejected.get();
+	}
+}
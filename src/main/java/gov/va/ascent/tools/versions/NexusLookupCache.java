@@ -0,0 +1,146 @@
+package gov.va.ascent.tools.versions;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * In-memory cache of nexus lookups for one run, keyed by groupId:artifactId:version
+ * (or by groupId:artifactId for lookups of all versions of an artifact).
+ * <p>
+ * The first request for a key starts the lookup. Concurrent and later requests
+ * for the same key share the same (possibly still in-flight) result,
+ * so each distinct key is looked up in nexus only once.
+ *
+ * @param <T> the type of the lookup result
+ */
+class NexusLookupCache<T> {
+
+	/** Results, or pending results, by key */
+	private ConcurrentMap<String, CompletableFuture<T>> lookups = new ConcurrentHashMap<>();
+	/** The number of lookups requested */
+	private AtomicLong requests = new AtomicLong();
+	/** The number of lookups answered by an existing or in-flight result */
+	private AtomicLong hits = new AtomicLong();
+
+	/**
+	 * Make the cache key for an artifact version.
+	 *
+	 * @param groupId - the groupId of the artifact
+	 * @param artifactId - the artifactId of the artifact
+	 * @param version - the version of the artifact
+	 * @return String - the key in groupId:artifactId:version form
+	 */
+	static String key(String groupId, String artifactId, String version) {
+		return groupId + ":" + artifactId + ":" + version;
+	}
+
+	/**
+	 * Make the cache key for all versions of an artifact.
+	 *
+	 * @param groupId - the groupId of the artifact
+	 * @param artifactId - the artifactId of the artifact
+	 * @return String - the key in groupId:artifactId form
+	 */
+	static String key(String groupId, String artifactId) {
+		return groupId + ":" + artifactId;
+	}
+
+	/**
+	 * Get the result for a key, starting the lookup only if no other request has.
+	 * <p>
+	 * The loader is given the future that it must complete (normally or exceptionally).
+	 * It is invoked at most once per key, and should not block. If the loader throws, the future is completed
+	 * with the exception, which is then rethrown.
+	 *
+	 * @param key - the lookup key
+	 * @param loader - starts the lookup, and completes the future with the result
+	 * @return CompletableFuture&lt;T&gt; - the shared result for the key
+	 */
+	CompletableFuture<T> get(String key, Consumer<CompletableFuture<T>> loader) {
+		requests.incrementAndGet();
+		CompletableFuture<T> existing = lookups.get(key);
+		if (existing == null) {
+			CompletableFuture<T> created = new CompletableFuture<>();
+			existing = lookups.putIfAbsent(key, created);
+			if (existing == null) {
+				try {
+					loader.accept(created);
+				} catch (RuntimeException | Error e) {
+					// fail the shared result, so requests for the key do not wait forever for a lookup that never started
+					created.completeExceptionally(e);
+					throw e;
+				}
+				return created;
+			}
+		}
+		hits.incrementAndGet();
+		return existing;
+	}
+
+	/**
+	 * The lookups that completed successfully, by key.
+	 *
+	 * @return Map&lt;String, T&gt; - the completed results
+	 */
+	Map<String, T> getCompleted() {
+		Map<String, T> completed = new TreeMap<>();
+		lookups.forEach((key, future) -> {
+			if (future.isDone() && !future.isCompletedExceptionally()) {
+				completed.put(key, future.join());
+			}
+		});
+		return completed;
+	}
+
+	/**
+	 * The number of distinct keys that have been looked up.
+	 *
+	 * @return int - the number of keys
+	 */
+	int size() {
+		return lookups.size();
+	}
+
+	/**
+	 * The number of lookups requested.
+	 *
+	 * @return long - the number of requests
+	 */
+	long getRequests() {
+		return requests.get();
+	}
+
+	/**
+	 * The number of lookups answered without a new nexus request.
+	 *
+	 * @return long - the number of hits
+	 */
+	long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * The fraction of lookups answered without a new nexus request.
+	 *
+	 * @return double - the hit ratio between 0 and 1
+	 */
+	double getHitRatio() {
+		long total = requests.get();
+		return total == 0 ? 0 : (double) hits.get() / total;
+	}
+
+	/**
+	 * A one line summary of cache use for the run.
+	 *
+	 * @return String - the summary
+	 */
+	String summary() {
+		return String.format("Nexus lookups: %d requested, %d unique, %d cache hits (%.1f%% hit ratio)",
+				getRequests(), lookups.size(), getHits(), getHitRatio() * 100);
+	}
+}
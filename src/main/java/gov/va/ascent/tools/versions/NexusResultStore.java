@@ -0,0 +1,182 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import gov.va.ascent.tools.utils.Out;
+import gov.va.ascent.tools.utils.Severity;
+
+/**
+ * Persistent cache of nexus existence results, shared between runs.
+ * <p>
+ * Released versions that exist in nexus never disappear, so they are kept without expiry.
+ * SNAPSHOT versions and "not found" results can change, so they expire after a configurable time.
+ * <p>
+ * The file is a properties file of {@code groupId:artifactId:version=exists|checkedMillis} entries.
+ */
+public class NexusResultStore {
+
+	/** Constant for SNAPSHOT version string */
+	private static final String SNAPSHOT = "-SNAPSHOT";
+	/** Separator between the values of an entry */
+	private static final String SEPARATOR = "|";
+
+	/** The cache file */
+	private Path file;
+	/** Milliseconds that a SNAPSHOT result is valid */
+	private long snapshotTtl;
+	/** Milliseconds that a "not found" result is valid */
+	private long negativeTtl;
+	/** If {@code true}, stored results are ignored and replaced */
+	private boolean refresh;
+
+	/** The cached results, keyed by groupId:artifactId:version */
+	private Map<String, Entry> entries = new ConcurrentHashMap<>();
+	/** The number of lookups answered from the store */
+	private AtomicLong hits = new AtomicLong();
+
+	/**
+	 * A cached result.
+	 */
+	private static class Entry {
+		boolean exists;
+		long checked;
+
+		Entry(boolean exists, long checked) {
+			this.exists = exists;
+			this.checked = checked;
+		}
+	}
+
+	/**
+	 * Create the store. Call {@link #load()} to read previously saved results.
+	 *
+	 * @param file - the cache file
+	 * @param snapshotTtlMinutes - minutes that a SNAPSHOT result is valid
+	 * @param negativeTtlMinutes - minutes that a "not found" result is valid
+	 * @param refresh - if {@code true} ignore stored results, so everything is checked in nexus again
+	 */
+	public NexusResultStore(Path file, int snapshotTtlMinutes, int negativeTtlMinutes, boolean refresh) {
+		this.file = file;
+		this.snapshotTtl = TimeUnit.MINUTES.toMillis(snapshotTtlMinutes);
+		this.negativeTtl = TimeUnit.MINUTES.toMillis(negativeTtlMinutes);
+		this.refresh = refresh;
+	}
+
+	/**
+	 * Read previously saved results from the cache file, if it exists.
+	 * Unreadable or malformed entries are ignored.
+	 */
+	public void load() {
+		if (refresh || !Files.isReadable(file)) {
+			return;
+		}
+		Properties props = new Properties();
+		try (InputStream in = Files.newInputStream(file)) {
+			props.load(in);
+		} catch (IOException | IllegalArgumentException e) {
+			Out.println(0, Severity.WARN, "Ignoring unreadable nexus cache " + file.toString(), e);
+			return;
+		}
+		for (String key : props.stringPropertyNames()) {
+			String value = props.getProperty(key);
+			int index = value.indexOf(SEPARATOR);
+			if (index > 0) {
+				try {
+					entries.put(key, new Entry(Boolean.parseBoolean(value.substring(0, index)),
+							Long.parseLong(value.substring(index + 1))));
+				} catch (NumberFormatException e) { // NOSONAR malformed entries are simply checked again
+					// noop
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get an unexpired result for the artifact version.
+	 *
+	 * @param key - the groupId:artifactId:version key
+	 * @return Boolean - the stored result, or {@code null} if there is no valid result
+	 */
+	public Boolean get(String key) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		long ttl = !entry.exists ? negativeTtl : (key.endsWith(SNAPSHOT) ? snapshotTtl : -1);
+		if (ttl >= 0 && System.currentTimeMillis() - entry.checked > ttl) {
+			return null;
+		}
+		hits.incrementAndGet();
+		return entry.exists;
+	}
+
+	/**
+	 * Record a result just received from nexus.
+	 *
+	 * @param key - the groupId:artifactId:version key
+	 * @param exists - if the artifact version exists in nexus
+	 */
+	public void put(String key, boolean exists) {
+		entries.put(key, new Entry(exists, System.currentTimeMillis()));
+	}
+
+	/**
+	 * The number of lookups answered from the store.
+	 *
+	 * @return long - the number of hits
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Write all results to the cache file.
+	 * The file is replaced atomically, so an interrupted run cannot corrupt it.
+	 */
+	public void save() {
+		Properties props = new Properties();
+		for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+			props.setProperty(entry.getKey(), entry.getValue().exists + SEPARATOR + entry.getValue().checked);
+		}
+		try {
+			Path dir = file.toAbsolutePath().getParent();
+			Files.createDirectories(dir);
+			Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+			boolean moved = false;
+			try {
+				try (OutputStream out = Files.newOutputStream(temp)) {
+					props.store(out, "Nexus existence results for gov.va.ascent.tools.Versions");
+				}
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				moved = true;
+			} finally {
+				if (!moved) {
+					deleteQuietly(temp);
+				}
+			}
+		} catch (IOException e) {
+			Out.println(0, Severity.WARN, "Could not save nexus cache " + file.toString(), e);
+		}
+	}
+
+	/**
+	 * Delete the temporary file of a save that failed, keeping the exception of the save.
+	 */
+	private static void deleteQuietly(Path temp) {
+		try {
+			Files.deleteIfExists(temp);
+		} catch (IOException e) { // NOSONAR the save failure is reported, and the file is only left behind
+			// noop
+		}
+	}
+}
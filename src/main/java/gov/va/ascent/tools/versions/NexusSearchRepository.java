@@ -0,0 +1,69 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import gov.va.ascent.tools.versions.model.ArtifactVersions;
+
+/**
+ * The versions in nexus, from the Nexus 3 search REST API (versions.nexus.search-url).
+ * <p>
+ * A batch of one artifact is one search for the artifact. A larger batch is first tried as one search for the
+ * whole groupId, which is read for no more pages than there are artifacts in the batch, so it never takes more
+ * requests than searching for each artifact would. Groups that fit are kept, so later batches for the same groupId
+ * need no requests. Groups that do not fit are searched one artifact at a time from then on.
+ */
+class NexusSearchRepository implements ArtifactRepository {
+
+	/** The search REST API url, e.g. https://host/service/rest/v1/search */
+	private String nexusSearchUrl;
+	/** The versions of every artifact of the groups read with one search, keyed by groupId, then artifactId */
+	private ConcurrentMap<String, Map<String, ArtifactVersions>> groups = new ConcurrentHashMap<>();
+	/** The groupIds with too many components to read with one search */
+	private Set<String> largeGroups = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Create the nexus repository.
+	 *
+	 * @param nexusSearchUrl - the search REST API url, e.g. https://host/service/rest/v1/search
+	 */
+	NexusSearchRepository(String nexusSearchUrl) {
+		this.nexusSearchUrl = nexusSearchUrl;
+	}
+
+	@Override
+	public String getName() {
+		return "nexus search " + nexusSearchUrl;
+	}
+
+	@Override
+	public boolean isRemote() {
+		return true;
+	}
+
+	@Override
+	public Map<String, ArtifactVersions> findVersions(String groupId, Collection<String> artifactIds) throws IOException {
+		Map<String, ArtifactVersions> group = groupId == null ? null : groups.get(groupId);
+		if (group == null && groupId != null && artifactIds.size() > 1 && !largeGroups.contains(groupId)) {
+			group = ArtifactChecker.findGroupVersions(nexusSearchUrl, groupId, artifactIds.size());
+			if (group == null) {
+				largeGroups.add(groupId);
+			} else {
+				groups.put(groupId, group);
+			}
+		}
+		if (group != null) {
+			return group;
+		}
+		Map<String, ArtifactVersions> found = new HashMap<>();
+		for (String artifactId : artifactIds) {
+			found.put(artifactId, ArtifactChecker.findVersions(nexusSearchUrl, groupId, artifactId));
+		}
+		return found;
+	}
+}
@@ -0,0 +1,280 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.stream.XMLStreamException;
+
+import gov.va.ascent.tools.utils.Out;
+import gov.va.ascent.tools.utils.Severity;
+import gov.va.ascent.tools.versions.model.Version;
+
+/**
+ * Persisted index of parsed POMs, so that unchanged POMs are not parsed again on the next run.
+ * <p>
+ * Each pom.xml path is indexed with its size, last modified time and content hash,
+ * and the {@link Version} tree that was parsed from it.
+ * A POM whose size and modified time are unchanged is loaded from the index without being read.
+ * A POM whose size or modified time changed is hashed, and only parsed if its content changed
+ * (e.g. {@code git checkout} of the same content only touches the modified time).
+ * <p>
+ * POMs that are not visited in a run (deleted projects) are dropped from the index when it is saved.
+ * When the same index is used for several scans (e.g. a watch), each save becomes the index for the next scan,
+ * and the POMs of projects that are scanned again but are deleted or cannot be parsed are dropped with
+ * {@link #remove(Path)}.
+ */
+public class PomIndex {
+
+	/** Hash algorithm for POM content */
+	private static final String HASH_ALGORITHM = "SHA-256";
+	/** Only classes from these packages may be read from the index file */
+	private static final String[] ALLOWED_PACKAGES = { "java.", "[", "gov.va.ascent.tools.versions." };
+
+	/** The index file */
+	private Path file;
+	/** If {@code true}, the existing index is ignored and rebuilt */
+	private boolean rebuild;
+
+	/** Entries read from the index file, or saved by the last scan, keyed by absolute pom.xml path */
+	private Map<String, Entry> previous = new HashMap<>();
+	/** Entries for the POMs visited in this run and not removed since, keyed by absolute pom.xml path */
+	private Map<String, Entry> current = new ConcurrentHashMap<>();
+	/** The number of POMs loaded from the index */
+	private AtomicLong hits = new AtomicLong();
+	/** The number of POMs that had to be parsed */
+	private AtomicLong misses = new AtomicLong();
+
+	/**
+	 * The fingerprint and parse result of one pom.xml.
+	 */
+	static class Entry implements Serializable {
+		/** Changed when the parse results change, so older index files are rebuilt */
+		private static final long serialVersionUID = 2L;
+
+		long size;
+		long modified;
+		byte[] hash;
+		/** the root element name of the POM */
+		String rootName;
+		/** the parsed project, or {@code null} if the POM has no explicit project version */
+		Version project;
+
+		Entry(long size, long modified, byte[] hash, String rootName, Version project) {
+			this.size = size;
+			this.modified = modified;
+			this.hash = hash;
+			this.rootName = rootName;
+			this.project = project;
+		}
+	}
+
+	/**
+	 * Parses a POM from its content, for POMs that are not in the index.
+	 */
+	@FunctionalInterface
+	interface Parser {
+		/**
+		 * Parse the POM content.
+		 *
+		 * @param content - the pom.xml content
+		 * @return Entry - the parse result, with only rootName and project populated
+		 * @throws IOException - problem reading the POM
+		 * @throws XMLStreamException - problem parsing the POM
+		 */
+		Entry parse(InputStream content) throws IOException, XMLStreamException;
+	}
+
+	/**
+	 * Create the index. Call {@link #load()} to read the index saved by the previous run.
+	 *
+	 * @param file - the index file
+	 * @param rebuild - if {@code true}, ignore the existing index so that every POM is parsed
+	 */
+	public PomIndex(Path file, boolean rebuild) {
+		this.file = file;
+		this.rebuild = rebuild;
+	}
+
+	/**
+	 * Read the index saved by the previous run, if it exists.
+	 * An unreadable or incompatible index is ignored, and rebuilt by this run.
+	 */
+	@SuppressWarnings("unchecked")
+	public void load() {
+		if (rebuild || !Files.isReadable(file)) {
+			return;
+		}
+		try (InputStream in = Files.newInputStream(file);
+				ObjectInputStream ois = new ObjectInputStream(in) {
+					@Override
+					protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+						for (String allowed : ALLOWED_PACKAGES) {
+							if (desc.getName().startsWith(allowed)) {
+								return super.resolveClass(desc);
+							}
+						}
+						throw new InvalidClassException(desc.getName(), "not allowed in the POM index");
+					}
+				}) {
+			previous = (Map<String, Entry>) ois.readObject();
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			Out.println(0, Severity.WARN, "Ignoring unreadable POM index " + file.toString() + ": " + e.toString());
+			previous = new HashMap<>();
+		}
+	}
+
+	/**
+	 * Get the parse result for a POM, from the index if the POM is unchanged, otherwise from the parser.
+	 *
+	 * @param pom - the absolute path to the pom.xml
+	 * @param parser - parses the POM if it is not in the index
+	 * @return Entry - the parse result
+	 * @throws IOException - problem reading the POM
+	 * @throws XMLStreamException - problem parsing the POM
+	 */
+	Entry get(Path pom, Parser parser) throws IOException, XMLStreamException {
+		String key = pom.toString();
+		BasicFileAttributes attributes = Files.readAttributes(pom, BasicFileAttributes.class);
+		long size = attributes.size();
+		long modified = attributes.lastModifiedTime().toMillis();
+
+		Entry entry = previous.get(key);
+		if (entry != null && entry.size == size && entry.modified == modified) {
+			return hit(key, entry);
+		}
+
+		byte[] content = Files.readAllBytes(pom);
+		byte[] hash = hash(content);
+		if (entry != null && Arrays.equals(entry.hash, hash)) {
+			// only the modified time changed
+			entry.size = content.length;
+			entry.modified = modified;
+			return hit(key, entry);
+		}
+
+		misses.incrementAndGet();
+		Entry parsed;
+		try {
+			parsed = parser.parse(new ByteArrayInputStream(content));
+		} catch (IOException | XMLStreamException | RuntimeException e) {
+			remove(pom);
+			throw e;
+		}
+		parsed.size = content.length;
+		parsed.modified = modified;
+		parsed.hash = hash;
+		current.put(key, parsed);
+		return parsed;
+	}
+
+	/**
+	 * Drop a POM that no longer exists or cannot be parsed, so that it is not saved,
+	 * and is parsed again if it comes back.
+	 *
+	 * @param pom - the absolute path to the pom.xml
+	 */
+	void remove(Path pom) {
+		String key = pom.toString();
+		previous.remove(key);
+		current.remove(key);
+	}
+
+	private Entry hit(String key, Entry entry) {
+		hits.incrementAndGet();
+		current.put(key, entry);
+		return entry;
+	}
+
+	private static byte[] hash(byte[] content) {
+		try {
+			return MessageDigest.getInstance(HASH_ALGORITHM).digest(content);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(HASH_ALGORITHM + " is required by every JVM", e);
+		}
+	}
+
+	/**
+	 * The number of POMs loaded from the index so far.
+	 *
+	 * @return long - the count
+	 */
+	long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * The number of POMs that had to be parsed so far.
+	 *
+	 * @return long - the count
+	 */
+	long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * A one line summary of index use for the run.
+	 *
+	 * @return String - the summary
+	 */
+	String summary() {
+		return "POM index: " + hits.get() + " unchanged, " + misses.get() + " parsed";
+	}
+
+	/**
+	 * Write the entries for the POMs visited in this run to the index file,
+	 * and use them as the previous entries of the next scan.
+	 * The file is replaced atomically, so an interrupted run cannot corrupt it.
+	 */
+	public void save() {
+		try {
+			Path dir = file.toAbsolutePath().getParent();
+			Files.createDirectories(dir);
+			Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+			boolean moved = false;
+			try {
+				try (OutputStream out = Files.newOutputStream(temp);
+						ObjectOutputStream oos = new ObjectOutputStream(out)) {
+					oos.writeObject(new HashMap<>(current));
+				}
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				moved = true;
+			} finally {
+				if (!moved) {
+					deleteQuietly(temp);
+				}
+			}
+		} catch (IOException e) {
+			Out.println(0, Severity.WARN, "Could not save POM index " + file.toString(), e);
+		}
+		previous = new HashMap<>(current);
+	}
+
+	/**
+	 * Delete the temporary file of a save that failed, keeping the exception of the save.
+	 */
+	private static void deleteQuietly(Path temp) {
+		try {
+			Files.deleteIfExists(temp);
+		} catch (IOException e) { // NOSONAR the save failure is reported, and the file is only left behind
+			// noop
+		}
+	}
+}
@@ -0,0 +1,375 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.lang3.StringUtils;
+
+import gov.va.ascent.tools.versions.model.PomTags;
+import gov.va.ascent.tools.versions.model.Version;
+
+/**
+ * Streaming reader that pulls the versioned coordinates out of a pom.xml in a single pass.
+ * <p>
+ * Only the direct children of these elements are read, everything else in the POM is skipped:
+ * <ul>
+ * <li>&lt;project&gt; - the project groupId, artifactId and version (inherited from the &lt;parent&gt; if not declared)
+ * <li>&lt;project&gt;&lt;properties&gt; - kept on the project for property interpolation
+ * <li>&lt;project&gt;&lt;parent&gt; - tagged {@link PomTags#PARENT}
+ * <li>&lt;project&gt;&lt;dependencies&gt;&lt;dependency&gt; - tagged {@link PomTags#DEPENDENCIES}
+ * <li>&lt;project&gt;&lt;dependencyManagement&gt;&lt;dependencies&gt;&lt;dependency&gt; - tagged
+ * {@link PomTags#DEPENDENCY_MANAGEMENT}
+ * </ul>
+ * As with a DOM search, only the first occurrence of each element is used.
+ * Only explicit versions that parse as maven versions (e.g. {@code 1.0}, {@code 2.1.0-RC1}, {@code Finchley.SR2}),
+ * versions that reference properties (e.g. {@code ${spring.version}}), and dependencies without a version
+ * are reported, and dependencies are sorted by groupId, artifactId, version.
+ * Property references and managed versions are resolved later by the {@link PropertyInterpolator}
+ * and the {@link EffectivePomGraph}.
+ */
+class PomReader {
+
+	/** The value used for missing coordinates */
+	private static final String NULL = "null";
+	/** The tag name for &lt;dependency&gt; */
+	private static final String TAG_DEPENDENCY = "dependency";
+	/** The tag name for &lt;properties&gt; */
+	private static final String TAG_PROPERTIES = "properties";
+
+	/** Factories are expensive to look up, but are not guaranteed thread-safe, so one is kept per thread */
+	private static final ThreadLocal<XMLInputFactory> FACTORY = ThreadLocal.withInitial(() -> {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		return factory;
+	});
+
+	/** Orders dependencies the same way for every POM */
+	private static final Comparator<Version> DEPENDENCY_ORDER = Comparator.comparing(Version::getGroupId)
+			.thenComparing(Version::getArtifactId)
+			.thenComparing(Version::getVersion, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+	/** The relative path of the project from GIT_HOME */
+	private Path relativePath;
+	/** The name of the root element of the last POM read */
+	private String rootName;
+
+	/**
+	 * The groupId, artifactId and version read from the direct children of one element.
+	 */
+	private static class Coordinates {
+		String groupId;
+		String artifactId;
+		String version;
+	}
+
+	/**
+	 * Create a reader for the POM of a project.
+	 *
+	 * @param relativePath - the relative path of the project from GIT_HOME
+	 */
+	PomReader(Path relativePath) {
+		this.relativePath = relativePath;
+	}
+
+	/**
+	 * Read the POM.
+	 *
+	 * @param pom - the pom.xml file
+	 * @return Version - the project version, with its parent and dependencies, or {@code null} if the
+	 *         project does not declare an explicit version
+	 * @throws IOException - problem reading the file
+	 * @throws XMLStreamException - the file is not well formed XML
+	 */
+	Version read(Path pom) throws IOException, XMLStreamException {
+		try (InputStream in = Files.newInputStream(pom)) {
+			return read(in);
+		}
+	}
+
+	/**
+	 * Read the POM content. The stream is not closed.
+	 *
+	 * @param in - the pom.xml content
+	 * @return Version - the project version, with its parent and dependencies, or {@code null} if the
+	 *         project does not declare an explicit version
+	 * @throws XMLStreamException - the content is not well formed XML
+	 */
+	Version read(InputStream in) throws XMLStreamException {
+		XMLStreamReader reader = FACTORY.get().createXMLStreamReader(in);
+		try {
+			return readProject(reader);
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * The name of the root element of the last POM read, normally "project".
+	 *
+	 * @return String - the root element name
+	 */
+	String getRootName() {
+		return rootName;
+	}
+
+	private Version readProject(XMLStreamReader reader) throws XMLStreamException {
+		nextElement(reader);
+		rootName = reader.getLocalName();
+
+		Coordinates project = new Coordinates();
+		Coordinates parent = null;
+		List<Version> dependencies = null;
+		List<Version> managed = null;
+		Map<String, String> properties = null;
+
+		while (nextElement(reader) == XMLStreamConstants.START_ELEMENT) {
+			String name = reader.getLocalName();
+			if (PomTags.PARENT.getTagName().equals(name) && parent == null) {
+				parent = readCoordinates(reader, new Coordinates());
+			} else if (PomTags.DEPENDENCIES.getTagName().equals(name) && dependencies == null) {
+				dependencies = readDependencies(reader, PomTags.DEPENDENCIES);
+			} else if (PomTags.DEPENDENCY_MANAGEMENT.getTagName().equals(name) && managed == null) {
+				managed = readManagedDependencies(reader);
+			} else if (TAG_PROPERTIES.equals(name) && properties == null) {
+				properties = readProperties(reader);
+			} else if (!readCoordinate(reader, name, project)) {
+				skipElement(reader);
+			}
+		}
+		// read to the end, so badly formed documents are reported the same as with a DOM parse
+		while (reader.hasNext()) {
+			reader.next();
+		}
+
+		if (project.version == null && parent != null) {
+			// as with maven, a project without a version inherits the version of its parent
+			project.version = parent.version;
+		}
+		Version version = toVersion(project, null);
+		if (version != null) {
+			version.setParent(parent == null ? null : toVersion(parent, PomTags.PARENT));
+			if (dependencies != null) {
+				version.getDependencies().addAll(dependencies);
+			}
+			if (managed != null) {
+				version.getDependencies().addAll(managed);
+			}
+			version.setProperties(properties == null || properties.isEmpty() ? null : properties);
+		}
+		return version;
+	}
+
+	/**
+	 * Read the direct children of a &lt;properties&gt; element as name / value pairs.
+	 *
+	 * @param reader - positioned on the &lt;properties&gt; start tag
+	 * @return Map&lt;String, String&gt; - the trimmed values keyed by property name, in declared order
+	 */
+	private static Map<String, String> readProperties(XMLStreamReader reader) throws XMLStreamException {
+		Map<String, String> properties = new LinkedHashMap<>();
+		while (nextElement(reader) == XMLStreamConstants.START_ELEMENT) {
+			// as with maven, the last declaration of a property wins
+			properties.put(reader.getLocalName(), readText(reader).trim());
+		}
+		return properties;
+	}
+
+	/**
+	 * Read the explicit versions in a &lt;dependencies&gt; element.
+	 * Dependencies without a version (in &lt;project&gt;&lt;dependencies&gt; only) are read as managed versions.
+	 *
+	 * @param reader - positioned on the &lt;dependencies&gt; start tag
+	 * @param hierarchyIdTag - the tag to identify where the dependencies were declared
+	 * @return List&lt;Version&gt; - the sorted dependencies, or empty list
+	 */
+	private List<Version> readDependencies(XMLStreamReader reader, PomTags hierarchyIdTag) throws XMLStreamException {
+		List<Version> list = new ArrayList<>();
+		while (nextElement(reader) == XMLStreamConstants.START_ELEMENT) {
+			if (TAG_DEPENDENCY.equals(reader.getLocalName())) {
+				Coordinates coordinates = readCoordinates(reader, new Coordinates());
+				Version version = toVersion(coordinates, hierarchyIdTag);
+				if (version == null && hierarchyIdTag == PomTags.DEPENDENCIES && StringUtils.isBlank(coordinates.version)) {
+					// the version comes from <dependencyManagement>, here or in a parent
+					version = new Version(relativePath, hierarchyIdTag,
+							coordinates.groupId == null ? NULL : coordinates.groupId,
+							coordinates.artifactId == null ? NULL : coordinates.artifactId,
+							null, null);
+					version.setManaged(true);
+				}
+				if (version != null) {
+					list.add(version);
+				}
+			} else {
+				skipElement(reader);
+			}
+		}
+		list.sort(DEPENDENCY_ORDER);
+		return list;
+	}
+
+	/**
+	 * Read the explicit versions in the first &lt;dependencies&gt; element of a &lt;dependencyManagement&gt; element.
+	 *
+	 * @param reader - positioned on the &lt;dependencyManagement&gt; start tag
+	 * @return List&lt;Version&gt; - the sorted dependencies, or empty list
+	 */
+	private List<Version> readManagedDependencies(XMLStreamReader reader) throws XMLStreamException {
+		List<Version> list = null;
+		while (nextElement(reader) == XMLStreamConstants.START_ELEMENT) {
+			if (list == null && PomTags.DEPENDENCIES.getTagName().equals(reader.getLocalName())) {
+				list = readDependencies(reader, PomTags.DEPENDENCY_MANAGEMENT);
+			} else {
+				skipElement(reader);
+			}
+		}
+		return list == null ? new ArrayList<>() : list;
+	}
+
+	/**
+	 * Read the groupId, artifactId and version from the direct children of the current element.
+	 *
+	 * @param reader - positioned on the start tag of the element
+	 * @param coordinates - the object to populate
+	 * @return Coordinates - the populated coordinates
+	 */
+	private Coordinates readCoordinates(XMLStreamReader reader, Coordinates coordinates) throws XMLStreamException {
+		while (nextElement(reader) == XMLStreamConstants.START_ELEMENT) {
+			if (!readCoordinate(reader, reader.getLocalName(), coordinates)) {
+				skipElement(reader);
+			}
+		}
+		return coordinates;
+	}
+
+	/**
+	 * If the current element is the first groupId, artifactId or version, read its text into the coordinates.
+	 *
+	 * @return boolean - {@code true} if the element was read
+	 */
+	private boolean readCoordinate(XMLStreamReader reader, String name, Coordinates coordinates) throws XMLStreamException {
+		if (PomTags.TAG_GROUP_ID.equals(name) && coordinates.groupId == null) {
+			coordinates.groupId = readText(reader);
+		} else if (PomTags.TAG_ARTIFACT_ID.equals(name) && coordinates.artifactId == null) {
+			coordinates.artifactId = readText(reader);
+		} else if (PomTags.TAG_VERSION.equals(name) && coordinates.version == null) {
+			coordinates.version = readText(reader);
+		} else {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Read all text content of the current element, ignoring comments.
+	 *
+	 * @param reader - positioned on the start tag of the element
+	 * @return String - the text, which may be empty
+	 */
+	private static String readText(XMLStreamReader reader) throws XMLStreamException {
+		String first = null;
+		StringBuilder more = null;
+		int depth = 1;
+		while (depth > 0) {
+			switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					depth++;
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					depth--;
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.SPACE:
+				case XMLStreamConstants.ENTITY_REFERENCE:
+					// the common case is a single text event, so avoid a StringBuilder unless needed
+					if (first == null) {
+						first = reader.getText();
+					} else {
+						if (more == null) {
+							more = new StringBuilder(first);
+						}
+						more.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+					}
+					break;
+				default:
+					break;
+			}
+		}
+		return more != null ? more.toString() : (first == null ? "" : first);
+	}
+
+	/**
+	 * Move to the next start or end tag, skipping any text, comments or processing instructions.
+	 *
+	 * @param reader - the reader
+	 * @return int - the START_ELEMENT or END_ELEMENT event, or END_DOCUMENT
+	 */
+	private static int nextElement(XMLStreamReader reader) throws XMLStreamException {
+		int event = reader.next();
+		while (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT
+				&& event != XMLStreamConstants.END_DOCUMENT) {
+			event = reader.next();
+		}
+		return event;
+	}
+
+	/**
+	 * Skip the current element and all of its content.
+	 *
+	 * @param reader - positioned on the start tag of the element
+	 */
+	private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+
+	/**
+	 * Create the Version for coordinates that have an explicit version, or a version that references properties.
+	 *
+	 * @param coordinates - the coordinates read from the POM
+	 * @param hierarchyIdTag - {@code null} for the &lt;project&gt;, or the tag where the coordinates were declared
+	 * @return Version - the version, or {@code null} if there is no version, or it cannot be parsed as a maven version
+	 */
+	private Version toVersion(Coordinates coordinates, PomTags hierarchyIdTag) {
+		String text = coordinates.version;
+		if (StringUtils.isBlank(text)) {
+			return null;
+		}
+		// maven ignores the whitespace around a version
+		text = text.trim();
+		boolean interpolated = text.contains(PropertyInterpolator.PROPERTY_START);
+		// existence in nexus is checked later by the ExistenceChecker, after any properties are resolved
+		Version version = new Version(relativePath, hierarchyIdTag,
+				coordinates.groupId == null ? NULL : coordinates.groupId,
+				coordinates.artifactId == null ? NULL : coordinates.artifactId,
+				text, null);
+		if (interpolated) {
+			version.setDeclaredVersion(text);
+		} else if (version.getRevision() == null) {
+			// not a maven version at all (1.0, 2.1.0-RC1 and Finchley.SR2 all are), so there is nothing to compare
+			return null;
+		}
+		return version;
+	}
+}
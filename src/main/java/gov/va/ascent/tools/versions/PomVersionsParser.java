@@ -6,27 +6,31 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-
-import org.apache.commons.lang3.StringUtils;
-import org.apache.http.client.ClientProtocolException;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
+import javax.xml.stream.XMLStreamException;
 
 import gov.va.ascent.tools.utils.Out;
+import gov.va.ascent.tools.utils.Progress;
+import gov.va.ascent.tools.utils.RunMetrics;
 import gov.va.ascent.tools.utils.Severity;
-import gov.va.ascent.tools.versions.model.PomTags;
+import gov.va.ascent.tools.versions.model.ArtifactVersions;
 import gov.va.ascent.tools.versions.model.Version;
 
 /**
@@ -43,8 +47,43 @@ public class PomVersionsParser {
 	private Map<String, List<String>> extraProjects;
 	/** The value of system GIT_HOME environment variable */
 	private String gitHomePath;
+	/** The number of elements in the GIT_HOME path */
+	private int gitHomeNameCount;
 	/** The versions.nexus.base-projects-url value from versions.properties */
 	private String nexusBaseProjectsUrl;
+	/** The number of worker threads used to scan projects, 1 or less scans serially */
+	private int scanThreads;
+	/** The Nexus 3 search REST API url for batch lookups, or {@code null} */
+	private String nexusSearchUrl;
+	/** Nexus results saved by previous runs, or {@code null} */
+	private NexusResultStore resultStore;
+	/** POMs parsed by previous runs, or {@code null} */
+	private PomIndex pomIndex;
+	/** The local maven repository, for parent POMs that are not in the workspace, or {@code null} */
+	private Path localRepository;
+	/** If {@code true}, nexus lookups are answered from the local repository instead of nexus */
+	private boolean offline;
+	/** If {@code true}, nexus lookups that fail are answered from the local repository */
+	private boolean localFallback;
+	/** The versions.repositories value, to look up every artifact in those repositories, or {@code null} */
+	private String repositories;
+	/** The versions available in nexus for each artifact, keyed by groupId:artifactId (batch mode only) */
+	private Map<String, ArtifactVersions> nexusVersions = new TreeMap<>();
+
+	/** Thread-safe collector for the project versions found by (possibly concurrent) scans */
+	private Map<String, Version> scannedVersions = new ConcurrentSkipListMap<>(Comparator.comparing(String::toString));
+	/** Every project directory scanned so far, including those whose POM could not be read */
+	private Set<Path> scannedDirectories = new ConcurrentSkipListSet<>();
+	/** The worker pool for a parallel scan, or {@code null} for a serial scan */
+	private ExecutorService executor;
+	/** Tracks outstanding project scans submitted to the executor */
+	private Phaser phaser;
+	/** The pipeline stage that checks versions in nexus while parsing continues */
+	private ExistenceChecker existenceChecker;
+	/** Timers and counters for the run */
+	private RunMetrics metrics = new RunMetrics();
+	/** Progress of the current scan */
+	private Progress progress;
 
 	private List<PomVersionsParser.Message> messages = new ArrayList<>();
 
@@ -60,6 +99,25 @@ public class PomVersionsParser {
 		}
 	}
 
+	/**
+	 * The scan of a single project directory, and of the subprojects declared for it.
+	 * <p>
+	 * Each scan collects its own messages, so that concurrent scans can
+	 * be reported in exactly the same order as a serial scan.
+	 */
+	private class ProjectScan {
+		Path projectPath;
+		Version project;
+		List<PomVersionsParser.Message> messages = new ArrayList<>();
+		List<ProjectScan> subprojects = new ArrayList<>();
+		List<ExistenceChecker.Check> checks = new ArrayList<>();
+		boolean includeSubprojects = true;
+
+		ProjectScan(Path projectPath) {
+			this.projectPath = projectPath;
+		}
+	}
+
 	/**
 	 * Processes POM files from projects found directly under the GIT_HOME directory,
 	 * and any additional second-level subprojects declared in versions.properties.
@@ -71,10 +129,48 @@ public class PomVersionsParser {
 	 */
 	public PomVersionsParser(Map<String, Version> versions, Map<String, List<String>> extraProjects, String gitHomePath,
 			String nexusBaseProjectsUrl) {
+		this(versions, extraProjects, gitHomePath, nexusBaseProjectsUrl, null, 1, null, null);
+	}
+
+	/**
+	 * Processes POM files from projects found directly under the GIT_HOME directory,
+	 * and any additional second-level subprojects declared in versions.properties.
+	 * <p>
+	 * If {@code scanThreads} is greater than 1, projects and their subprojects are
+	 * scanned concurrently on a pool of that many worker threads.
+	 * The resulting versions map and messages are identical to those of a serial scan.
+	 * <p>
+	 * If {@code nexusSearchUrl} is provided, nexus is searched once per artifact for all of its versions,
+	 * instead of once per artifact version.
+	 * If {@code resultStore} is provided, valid nexus results from previous runs are used
+	 * instead of requesting them again, and new results are saved to it.
+	 * If {@code pomIndex} is provided, unchanged POMs are loaded from it instead of being parsed again.
+	 *
+	 * @param versions - the map in which to put version information for the caller
+	 * @param extraProjects - any sub-projects that need to report version information
+	 * @param gitHomePath - the value of system GIT_HOME environment variable
+	 * @param nexusBaseProjectsUrl - versions.nexus.base-projects-url value from versions.properties,
+	 *            or {@code null} with no {@code nexusSearchUrl} to only parse the POMs, without checking nexus
+	 * @param nexusSearchUrl - versions.nexus.search-url value for batch lookups, or {@code null}
+	 * @param scanThreads - the number of worker threads, 1 or less for a serial scan
+	 * @param resultStore - nexus results saved by previous runs, or {@code null} to always check nexus
+	 * @param pomIndex - POMs parsed by previous runs, or {@code null} to always parse every POM
+	 */
+	public PomVersionsParser(Map<String, Version> versions, Map<String, List<String>> extraProjects, String gitHomePath,
+			String nexusBaseProjectsUrl, String nexusSearchUrl, int scanThreads, NexusResultStore resultStore,
+			PomIndex pomIndex) {
 		this.versions = versions;
 		this.extraProjects = extraProjects;
 		this.gitHomePath = gitHomePath;
+		this.gitHomeNameCount = Paths.get(gitHomePath).getNameCount();
 		this.nexusBaseProjectsUrl = nexusBaseProjectsUrl;
+		this.nexusSearchUrl = nexusSearchUrl;
+		this.scanThreads = scanThreads;
+		this.resultStore = resultStore;
+		this.pomIndex = pomIndex;
+		metrics.addLatency("nexus version request", ArtifactChecker.getExistsLatency());
+		metrics.addLatency("nexus search request", ArtifactChecker.getSearchLatency());
+		metrics.addLatency("maven metadata request", ArtifactChecker.getMetadataLatency());
 	}
 
 	/**
@@ -82,311 +178,471 @@ public class PomVersionsParser {
 	 *
 	 * @return Map of &lt;relativeProjectPath, versionInfo&gt;
 	 */
+	@SuppressWarnings("try")
 	public Map<String, Version> processProjectDirectories() {
 		Path path = Paths.get(gitHomePath);
-		Out.print("Parsing data from POMs .");
 		// process each directory entry immediately under GIT_HOME
-		try (Stream<Path> stream = Files.list(path)) {
-			stream.filter(path1 -> path1.toFile().isDirectory())
-					.forEach(projPath -> {
-						try {
-							processProject(projPath); // do it
-						} catch (ParserConfigurationException | SAXException | IOException e) {
-							messages.add(
-									new Message(Severity.ERROR, "While processing project \"" + projPath.normalize().toString() + "\"",
-											e));
-						}
-						Out.print(".");
-					});
-
+		List<ProjectScan> scans = new ArrayList<>();
+		try (RunMetrics.Phase phase = metrics.phase("list projects");
+				Stream<Path> stream = Files.list(path)) {
+			scans = stream.filter(path1 -> path1.toFile().isDirectory())
+					.map(ProjectScan::new)
+					.collect(Collectors.toList());
 		} catch (Exception e) {
 			messages.add(new Message(Severity.ERROR,
 					"While getting stream for \"" + path.toAbsolutePath().normalize().toString() + "\"", e));
 		}
-		Out.println(".");
-		Out.println("Messages:");
-		for (PomVersionsParser.Message msg : messages) {
-			Out.println(0, msg.severity, msg.message, msg.t);
-		}
+
+		scan(scans, "Parsing data from POMs");
+		versions.putAll(scannedVersions);
+
+		printMessages();
 		return versions;
 	}
 
 	/**
-	 * Process a project directory.
+	 * Process only the specified project directories again, for example after their POMs were changed.
+	 * Configured subprojects of the directories are not processed, unless they are also specified,
+	 * or the directory was not scanned before (e.g. a newly cloned project).
+	 * <p>
+	 * The caller's versions map is not modified.
 	 *
-	 * @param projectPath - the disc path to the project root directory
-	 * @throws ParserConfigurationException - problem configuring new DocumentBuilderFactory
-	 * @throws IOException - problem creating DocumentBuilder or parsing Document
-	 * @throws SAXException - problem creating DocumentBuilder or parsing Document
+	 * @param projectPaths - disc paths to the project root directories
+	 * @return Map of &lt;projectPath, versionInfo&gt; with a {@code null} value for
+	 *         any project that no longer has a readable, versioned POM. Also includes the unchanged projects that
+	 *         inherit from a changed project, as their inherited properties and managed versions are resolved again.
 	 */
-	private void processProject(Path projectPath) throws ParserConfigurationException, SAXException, IOException {
-		projectPath = projectPath.toAbsolutePath().normalize();
-		File projectPom = Paths.get(projectPath.toString(), "pom.xml").toFile();
+	public Map<String, Version> processProjects(Collection<Path> projectPaths) {
+		List<ProjectScan> scans = new ArrayList<>();
+		for (Path projectPath : projectPaths) {
+			ProjectScan scan = new ProjectScan(projectPath);
+			scan.includeSubprojects = !scannedDirectories.contains(projectPath.toAbsolutePath().normalize());
+			scans.add(scan);
+		}
+		messages.clear();
+		scannedVersions.clear();
+		scan(scans, "Parsing data from changed POMs");
 
-		if (projectPom.exists() && projectPom.canRead()) {
-			DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-			dbFactory.setIgnoringComments(true);
-			DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-			Document doc = dBuilder.parse(projectPom);
+		Map<String, Version> processed = new TreeMap<>(Comparator.comparing(String::toString));
+		for (ProjectScan scan : scans) {
+			addProcessed(scan, processed);
+		}
+		// unchanged projects that inherit from the changed projects were resolved again
+		scannedVersions.forEach(processed::putIfAbsent);
+		printMessages();
+		return processed;
+	}
 
-			Element rootElement = doc.getDocumentElement();
-			rootElement.normalize();
+	/**
+	 * Add the version of a scanned project, and of its scanned subprojects, to the processed projects.
+	 *
+	 * @param scan - the completed project scan
+	 * @param processed - the processed projects, with a {@code null} value for a project with no version
+	 */
+	private void addProcessed(ProjectScan scan, Map<String, Version> processed) {
+		String key = scan.projectPath.toAbsolutePath().normalize().toString();
+		processed.put(key, scannedVersions.get(key));
+		for (ProjectScan subproject : scan.subprojects) {
+			addProcessed(subproject, processed);
+		}
+	}
 
-			Version project = getVersion(projectPath, null, rootElement);
-			if (project != null) {
-				project.setParent(getParent(projectPath, rootElement));
-				project.getDependencies().addAll(getDependencies(projectPath, null, rootElement));
-				project.getDependencies().addAll(getManagedDependencies(projectPath, rootElement));
+	/**
+	 * Every project directory scanned so far, whether or not its POM could be read,
+	 * so that a watch can also pick up the projects that failed to parse.
+	 *
+	 * @return Set&lt;Path&gt; - the absolute project directories
+	 */
+	public Set<Path> getScannedDirectories() {
+		return Collections.unmodifiableSet(scannedDirectories);
+	}
 
-				versions.put(projectPath.toString(), project);
+	/**
+	 * The GIT_HOME directory, in which new project directories may be created.
+	 *
+	 * @return Path - the GIT_HOME directory
+	 */
+	public Path getGitHome() {
+		return Paths.get(gitHomePath);
+	}
 
-				// path.getFileName() just returns the last part of the path - it is the project name in this case
-				if (extraProjects.containsKey(projectPath.getFileName().toString())) {
-					for (String subproject : extraProjects.get(projectPath.getFileName().toString())) {
-						Path newpath = Paths.get(projectPath.toString(), subproject);
-						/*
-						 * Make a recursive call to this method to process the sub-project.
-						 *
-						 * NOTE that this allows for any level of sub-projects to be declared
-						 * in the properties simply by adding their name as a subproject
-						 * to the versions.projects.second-level property in versions.properties.
-						 * Listed sub-projects are processed in linear order, so subproject hierarchies
-						 * must be listed in order of their hierarchy so they will be found.
-						 */
-						processProject(newpath);
-					}
+	/**
+	 * Scan the projects, and wait for the scans and their nexus checks to complete.
+	 *
+	 * @param scans - the projects to scan
+	 * @param label - the label of the progress line
+	 */
+	@SuppressWarnings("try")
+	private void scan(List<ProjectScan> scans, String label) {
+		if (scanThreads > 1) {
+			executor = Executors.newFixedThreadPool(scanThreads);
+			phaser = new Phaser(1);
+		}
+		// indexed again for each scan, so a watch picks up artifacts installed since the last scan
+		LocalRepositoryIndex localIndex = localRepository == null ? null : new LocalRepositoryIndex(localRepository);
+		RepositoryChain chain = null;
+		if (offline) {
+			chain = new RepositoryChain(Collections.singletonList(localIndex));
+		} else if (repositories != null) {
+			chain = RepositoryChain.parse(repositories, localIndex);
+		} else if (nexusSearchUrl != null) {
+			chain = new RepositoryChain(Collections.singletonList(new NexusSearchRepository(nexusSearchUrl)));
+		}
+		existenceChecker = new ExistenceChecker(nexusBaseProjectsUrl, chain, ArtifactChecker.getMaxConnections(),
+				resultStore, offline || localFallback ? localIndex : null, offline);
+		long indexHits = pomIndex == null ? 0 : pomIndex.getHits();
+		long indexMisses = pomIndex == null ? 0 : pomIndex.getMisses();
+		progress = new Progress(label);
+		try {
+			try (RunMetrics.Phase phase = metrics.phase("parse POMs")) {
+				for (ProjectScan scan : scans) {
+					schedule(scan);
 				}
-
-			} else {
-				messages.add(new Message(Severity.WARN,
-						"Could not find <" + rootElement.getNodeName() + "><version> element in " + projectPom.toString(), null));
+				if (phaser != null) {
+					phaser.arriveAndAwaitAdvance();
+				}
+			}
+			progress.finish();
+			// every POM is parsed, so the parent chains are complete
+			List<ProjectScan> resolved;
+			try (RunMetrics.Phase phase = metrics.phase("resolve effective POMs")) {
+				resolved = resolveEffectivePoms(scans);
+			}
+			// parsing is done, wait for the remaining nexus checks
+			try (RunMetrics.Phase phase = metrics.phase("wait for nexus")) {
+				for (ProjectScan scan : resolved) {
+					collectMessages(scan);
+				}
+			}
+			nexusVersions.putAll(existenceChecker.getArtifactVersions());
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+				executor = null;
+				phaser = null;
 			}
+			existenceChecker.shutdown();
+			existenceChecker.addMetrics(metrics);
+			if (pomIndex != null) {
+				pomIndex.save();
+				metrics.count("POM index unchanged", pomIndex.getHits() - indexHits);
+				metrics.count("POM index parsed", pomIndex.getMisses() - indexMisses);
+			}
+		}
+	}
 
-		} else {
-			messages.add(new Message(Severity.WARN,
-					"Cannot read pom.xml in " + projectPom.toString(), null));
+	/**
+	 * Print the messages and summaries from the last scan.
+	 */
+	private void printMessages() {
+		Out.println("Messages:");
+		for (PomVersionsParser.Message msg : messages) {
+			Out.println(0, msg.severity, msg.message, msg.t);
+		}
+		Out.println(existenceChecker.summary());
+		if (pomIndex != null) {
+			Out.println(pomIndex.summary());
 		}
 	}
 
 	/**
-	 * Find a single node of a given name (first found is returned) in the node list.
+	 * The timers and counters of all scans made by this parser.
 	 *
-	 * @param list the NodeList to search
-	 * @param nodeName the name of the node to search for
-	 * @return Node - the found node, or {@code null}
+	 * @return RunMetrics - the metrics
 	 */
-	private Node findElement(NodeList list, String nodeName) {
-		if (list == null || list.getLength() < 1 || StringUtils.isBlank(nodeName)) {
-			return null;
-		}
+	public RunMetrics getMetrics() {
+		return metrics;
+	}
 
-		for (int i = 0; i < list.getLength(); i++) {
-			Node item = list.item(i);
-			if (item.getNodeType() == Node.ELEMENT_NODE
-					&& nodeName.equals(item.getNodeName())) {
-				return item;
-			}
-		}
-		return null;
+	/**
+	 * The versions available for each artifact that was looked up in batch mode, in nexus or the other repositories,
+	 * or found in the local repository in offline mode.
+	 * Empty if neither mode was used, or before {@link #processProjectDirectories()} is called.
+	 *
+	 * @return Map&lt;String, ArtifactVersions&gt; - the available versions, keyed by groupId:artifactId
+	 */
+	public Map<String, ArtifactVersions> getNexusVersions() {
+		return nexusVersions;
+	}
+
+	/**
+	 * Read parent POMs that are not in the workspace from the local maven repository.
+	 *
+	 * @param localRepository - the local repository (e.g. ~/.m2/repository), or {@code null} to only use the workspace
+	 */
+	public void setLocalRepository(Path localRepository) {
+		this.localRepository = localRepository;
 	}
 
 	/**
-	 * Find all nodes with a given name in the node list.
+	 * Answer nexus lookups from the local repository set by {@link #setLocalRepository(Path)}.
 	 *
-	 * @param list the NodeList to search
-	 * @param nodeName the name of the node(s) to search for
-	 * @return List&lt;Node&gt; - the found nodes, or {@code null}
+	 * @param offline - if {@code true}, do not use nexus at all
+	 * @param fallback - if {@code true}, answer lookups that fail in nexus, e.g. when it cannot be reached or times out
 	 */
-	private List<Node> findElements(NodeList list, String nodeName) {
-		if (list == null || list.getLength() < 1 || StringUtils.isBlank(nodeName)) {
-			return null;
+	public void setLocalRepositoryLookups(boolean offline, boolean fallback) {
+		if (offline && localRepository == null) {
+			throw new IllegalStateException("Offline mode needs the local repository to be set");
 		}
+		this.offline = offline;
+		this.localFallback = fallback;
+	}
 
-		List<Node> nodes = new ArrayList<>();
-		for (int i = 0; i < list.getLength(); i++) {
-			Node item = list.item(i);
-			if (item.getNodeType() == Node.ELEMENT_NODE
-					&& nodeName.equals(item.getNodeName())) {
-				nodes.add(item);
-			}
+	/**
+	 * Look up every artifact in batch mode in these repositories, in priority order, instead of the nexus search url.
+	 * Must be called after {@link #setLocalRepository(Path)}, as {@code local} without a path is that repository.
+	 * Offline mode still only uses the local repository.
+	 *
+	 * @param repositories - the versions.repositories value, see {@link RepositoryChain}, or {@code null}
+	 * @throws IllegalArgumentException - the value is not valid
+	 */
+	public void setRepositories(String repositories) {
+		if (repositories != null) {
+			RepositoryChain.parse(repositories, localRepository == null ? null : new LocalRepositoryIndex(localRepository));
 		}
-		return nodes.isEmpty() ? null : nodes;
+		this.repositories = repositories;
 	}
 
 	/**
-	 * Get the version information from the specified node.
-	 * <p>
-	 * The hierarchyIdTag should be {@code null} for root &lt;project&gt; version info,
-	 * or populated with a meaningful tag from a parent tag in the hierarchy.
-	 * The intent is to clearly identify the origin of the version information.
-	 * Typically, this will be the tag closest to the root &lt;project&gt; tag.
-	 * For example, hierarchyIdTag should be:
-	 * <ul>
-	 * <table style="border-collapse: collapse; border: 1px solid gray;">
-	 * <tr style="border: 1px solid gray;text-align: left;">
-	 * <th>Param Value</th>
-	 * <th></th>
-	 * <th>Version Location</th>
-	 * </tr>
-	 * <tr style="border: 1px solid gray;">
-	 * <td style="vertical-align:top">{@code null}</td>
-	 * <td style="vertical-align:top">&nbsp;for&nbsp;</td>
-	 * <td style="vertical-align:top">&lt;project&gt;&lt;version&gt;</td>
-	 * </tr>
-	 * <tr style="border: 1px solid gray;">
-	 * <td style="vertical-align:top">&lt;parent&gt;</td>
-	 * <td style="vertical-align:top">&nbsp;for&nbsp;</td>
-	 * <td style="vertical-align:top">&lt;project&gt;&lt;parent&gt;&lt;version&gt;</td>
-	 * </tr>
-	 * <tr style="border: 1px solid gray;">
-	 * <td style="vertical-align:top">&lt;dependencies&gt;</td>
-	 * <td style="vertical-align:top">&nbsp;for&nbsp;</td>
-	 * <td style="vertical-align:top">&lt;project&gt;&lt;dependencies&gt;&lt;dependency&gt;&lt;version&gt;</td>
-	 * </tr>
-	 * <tr style="border: 1px solid gray;">
-	 * <td style="vertical-align:top">&lt;dependencyManagement&gt;</td>
-	 * <td style="vertical-align:top">&nbsp;for&nbsp;</td>
-	 * <td style=
-	 * "vertical-align:top">&lt;project&gt;&lt;dependencyManagement&gt;&lt;dependencies&gt;&lt;dependency&gt;&lt;version&gt;</td>
-	 * </tr>
-	 * </table>
-	 * </ul>
+	 * Run the scan immediately for a serial scan, or submit it to the worker pool for a parallel scan.
 	 *
-	 * @param hierarchyIdTag - {@code null} or the non-root parent element
-	 * @param rootElement - the element containing version tags
-	 * @return Version - the version object for the element, or {@code null}
-	 * @throws IOException
-	 * @throws ClientProtocolException
+	 * @param scan - the project to scan
 	 */
-	private Version getVersion(Path projectPath, PomTags hierarchyIdTag, Node rootElement)
-			throws ClientProtocolException, IOException {
-		Path relativePath = projectPath.subpath(Paths.get(gitHomePath).getNameCount(), projectPath.getNameCount());
-		Node groupId = findElement(rootElement.getChildNodes(), PomTags.TAG_GROUP_ID);
-		Node artifactId = findElement(rootElement.getChildNodes(), PomTags.TAG_ARTIFACT_ID);
-		Node version = findElement(rootElement.getChildNodes(), PomTags.TAG_VERSION);
-
-		Version ret = null;
-		if (version != null) {
-			String text = version.getTextContent();
-			if (!StringUtils.isBlank(text) && Pattern.matches("[0-9]*\\.[0-9]*\\.[0-9]*.*", text)) {
-
-				Boolean exists = null; // default value
-				// does this artifact version exist in nexus?
-				exists = ArtifactChecker.exists(nexusBaseProjectsUrl, relativePath, text);
-
-				// create the version object
-				ret = new Version(relativePath, hierarchyIdTag,
-						groupId == null ? "null" : groupId.getTextContent(),
-						artifactId == null ? "null" : artifactId.getTextContent(),
-						text, exists);
-			}
+	private void schedule(ProjectScan scan) {
+		progress.add(1);
+		if (executor == null) {
+			runScan(scan);
+		} else {
+			phaser.register();
+			executor.submit(() -> {
+				try {
+					runScan(scan);
+				} finally {
+					phaser.arriveAndDeregister();
+				}
+			});
 		}
-		return ret;
 	}
 
 	/**
-	 * Get the version information for the parent project.
+	 * Scan a project, recording any problems in the messages for the scan.
 	 *
-	 * @param rootElement - the &lt;parent&gt; element
-	 * @return Version - the version object for the parent
-	 * @throws IOException
-	 * @throws ClientProtocolException
+	 * @param scan - the project to scan
 	 */
-	private Version getParent(Path projectPath, Node rootElement) throws ClientProtocolException, IOException {
-		Node parent = findElement(rootElement.getChildNodes(), PomTags.PARENT.getTagName());
-		return parent == null ? null : getVersion(projectPath, PomTags.PARENT, parent);
+	private void runScan(ProjectScan scan) {
+		long start = System.nanoTime();
+		scannedDirectories.add(scan.projectPath.toAbsolutePath().normalize());
+		boolean failed = false;
+		try {
+			processProject(scan); // do it
+		} catch (IOException | XMLStreamException | RuntimeException e) {
+			failed = true;
+			metrics.count("project failures", 1);
+			scan.messages.add(
+					new Message(Severity.ERROR, "While processing project \"" + scan.projectPath.normalize().toString() + "\"",
+							e));
+		}
+		metrics.project(scan.projectPath.normalize().toString(), System.nanoTime() - start, failed);
+		progress.done();
+		// subprojects are scheduled after the project is timed, as a serial scan runs them immediately
+		for (ProjectScan subScan : scan.subprojects) {
+			schedule(subScan);
+		}
 	}
 
 	/**
-	 * Get the version information for dependencies.
+	 * Resolve the property references and managed versions of the scanned projects,
+	 * with the parent chains of all workspace projects, and submit the resolved versions to be checked in nexus.
 	 * <p>
-	 * The hierarchyIdTag should be {@code null} for root &lt;project&gt; version info,
-	 * or populated with a meaningful tag from a parent tag in the hierarchy.
-	 * The intent is to clearly identify the origin of the version information.
-	 * Typically, this will be the tag closest to the root &lt;project&gt; tag.
-	 * For example, hierarchyIdTag should be:
-	 * <ul>
-	 * <table style="border-collapse: collapse; border: 1px solid gray;">
-	 * <tr style="border: 1px solid gray;text-align: left;">
-	 * <th>Param Value</th>
-	 * <th></th>
-	 * <th>Version Location</th>
-	 * </tr>
-	 * <tr style="border: 1px solid gray;">
-	 * <td style="vertical-align:top">{@code null}</td>
-	 * <td style="vertical-align:top">&nbsp;for&nbsp;</td>
-	 * <td style="vertical-align:top">&lt;project&gt;&lt;version&gt;</td>
-	 * </tr>
-	 * <tr style="border: 1px solid gray;">
-	 * <td style="vertical-align:top">&lt;parent&gt;</td>
-	 * <td style="vertical-align:top">&nbsp;for&nbsp;</td>
-	 * <td style="vertical-align:top">&lt;project&gt;&lt;parent&gt;&lt;version&gt;</td>
-	 * </tr>
-	 * <tr style="border: 1px solid gray;">
-	 * <td style="vertical-align:top">&lt;dependencies&gt;</td>
-	 * <td style="vertical-align:top">&nbsp;for&nbsp;</td>
-	 * <td style="vertical-align:top">&lt;project&gt;&lt;dependencies&gt;&lt;dependency&gt;&lt;version&gt;</td>
-	 * </tr>
-	 * <tr style="border: 1px solid gray;">
-	 * <td style="vertical-align:top">&lt;dependencyManagement&gt;</td>
-	 * <td style="vertical-align:top">&nbsp;for&nbsp;</td>
-	 * <td style=
-	 * "vertical-align:top">&lt;project&gt;&lt;dependencyManagement&gt;&lt;dependencies&gt;&lt;dependency&gt;&lt;version&gt;</td>
-	 * </tr>
-	 * </table>
-	 * </ul>
+	 * Projects from an earlier scan that inherit from a scanned project (e.g. the children of a parent POM changed
+	 * during a watch) are resolved and checked again too, as their inherited &lt;properties&gt;
+	 * and &lt;dependencyManagement&gt; may have changed.
 	 *
-	 * @param hierarchyIdTag - {@code null} or the non-root parent element
-	 * @param rootElement - the &lt;dependencies&gt; element
-	 * @return List&lt;Version&gt; - the version objects for the dependencies, or empty list
-	 * @throws IOException
-	 * @throws ClientProtocolException
+	 * @param scans - the completed project scans
+	 * @return List&lt;ProjectScan&gt; - the scans, followed by a scan for each project that was resolved again
 	 */
-	private List<Version> getDependencies(Path projectPath, PomTags hierarchyIdTag, Node rootElement)
-			throws ClientProtocolException, IOException {
-		List<Version> list = new ArrayList<>();
+	private List<ProjectScan> resolveEffectivePoms(List<ProjectScan> scans) {
+		// projects from this scan take the place of any earlier versions of the same projects
+		List<Version> projects = new ArrayList<>(scannedVersions.values());
+		for (Map.Entry<String, Version> entry : versions.entrySet()) {
+			if (!scannedVersions.containsKey(entry.getKey())) {
+				projects.add(entry.getValue());
+			}
+		}
+		EffectivePomGraph graph = new EffectivePomGraph(projects, localRepository);
+		List<ProjectScan> resolved = new ArrayList<>(scans);
+		if (!versions.isEmpty()) {
+			// the coordinates of the scanned projects, before and after the scan, so children of a removed parent count
+			Set<String> changed = new HashSet<>();
+			for (ProjectScan scan : scans) {
+				addArtifactKeys(scan, changed);
+			}
+			for (Map.Entry<String, Version> entry : versions.entrySet()) {
+				if (!scannedVersions.containsKey(entry.getKey()) && inheritsFrom(graph, entry.getValue(), changed)) {
+					ProjectScan descendant = new ProjectScan(Paths.get(entry.getKey()));
+					descendant.project = entry.getValue();
+					descendant.includeSubprojects = false;
+					resolved.add(descendant);
+				}
+			}
+			for (ProjectScan descendant : resolved.subList(scans.size(), resolved.size())) {
+				scannedVersions.put(descendant.projectPath.toString(), descendant.project);
+			}
+			metrics.count("inheriting projects re-resolved", resolved.size() - scans.size());
+		}
+		PropertyInterpolator interpolator = new PropertyInterpolator(graph);
+		for (ProjectScan scan : resolved) {
+			resolveEffectivePom(graph, interpolator, scan);
+		}
+		metrics.count("properties resolved", interpolator.getResolutions());
+		metrics.count("properties already resolved", interpolator.getHits());
+		metrics.count("parents from local repository", graph.getRepositoryParents());
+		metrics.count("parents not found", graph.getMissingParents());
+		return resolved;
+	}
 
-		Node node = findElement(rootElement.getChildNodes(), PomTags.DEPENDENCIES.getTagName());
-		if (node == null || !node.hasChildNodes()) {
-			return list;
+	private void addArtifactKeys(ProjectScan scan, Set<String> keys) {
+		for (Version project : Arrays.asList(versions.get(scan.projectPath.toAbsolutePath().normalize().toString()),
+				scan.project)) {
+			if (project != null) {
+				keys.add(NexusLookupCache.key(project.getEffectiveGroupId(), project.getArtifactId()));
+			}
 		}
-		if (hierarchyIdTag == null) {
-			hierarchyIdTag = PomTags.fromTagName(node.getNodeName());
+		for (ProjectScan subproject : scan.subprojects) {
+			addArtifactKeys(subproject, keys);
 		}
+	}
 
-		List<Node> nodes = findElements(node.getChildNodes(), "dependency");
-		if (nodes == null || nodes.isEmpty()) {
-			return list;
+	/**
+	 * Does a project inherit from one of the projects, anywhere in its parent chain?
+	 *
+	 * @param graph - the parent chains
+	 * @param project - the project
+	 * @param artifactKeys - the groupId:artifactId of the projects
+	 * @return boolean - {@code true} if a declared &lt;parent&gt; in the chain is one of the projects
+	 */
+	private static boolean inheritsFrom(EffectivePomGraph graph, Version project, Set<String> artifactKeys) {
+		Set<Version> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (Version current = project; current != null && visited.add(current); current = graph.parentOf(current)) {
+			Version parent = current.getParent();
+			if (parent != null && artifactKeys.contains(NexusLookupCache.key(parent.getGroupId(), parent.getArtifactId()))) {
+				return true;
+			}
 		}
+		return false;
+	}
 
-		for (Node item : nodes) {
-			Version v = getVersion(projectPath, hierarchyIdTag, item);
-			if (v != null) {
-				list.add(v);
+	private void resolveEffectivePom(EffectivePomGraph graph, PropertyInterpolator interpolator, ProjectScan scan) {
+		if (scan.project != null) {
+			List<String> problems = new ArrayList<>();
+			interpolator.interpolate(scan.project, problems);
+			graph.applyManagedVersions(scan.project, interpolator, problems);
+			for (String problem : problems) {
+				scan.messages.add(new Message(Severity.WARN,
+						problem + " in project \"" + scan.projectPath.normalize().toString() + "\"", null));
 			}
+			scan.checks.addAll(existenceChecker.submitResolved(scan.project));
+		}
+		for (ProjectScan subproject : scan.subprojects) {
+			resolveEffectivePom(graph, interpolator, subproject);
 		}
+	}
 
-		if (!list.isEmpty()) {
-			list.sort(Comparator.comparing(Version::getGroupId)
-					.thenComparing(Version::getArtifactId)
-					.thenComparing(Version::getVersion));
+	/**
+	 * Wait for the nexus checks of a scan and its subproject scans,
+	 * and add their messages in serial processing order.
+	 *
+	 * @param scan - the completed project scan
+	 */
+	private void collectMessages(ProjectScan scan) {
+		messages.addAll(scan.messages);
+		for (ExistenceChecker.Check check : scan.checks) {
+			Throwable t = check.await();
+			if (t != null) {
+				metrics.count("nexus check failures", 1);
+				String message = "While checking nexus for " + check.version.getGroupId() + ":"
+						+ check.version.getArtifactId() + ":" + check.version.getVersion() + " in project \""
+						+ scan.projectPath.normalize().toString() + "\"";
+				// nexus being slow or down is not a bug, so the stack trace would only hide the other messages
+				messages.add(t instanceof IOException ? new Message(Severity.ERROR, message + ": " + t, null)
+						: new Message(Severity.ERROR, message, t));
+			}
+		}
+		for (ProjectScan subproject : scan.subprojects) {
+			collectMessages(subproject);
 		}
-		return list;
 	}
 
 	/**
-	 * Get the version information for dependencyManagement dependencies.
+	 * Process a project directory.
 	 *
-	 * @param rootElement - the &lt;dependencyManagement&gt; element
-	 * @return List&lt;Version&gt; - the version objects for the dependencies, or empty list
-	 * @throws IOException
-	 * @throws ClientProtocolException
+	 * @param scan - the scan holding the disc path to the project root directory
+	 * @throws IOException - problem reading the POM
+	 * @throws XMLStreamException - problem parsing the POM
 	 */
-	private List<Version> getManagedDependencies(Path projectPath, Node rootElement) throws ClientProtocolException, IOException {
-		Node node = findElement(rootElement.getChildNodes(), PomTags.DEPENDENCY_MANAGEMENT.getTagName());
-		if (node != null) {
-			return getDependencies(projectPath, PomTags.fromTagName(node.getNodeName()), node);
+	private void processProject(ProjectScan scan) throws IOException, XMLStreamException {
+		Path projectPath = scan.projectPath.toAbsolutePath().normalize();
+		File projectPom = Paths.get(projectPath.toString(), "pom.xml").toFile();
+
+		if (projectPom.exists() && projectPom.canRead()) {
+			PomReader reader = new PomReader(relativePath(projectPath));
+			String rootName;
+			Version project;
+			if (pomIndex == null) {
+				project = reader.read(projectPom.toPath());
+				rootName = reader.getRootName();
+			} else {
+				PomIndex.Entry entry = pomIndex.get(projectPom.toPath(), content -> {
+					Version parsed = reader.read(content);
+					return new PomIndex.Entry(0, 0, null, reader.getRootName(), parsed);
+				});
+				project = entry.project;
+				rootName = entry.rootName;
+			}
+			if (project != null) {
+				scan.project = project;
+				scannedVersions.put(projectPath.toString(), project);
+				scan.checks.addAll(existenceChecker.submitAll(project));
+
+				// path.getFileName() just returns the last part of the path - it is the project name in this case
+				if (scan.includeSubprojects && extraProjects.containsKey(projectPath.getFileName().toString())) {
+					for (String subproject : extraProjects.get(projectPath.getFileName().toString())) {
+						Path newpath = Paths.get(projectPath.toString(), subproject);
+						/*
+						 * Add a scan of the sub-project, which recursively calls this method once scheduled.
+						 *
+						 * NOTE that this allows for any level of sub-projects to be declared
+						 * in the properties simply by adding their name as a subproject
+						 * to the versions.projects.second-level property in versions.properties.
+						 * Listed sub-projects are processed in linear order for a serial scan,
+						 * and their messages are always reported in that order.
+						 */
+						scan.subprojects.add(new ProjectScan(newpath));
+					}
+				}
+
+			} else {
+				scan.messages.add(new Message(Severity.WARN,
+						"Could not find <" + rootName + "><version> element in " + projectPom.toString(), null));
+			}
+
+		} else {
+			if (pomIndex != null) {
+				// e.g. a deleted project in a watch
+				pomIndex.remove(projectPom.toPath());
+			}
+			scan.messages.add(new Message(Severity.WARN,
+					"Cannot read pom.xml in " + projectPom.toString(), null));
 		}
-		return new ArrayList<Version>();
+	}
+
+	/**
+	 * Get the path of a project relative to GIT_HOME.
+	 *
+	 * @param projectPath - the absolute disc path to the project
+	 * @return Path - the relative path of the project
+	 */
+	private Path relativePath(Path projectPath) {
+		return projectPath.subpath(gitHomeNameCount, projectPath.getNameCount());
 	}
 }
@@ -0,0 +1,297 @@
+package gov.va.ascent.tools.versions;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import gov.va.ascent.tools.versions.model.Version;
+
+/**
+ * Resolves the ${...} property references in the versions of workspace projects.
+ * <p>
+ * Properties are looked up the way maven does, in the context of the project being resolved:
+ * <ul>
+ * <li>project built-ins, e.g. ${project.version}, ${project.groupId}, ${project.parent.version}
+ * <li>the &lt;properties&gt; of the project, then of its parent chain from the {@link EffectivePomGraph}
+ * <li>system properties, and ${env.NAME} environment variables
+ * </ul>
+ * Property values may themselves reference properties.
+ * <p>
+ * The inherited properties of each project are merged once, so a parent shared by many projects
+ * (e.g. ascent-libraries-parent) is only walked once per run. Resolved values are memoized
+ * per project and property. Cycles, and properties that cannot be resolved, are reported as problems.
+ * <p>
+ * Not thread-safe: interpolation runs once parsing is done, before the report is built.
+ */
+class PropertyInterpolator {
+
+	/** The start of a property reference */
+	static final String PROPERTY_START = "${";
+	/** The end of a property reference */
+	private static final char PROPERTY_END = '}';
+	/** The prefix of environment variable properties */
+	private static final String ENV_PREFIX = "env.";
+
+	/** The project graph, used to find the parent chain */
+	private EffectivePomGraph graph;
+	/** The declared and inherited properties of each project, merged once per project */
+	private Map<Version, Map<String, String>> effectiveProperties = new IdentityHashMap<>();
+	/** The resolved properties of each project, with a {@code null} value if a property could not be resolved */
+	private Map<Version, Map<String, String>> resolved = new IdentityHashMap<>();
+	/** Projects whose inherited properties are being merged, to detect parent cycles */
+	private Set<Version> inheriting = Collections.newSetFromMap(new IdentityHashMap<>());
+	/** The properties being resolved for the current project, in order, to detect and describe cycles */
+	private Set<String> resolving = new LinkedHashSet<>();
+	/** Problems found while resolving the current project */
+	private List<String> problems;
+	/** The last property found to be undefined while resolving the current element, for its problem description */
+	private String undefined;
+	/** The number of properties resolved */
+	private long resolutions;
+	/** The number of properties found already resolved */
+	private long hits;
+
+	/**
+	 * Create an interpolator for the projects in a graph.
+	 *
+	 * @param graph - the project graph, used to find the parent chain
+	 */
+	PropertyInterpolator(EffectivePomGraph graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * Resolve the versions of the project, its parent and dependencies that reference properties.
+	 * <p>
+	 * Resolved versions replace the {@link Version#getVersion()}; versions that cannot be resolved
+	 * are left as declared. The {@link Version#getDeclaredVersion()} is not changed,
+	 * so a project can be resolved again after its POM, or a parent POM, is changed.
+	 *
+	 * @param project - the Version for the root &lt;project&gt; element
+	 * @param problems - the list to add descriptions of unresolved properties and cycles in the project to
+	 */
+	void interpolate(Version project, List<String> problems) {
+		this.problems = problems;
+		try {
+			interpolateElement(project, project);
+			if (project.getParent() != null) {
+				interpolateElement(project, project.getParent());
+			}
+			for (Version dependency : project.getDependencies()) {
+				interpolateElement(project, dependency);
+			}
+		} finally {
+			this.problems = null;
+		}
+	}
+
+	/**
+	 * Replace the property references in a value, in the context of a project.
+	 * For example, a version managed by a parent is resolved with the properties of the child.
+	 *
+	 * @param project - the project to resolve the properties in
+	 * @param text - the value
+	 * @param problems - the list to add descriptions of cycles in the project to
+	 * @return String - the resolved value, or {@code null} if any property could not be resolved
+	 */
+	String resolve(Version project, String text, List<String> problems) {
+		this.problems = problems;
+		try {
+			return resolve(project, text);
+		} finally {
+			this.problems = null;
+		}
+	}
+
+	private void interpolateElement(Version project, Version element) {
+		String declared = element.getDeclaredVersion();
+		if (declared == null) {
+			return;
+		}
+		undefined = null;
+		String value = resolve(project, declared);
+		if (value == null) {
+			element.setVersion(declared);
+			problems.add("Could not resolve version " + declared + " of " + element.getGroupId() + ":" + element.getArtifactId()
+					+ (undefined == null ? "" : ", " + PROPERTY_START + undefined + PROPERTY_END + " is not defined"));
+		} else {
+			element.setVersion(value);
+		}
+	}
+
+	/**
+	 * Replace the property references in a value.
+	 *
+	 * @param project - the project to resolve the properties in
+	 * @param text - the value
+	 * @return String - the resolved value, or {@code null} if any property could not be resolved
+	 */
+	private String resolve(Version project, String text) {
+		int start = text.indexOf(PROPERTY_START);
+		if (start < 0) {
+			return text;
+		}
+		StringBuilder value = new StringBuilder(text.length());
+		int pos = 0;
+		while (start >= 0) {
+			int end = text.indexOf(PROPERTY_END, start + PROPERTY_START.length());
+			if (end < 0) {
+				// not a reference, keep the rest as it is
+				break;
+			}
+			String property = property(project, text.substring(start + PROPERTY_START.length(), end));
+			if (property == null) {
+				return null;
+			}
+			value.append(text, pos, start).append(property);
+			pos = end + 1;
+			start = text.indexOf(PROPERTY_START, pos);
+		}
+		return value.append(text, pos, text.length()).toString();
+	}
+
+	/**
+	 * Resolve a property, once per project.
+	 *
+	 * @param project - the project to resolve the property in
+	 * @param name - the property name
+	 * @return String - the resolved value, or {@code null} if it could not be resolved
+	 */
+	private String property(Version project, String name) {
+		Map<String, String> values = resolved.computeIfAbsent(project, k -> new HashMap<>());
+		if (values.containsKey(name)) {
+			hits++;
+			String value = values.get(name);
+			if (value == null && rawValue(project, name) == null) {
+				undefined = name;
+			}
+			return value;
+		}
+		if (!resolving.add(name)) {
+			StringBuilder cycle = new StringBuilder("Property cycle ");
+			boolean inCycle = false;
+			for (String previous : resolving) {
+				inCycle = inCycle || previous.equals(name);
+				if (inCycle) {
+					cycle.append(PROPERTY_START).append(previous).append(PROPERTY_END).append(" -> ");
+				}
+			}
+			problems.add(cycle.append(PROPERTY_START).append(name).append(PROPERTY_END).toString());
+			return null;
+		}
+		try {
+			resolutions++;
+			String raw = rawValue(project, name);
+			if (raw == null) {
+				undefined = name;
+			}
+			String value = raw == null ? null : resolve(project, raw);
+			values.put(name, value);
+			return value;
+		} finally {
+			resolving.remove(name);
+		}
+	}
+
+	/**
+	 * The unresolved value of a property: a built-in, declared or inherited property, system property or environment variable.
+	 *
+	 * @param project - the project to resolve the property in
+	 * @param name - the property name
+	 * @return String - the value, which may reference other properties, or {@code null} if it is not defined
+	 */
+	private String rawValue(Version project, String name) {
+		Version parent = project.getParent();
+		switch (name) {
+			case "project.version":
+			case "pom.version":
+			case "version":
+				return project.getDeclaredVersion() == null ? project.getVersion() : project.getDeclaredVersion();
+			case "project.groupId":
+			case "pom.groupId":
+			case "groupId":
+				return nullable(project.getEffectiveGroupId());
+			case "project.artifactId":
+			case "pom.artifactId":
+			case "artifactId":
+				return nullable(project.getArtifactId());
+			case "project.parent.version":
+			case "parent.version":
+				return parent == null ? null : parent.getDeclaredVersion() == null ? parent.getVersion() : parent.getDeclaredVersion();
+			case "project.parent.groupId":
+			case "parent.groupId":
+				return parent == null ? null : nullable(parent.getGroupId());
+			default:
+				break;
+		}
+		String value = effectiveProperties(project).get(name);
+		if (value == null) {
+			value = name.startsWith(ENV_PREFIX) ? System.getenv(name.substring(ENV_PREFIX.length())) : System.getProperty(name);
+		}
+		return value;
+	}
+
+	private static String nullable(String coordinate) {
+		return Version.NULL.equals(coordinate) ? null : coordinate;
+	}
+
+	/**
+	 * The properties declared by a project and inherited from its parent chain in the workspace,
+	 * merged once per project. A project without properties of its own shares the map of its parent.
+	 *
+	 * @param project - the project
+	 * @return Map&lt;String, String&gt; - the unresolved properties
+	 */
+	private Map<String, String> effectiveProperties(Version project) {
+		Map<String, String> properties = effectiveProperties.get(project);
+		if (properties != null) {
+			return properties;
+		}
+		Map<String, String> inherited = Collections.emptyMap();
+		Version parent = graph.parentOf(project);
+		if (parent != null) {
+			if (inheriting.add(project)) {
+				try {
+					inherited = effectiveProperties(parent);
+				} finally {
+					inheriting.remove(project);
+				}
+			} else {
+				problems.add("Parent cycle at " + project.getEffectiveGroupId() + ":" + project.getArtifactId());
+			}
+		}
+		Map<String, String> declared = project.getProperties();
+		if (declared == null || declared.isEmpty()) {
+			properties = inherited;
+		} else if (inherited.isEmpty()) {
+			properties = declared;
+		} else {
+			properties = new HashMap<>(inherited);
+			properties.putAll(declared);
+		}
+		effectiveProperties.put(project, properties);
+		return properties;
+	}
+
+	/**
+	 * The number of properties resolved.
+	 *
+	 * @return long - the number of resolutions
+	 */
+	long getResolutions() {
+		return resolutions;
+	}
+
+	/**
+	 * The number of times a property was found already resolved for the project.
+	 *
+	 * @return long - the number of memoized lookups
+	 */
+	long getHits() {
+		return hits;
+	}
+}
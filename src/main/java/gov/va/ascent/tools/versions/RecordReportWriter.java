@@ -0,0 +1,69 @@
+package gov.va.ascent.tools.versions;
+
+import java.util.List;
+
+import gov.va.ascent.tools.versions.model.AgeIndicator;
+import gov.va.ascent.tools.versions.model.PomTags;
+import gov.va.ascent.tools.versions.model.Version;
+
+/**
+ * Base class for the machine readable report formats, which write one flat record
+ * for each project, parent and dependency.
+ */
+abstract class RecordReportWriter implements ReportListener {
+
+	/** The names of the record fields, in the order they are passed to {@link #record(String[], Boolean)} */
+	static final String[] FIELDS = { "project", "tag", "groupId", "artifactId", "version", "age", "currentVersion",
+			"releasesBehind", "managedBy" };
+	/** The name of the exists field, which is written after the other fields */
+	static final String FIELD_EXISTS = "exists";
+
+	@Override
+	public void startReport(String gitHomePath, List<String> warnings) {
+		// records do not have a header
+	}
+
+	@Override
+	public void project(String projectPath, Version rootElement) {
+		if (rootElement != null) {
+			record(fields(projectPath, rootElement, null, null, null), rootElement.exists());
+		}
+	}
+
+	@Override
+	public void element(String projectPath, Version element, AgeIndicator age, Version currentVersion, int releasesBehind) {
+		record(fields(projectPath, element, age, currentVersion, currentVersion == null ? null : releasesBehind),
+				element.exists());
+	}
+
+	@Override
+	public void endReport() {
+		// records do not have a footer
+	}
+
+	/**
+	 * Write a record.
+	 *
+	 * @param values - the values of the {@link #FIELDS}, any of which may be {@code null}
+	 * @param exists - whether the version exists in nexus, or {@code null} if unknown
+	 */
+	abstract void record(String[] values, Boolean exists);
+
+	/**
+	 * Get the values of the record fields for an element.
+	 */
+	private static String[] fields(String projectPath, Version element, AgeIndicator age, Version currentVersion,
+			Integer releasesBehind) {
+		PomTags tag = element.getHierarchyIdTag() == null ? PomTags.PROJECT : element.getHierarchyIdTag();
+		return new String[] {
+				projectPath,
+				tag.getTagName(),
+				Version.NULL.equals(element.getGroupId()) ? null : element.getGroupId(),
+				element.getArtifactId(),
+				element.getVersion(),
+				age == null ? null : age.name(),
+				currentVersion == null ? null : currentVersion.getVersion(),
+				releasesBehind == null ? null : releasesBehind.toString(),
+				element.getManagedBy() };
+	}
+}
@@ -0,0 +1,56 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.Closeable;
+import java.util.List;
+
+import gov.va.ascent.tools.versions.model.AgeIndicator;
+import gov.va.ascent.tools.versions.model.Version;
+
+/**
+ * Receives the rows of the Versions report as {@link Reporter} walks the versions map,
+ * so that several report formats can be written in one pass over the model.
+ * <p>
+ * Listeners write their rows as they receive them, and must not hold on to the whole report.
+ */
+public interface ReportListener extends Closeable {
+
+	/**
+	 * Called once, before any projects are reported.
+	 *
+	 * @param gitHomePath - the value of the GIT_HOME env var
+	 * @param warnings - problems found while building the report (e.g. groupId:artifactId collisions)
+	 */
+	void startReport(String gitHomePath, List<String> warnings);
+
+	/**
+	 * Called once for each project, in report order.
+	 *
+	 * @param projectPath - disc path to the project
+	 * @param rootElement - the {@link Version} object representing the &lt;project&gt; element,
+	 *            or {@code null} if the POM could not be read
+	 */
+	void project(String projectPath, Version rootElement);
+
+	/**
+	 * Called for the parent and each dependency of the last reported project.
+	 *
+	 * @param projectPath - disc path to the project
+	 * @param element - the parent or dependency element
+	 * @param age - the age of the element version compared to the newest known version
+	 * @param currentVersion - the newest known version of the element, from the workspace or nexus,
+	 *            or {@code null} if it is not known
+	 * @param releasesBehind - the number of known releases newer than the element version
+	 */
+	void element(String projectPath, Version element, AgeIndicator age, Version currentVersion, int releasesBehind);
+
+	/**
+	 * Called once, after all projects are reported.
+	 */
+	void endReport();
+
+	/**
+	 * Flush the output and release the destination.
+	 */
+	@Override
+	void close();
+}
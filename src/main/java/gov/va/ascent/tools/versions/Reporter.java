@@ -1,11 +1,22 @@
 package gov.va.ascent.tools.versions;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
-import org.apache.commons.lang3.StringUtils;
-
-import gov.va.ascent.tools.utils.Out;
+import gov.va.ascent.tools.utils.BufferedReportSink;
+import gov.va.ascent.tools.utils.LinesReportSink;
+import gov.va.ascent.tools.utils.ReportSink;
 import gov.va.ascent.tools.versions.model.AgeIndicator;
+import gov.va.ascent.tools.versions.model.ArtifactVersions;
 import gov.va.ascent.tools.versions.model.Version;
 
 /**
@@ -15,94 +26,184 @@ import gov.va.ascent.tools.versions.model.Version;
  */
 public class Reporter {
 
-	/** Constant for space character */
-	private static final String SPACE = " ";
-	/** Constant for desired max line length */
-	private static final int LINELEN = 79;
-
 	/** The map keyed by project path and the related Version object */
 	private Map<String, Version> versions;
+	/** The workspace project versions, keyed by groupId:artifactId */
+	private Map<String, Version> workspaceVersions = new HashMap<>();
+	/** The groupId of artifactIds that are only declared in one workspace group */
+	private Map<String, String> uniqueArtifactIds = new HashMap<>();
+	/** ArtifactIds that are declared in more than one group */
+	private Set<String> ambiguousArtifactIds = new HashSet<>();
+	/** Descriptions of groupId:artifactId and artifactId collisions between workspace projects */
+	private List<String> collisions = new ArrayList<>();
+	/** The known revisions of each artifact, from the workspace and nexus */
+	private LatestVersionIndex latestVersions;
 
 	/**
 	 * Invoked only by the static buildReport(...) method, otherwise potential thread crossover issues.
 	 */
-	private Reporter(Map<String, Version> versions) {
+	private Reporter(Map<String, Version> versions, Map<String, ArtifactVersions> nexusVersions) {
 		this.versions = versions;
+		indexWorkspaceVersions();
+		this.latestVersions = new LatestVersionIndex(workspaceVersions, nexusVersions);
+	}
+
+	/**
+	 * Build the groupId:artifactId index of workspace project versions, once for the whole report.
+	 * <p>
+	 * If more than one project has the same groupId:artifactId, the first (in report order) is used,
+	 * and the collision is recorded. Artifacts with the same artifactId in different groups are also recorded,
+	 * as they can no longer be told apart by artifactId alone.
+	 */
+	private void indexWorkspaceVersions() {
+		Map<String, Set<String>> groupsByArtifactId = new TreeMap<>();
+		versions.forEach((projectPath, version) -> {
+			if (version == null || version.getArtifactId() == null) {
+				return;
+			}
+			String groupId = version.getEffectiveGroupId();
+			Version existing = workspaceVersions.putIfAbsent(key(groupId, version.getArtifactId()), version);
+			if (existing != null) {
+				collisions.add(key(groupId, version.getArtifactId()) + " is declared by more than one project, using version "
+						+ existing.getVersion() + " and ignoring " + projectPath);
+			}
+			groupsByArtifactId.computeIfAbsent(version.getArtifactId(), k -> new TreeSet<>()).add(groupId);
+		});
+		groupsByArtifactId.forEach((artifactId, groupIds) -> {
+			if (groupIds.size() > 1) {
+				collisions.add("artifactId " + artifactId + " is declared in more than one group: " + groupIds);
+				ambiguousArtifactIds.add(artifactId);
+			} else {
+				uniqueArtifactIds.put(artifactId, groupIds.iterator().next());
+			}
+		});
+	}
+
+	private static String key(String groupId, String artifactId) {
+		return groupId + ":" + artifactId;
 	}
 
 	/**
-	 * Build the report, print it to standard out, and return an equivalent string of the return.
+	 * Build the report and print it to standard out.
 	 *
 	 * @param versions - the map of {@link Version} objects to report from
 	 * @param gitHomePath - the value of the GIT_HOME env var
-	 * @return String - a string representation of the report printed to console
 	 */
 	public static void buildReport(Map<String, Version> versions, String gitHomePath) {
-		new Reporter(versions).printReport(gitHomePath);
+		try (ReportListener text = new TextReportWriter(BufferedReportSink.toStdout())) {
+			buildReport(versions, gitHomePath, Collections.singletonList(text));
+		}
+	}
+
+	/**
+	 * Build the report in one pass over the versions map, sending each row to all of the listeners.
+	 * The listeners are not closed.
+	 *
+	 * @param versions - the map of {@link Version} objects to report from
+	 * @param gitHomePath - the value of the GIT_HOME env var
+	 * @param listeners - the report writers
+	 */
+	public static void buildReport(Map<String, Version> versions, String gitHomePath, List<ReportListener> listeners) {
+		buildReport(versions, Collections.emptyMap(), gitHomePath, listeners);
+	}
+
+	/**
+	 * Build the report in one pass over the versions map, sending each row to all of the listeners.
+	 * Artifacts are aged against the newest version in the workspace or in nexus.
+	 * The listeners are not closed.
+	 *
+	 * @param versions - the map of {@link Version} objects to report from
+	 * @param nexusVersions - the versions available in nexus, keyed by groupId:artifactId
+	 * @param gitHomePath - the value of the GIT_HOME env var
+	 * @param listeners - the report writers
+	 */
+	public static void buildReport(Map<String, Version> versions, Map<String, ArtifactVersions> nexusVersions,
+			String gitHomePath, List<ReportListener> listeners) {
+		new Reporter(versions, nexusVersions).report(gitHomePath, listeners);
 	}
 
 	/**
-	 * Print a report of version information to the console.
+	 * Send the report rows to the listeners.
 	 */
-	private void printReport(String gitHomePath) {
-		Out.println("");
-		Out.println(StringUtils.repeat("=", LINELEN));
-		Out.println("Version Report for " + gitHomePath + "/**");
-		Out.println("Legend:  " + AgeIndicator.CURRENT_SNAPSHOT.getIndicator() + " current snapshot found in nexus");
-		Out.println("         " + AgeIndicator.CURRENT_RELEASE.getIndicator() + " current release found in nexus");
-		Out.println("         " + AgeIndicator.OLD_SNAPSHOT.getIndicator()
-				+ "  old snapshot may soon be deleted from nexus");
-		Out.println("         " + AgeIndicator.OLD_RELEASE.getIndicator() + "  newer release available");
-		Out.println("         " + AgeIndicator.NOT_FOUND.getIndicator() + "  not found in nexus");
-		Out.println("         " + AgeIndicator.UNKNOWN.getIndicator() + "  not enough info to determine age");
-		Out.println("");
-
-		versions.forEach(this::printVersion);
-		Out.println("");
-		Out.println("EOF");
+	private void report(String gitHomePath, List<ReportListener> listeners) {
+		for (ReportListener listener : listeners) {
+			listener.startReport(gitHomePath, collisions);
+		}
+		versions.forEach((projectPath, rootElement) -> reportVersion(projectPath, rootElement, listeners));
+		for (ReportListener listener : listeners) {
+			listener.endReport();
+		}
 	}
 
 	/**
-	 * Print report rows of the collected version info for a specific project.
+	 * Render the report section for each project, without printing it.
+	 * <p>
+	 * Used to find the sections that change between two scans (e.g. in watch mode).
+	 *
+	 * @param versions - the map of {@link Version} objects to report from
+	 * @return Map&lt;String, List&lt;String&gt;&gt; - the lines of each section, keyed and ordered by project path
+	 */
+	public static Map<String, List<String>> renderSections(Map<String, Version> versions) {
+		return renderSections(versions, Collections.emptyMap());
+	}
+
+	/**
+	 * Render the report section for each project, without printing it,
+	 * aging artifacts against the newest version in the workspace or in nexus.
+	 *
+	 * @param versions - the map of {@link Version} objects to report from
+	 * @param nexusVersions - the versions available in nexus, keyed by groupId:artifactId
+	 * @return Map&lt;String, List&lt;String&gt;&gt; - the lines of each section, keyed and ordered by project path
+	 */
+	public static Map<String, List<String>> renderSections(Map<String, Version> versions,
+			Map<String, ArtifactVersions> nexusVersions) {
+		Reporter reporter = new Reporter(versions, nexusVersions);
+		Map<String, List<String>> sections = new LinkedHashMap<>();
+		versions.forEach((projectPath, rootElement) -> {
+			LinesReportSink lines = new LinesReportSink();
+			reporter.reportVersion(projectPath, rootElement, Collections.singletonList(new TextReportWriter(lines)));
+			sections.put(projectPath, lines.getLines());
+		});
+		return sections;
+	}
+
+	/**
+	 * Print previously rendered report sections to the console.
+	 *
+	 * @param sections - the sections from {@link #renderSections(Map)}
+	 */
+	public static void printSections(Collection<List<String>> sections) {
+		try (ReportSink sink = BufferedReportSink.toStdout()) {
+			for (List<String> section : sections) {
+				for (String line : section) {
+					sink.println(line);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Send the report rows of the collected version info for a specific project to the listeners.
 	 *
 	 * @param projectPath - disc path to the project
 	 * @param rootElement - the {@link Version} object representing the &lt;project&gt; element
+	 * @param listeners - the report writers
 	 */
-	private void printVersion(String projectPath, Version rootElement) {
-		Out.println("");
-		Out.println(
-				"---- " + projectPath.toString() + " " + StringUtils.repeat("-", LINELEN - 6 - projectPath.toString().length()));
+	private void reportVersion(String projectPath, Version rootElement, List<ReportListener> listeners) {
+		for (ReportListener listener : listeners) {
+			listener.project(projectPath, rootElement);
+		}
 
 		if (rootElement != null) {
-
-			Out.println(nexusIndicator(rootElement, false) + rootElement.getArtifactId() + SPACE + rootElement.getVersion());
-
 			if (rootElement.getParent() != null) {
-				Version parent = rootElement.getParent();
-				Version currentVersion = findCurrentVersion(parent);
-				AgeIndicator age =
-						currentVersion == null ? AgeIndicator.UNKNOWN : currentVersion.getRevision().compare(parent.getRevision());
-				Out.println(age.getIndicator(), 1,
-						(parent.getHierarchyIdTag() == null ? "" : parent.getHierarchyIdTag().getOutputPrefix())
-								+ parent.getArtifactId()
-								+ SPACE + parent.getVersion());
-				if (age.isMoldy()) {
-					Out.println("  ", 4, "▷ Current version is: " + currentVersion);
-				}
+				reportElement(projectPath, rootElement.getParent(), listeners);
 			}
 
 			if (rootElement.getDependencies() != null) {
 				for (Version dep : rootElement.getDependencies()) {
-					if (dep != null) {
-						Version currentVersion = findCurrentVersion(dep);
-						AgeIndicator age = currentVersion == null ? AgeIndicator.UNKNOWN
-								: currentVersion.getRevision().compare(dep.getRevision());
-						Out.println(age.getIndicator(), 1,
-								(dep.getHierarchyIdTag() == null ? "" : dep.getHierarchyIdTag().getOutputPrefix())
-										+ dep.getArtifactId() + SPACE + dep.getVersion());
-						if (age.isMoldy()) {
-							Out.println(3, "▷ Current version is: " + currentVersion);
-						}
+					// managed dependencies have no version if no managed version was found
+					if (dep != null && dep.getVersion() != null) {
+						reportElement(projectPath, dep, listeners);
 					}
 				}
 			}
@@ -110,47 +211,41 @@ public class Reporter {
 	}
 
 	/**
-	 * Searches the version map for the artifact related to the dependency or parent element.
-	 * <p>
-	 * If the artifact is not found, it is assumed to be a third party artifact (spring or whatever),
-	 * and {@code null} is returned.
+	 * Find the age of a parent or dependency element, and send it to the listeners.
 	 *
-	 * @param element - the dependency or parent element
-	 * @return
+	 * @param projectPath - disc path to the project
+	 * @param element - the parent or dependency element
+	 * @param listeners - the report writers
 	 */
-	private Version findCurrentVersion(Version element) {
-		Version current = null;
-		for (Version version : versions.values()) {
-			if (version != null && version.getArtifactId() != null
-					&& version.getArtifactId().equals(element.getArtifactId())) {
-				current = version;
-				break;
-			}
+	private void reportElement(String projectPath, Version element, List<ReportListener> listeners) {
+		LatestVersionIndex.Artifact artifact = findArtifact(element);
+		Version currentVersion = artifact == null ? null : artifact.getNewest();
+		// versions that could not be parsed (e.g. unresolved properties) have no revision to compare
+		AgeIndicator age = currentVersion == null || element.getRevision() == null
+				? AgeIndicator.UNKNOWN
+				: currentVersion.getRevision().compare(element.getRevision());
+		int releasesBehind = artifact == null ? 0 : artifact.releasesBehind(element.getRevision());
+		for (ReportListener listener : listeners) {
+			listener.element(projectPath, element, age, currentVersion, releasesBehind);
 		}
-		return current == null ? null : current;
 	}
 
 	/**
-	 * Get the string that represents whether the artifact version exists in nexus.
+	 * Looks up the known revisions of the artifact related to the dependency or parent element,
+	 * by groupId:artifactId.
+	 * <p>
+	 * If the element has no groupId, the artifactId is only used if it is declared in a single workspace group.
+	 * If the artifact is neither in the workspace nor found in nexus, {@code null} is returned.
 	 *
-	 * @param element - the {@link Version} object representing the nexus artifact.
-	 * @return String - the indicator string
+	 * @param element - the dependency or parent element
+	 * @return LatestVersionIndex.Artifact - the known revisions, or {@code null}
 	 */
-	private String nexusIndicator(Version element, boolean isMoldy) {
-		Boolean exists = element.exists();
-
-		String ret = null;
-		if (Boolean.FALSE.equals(exists)) {
-			ret = "✗  ";
-		} else if (Boolean.TRUE.equals(exists)) {
-			if (isMoldy) {
-				ret = "℞︎ ";
-			} else {
-				ret = "✓︎ ";
-			}
-		} else {
-			ret = "  ";
+	private LatestVersionIndex.Artifact findArtifact(Version element) {
+		if (Version.NULL.equals(element.getGroupId())) {
+			String groupId = ambiguousArtifactIds.contains(element.getArtifactId()) ? null
+					: uniqueArtifactIds.get(element.getArtifactId());
+			return groupId == null ? null : latestVersions.get(groupId, element.getArtifactId());
 		}
-		return ret;
+		return latestVersions.get(element.getGroupId(), element.getArtifactId());
 	}
 }
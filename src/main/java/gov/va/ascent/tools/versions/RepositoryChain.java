@@ -0,0 +1,193 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+
+import gov.va.ascent.tools.utils.RunMetrics;
+import gov.va.ascent.tools.versions.model.ArtifactVersions;
+
+/**
+ * {@link ArtifactRepository}s in priority order. Each artifact of a batch is answered by the first repository
+ * that has a version of it. The artifacts that no repository has are answered as having no versions
+ * by the first repository, but only if every repository could be searched. If any repository failed,
+ * or its circuit breaker rejected the search, those artifacts are not known, as the failed repository may have them.
+ * <p>
+ * The repositories are configured as a comma separated list of type:location, e.g.<br/>
+ * {@code nexus-search:https://host/service/rest/v1/search, maven:https://repo.maven.apache.org/maven2, local}
+ * <ul>
+ * <li>{@code nexus-search:url} - the Nexus 3 search REST API, see {@link NexusSearchRepository}
+ * <li>{@code maven:url} - a maven repository over http, see {@link MavenLayoutRepository}
+ * <li>{@code local} or {@code local:path} - the local maven repository, see {@link LocalRepositoryIndex};
+ * without a path, the versions.maven.local-repository
+ * </ul>
+ */
+class RepositoryChain {
+
+	/** Repository type of the Nexus 3 search REST API */
+	static final String TYPE_NEXUS_SEARCH = "nexus-search";
+	/** Repository type of a maven repository over http */
+	static final String TYPE_MAVEN = "maven";
+	/** Repository type of the local maven repository */
+	static final String TYPE_LOCAL = "local";
+
+	/** The repositories, highest priority first */
+	private List<ArtifactRepository> repositories;
+	/** The number of artifacts found in each repository */
+	private List<AtomicLong> answered = new ArrayList<>();
+
+	/**
+	 * The answer for one artifact.
+	 */
+	static class Found {
+		/** The available versions, empty if no repository has the artifact, or {@code null} if not known */
+		ArtifactVersions versions;
+		/** The repository that answered, or {@code null} if not known */
+		ArtifactRepository repository;
+		/** The first repository failure, if the artifact is not known */
+		IOException failure;
+
+		Found(ArtifactVersions versions, ArtifactRepository repository) {
+			this.versions = versions;
+			this.repository = repository;
+		}
+
+		Found(IOException failure) {
+			this.failure = failure;
+		}
+	}
+
+	/**
+	 * Chain repositories.
+	 *
+	 * @param repositories - the repositories, highest priority first
+	 */
+	RepositoryChain(List<ArtifactRepository> repositories) {
+		this.repositories = new ArrayList<>(repositories);
+		for (int r = 0; r < repositories.size(); r++) {
+			answered.add(new AtomicLong());
+		}
+	}
+
+	/**
+	 * Create the repositories of a versions.repositories property value.
+	 *
+	 * @param specs - the comma separated repositories, highest priority first
+	 * @param localIndex - the index of versions.maven.local-repository for {@code local} without a path, or {@code null}
+	 * @return RepositoryChain - the repositories
+	 * @throws IllegalArgumentException - a repository type is not known, a location is missing,
+	 *             or {@code local} is used with no local repository
+	 */
+	static RepositoryChain parse(String specs, LocalRepositoryIndex localIndex) {
+		List<ArtifactRepository> repositories = new ArrayList<>();
+		for (String spec : StringUtils.split(specs, ',')) {
+			String type = StringUtils.substringBefore(spec, ":").trim();
+			String location = spec.contains(":") ? StringUtils.substringAfter(spec, ":").trim() : "";
+			if (TYPE_LOCAL.equals(type)) {
+				if (location.isEmpty() && localIndex == null) {
+					throw new IllegalArgumentException("Repository \"" + spec.trim() + "\" needs a path, "
+							+ "or the local maven repository to be set");
+				}
+				repositories.add(location.isEmpty() ? localIndex : new LocalRepositoryIndex(Paths.get(location)));
+			} else if (location.isEmpty()) {
+				throw new IllegalArgumentException("Repository \"" + spec.trim() + "\" needs a url, as type:url");
+			} else if (TYPE_NEXUS_SEARCH.equals(type)) {
+				repositories.add(new NexusSearchRepository(location));
+			} else if (TYPE_MAVEN.equals(type)) {
+				repositories.add(new MavenLayoutRepository(location));
+			} else {
+				throw new IllegalArgumentException("Unknown repository type \"" + type + "\", expected "
+						+ TYPE_NEXUS_SEARCH + ", " + TYPE_MAVEN + " or " + TYPE_LOCAL);
+			}
+		}
+		if (repositories.isEmpty()) {
+			throw new IllegalArgumentException("No repositories in \"" + specs + "\"");
+		}
+		return new RepositoryChain(repositories);
+	}
+
+	/**
+	 * Find all the versions of some artifacts of a groupId, asking each repository in turn
+	 * for the artifacts that the repositories before it did not have.
+	 *
+	 * @param groupId - the groupId of the artifacts, or {@code null} if not known
+	 * @param artifactIds - the artifactIds to look up
+	 * @return Map&lt;String, Found&gt; - the answer for each requested artifact, keyed by artifactId;
+	 *         the artifacts not found are not known if any repository failed
+	 */
+	Map<String, Found> findVersions(String groupId, Collection<String> artifactIds) {
+		Map<String, Found> found = new HashMap<>();
+		Set<String> remaining = new LinkedHashSet<>(artifactIds);
+		IOException failure = null;
+		for (int r = 0; r < repositories.size() && !remaining.isEmpty(); r++) {
+			ArtifactRepository repository = repositories.get(r);
+			Map<String, ArtifactVersions> versions;
+			try {
+				versions = repository.findVersions(groupId, Collections.unmodifiableSet(new LinkedHashSet<>(remaining)));
+			} catch (IOException e) {
+				if (failure == null) {
+					failure = e;
+				}
+				continue;
+			}
+			for (Iterator<String> i = remaining.iterator(); i.hasNext();) {
+				String artifactId = i.next();
+				ArtifactVersions artifact = versions.get(artifactId);
+				if (artifact != null && !artifact.getVersions().isEmpty()) {
+					found.put(artifactId, new Found(artifact, repository));
+					answered.get(r).incrementAndGet();
+					i.remove();
+				}
+			}
+		}
+		for (String artifactId : remaining) {
+			found.put(artifactId, failure != null ? new Found(failure)
+					: new Found(new ArtifactVersions(groupId, artifactId), repositories.get(0)));
+		}
+		return found;
+	}
+
+	/**
+	 * The repositories, highest priority first.
+	 *
+	 * @return List&lt;ArtifactRepository&gt; - the repositories
+	 */
+	List<ArtifactRepository> getRepositories() {
+		return Collections.unmodifiableList(repositories);
+	}
+
+	/**
+	 * Where the artifacts were found, for the lookup summary.
+	 *
+	 * @return String - e.g. "8 found in nexus search https://host/service/rest/v1/search, 2 found in local repository ..."
+	 */
+	String summary() {
+		List<String> counts = new ArrayList<>();
+		for (int r = 0; r < repositories.size(); r++) {
+			counts.add(answered.get(r).get() + " found in " + repositories.get(r).getName());
+		}
+		return String.join(", ", counts);
+	}
+
+	/**
+	 * Add the number of artifacts found in each repository to the run metrics.
+	 *
+	 * @param metrics - the run metrics
+	 */
+	void addMetrics(RunMetrics metrics) {
+		for (int r = 0; r < repositories.size(); r++) {
+			metrics.count("artifacts from repository " + (r + 1), answered.get(r).get());
+		}
+	}
+}
@@ -1,11 +1,15 @@
 package gov.va.ascent.tools.versions;
 
-import org.apache.commons.lang3.StringUtils;
+import java.util.Arrays;
 
+import gov.va.ascent.tools.versions.model.Qualifier;
 import gov.va.ascent.tools.versions.model.Revision;
 
 /**
  * Parses a maven &lt;version&gt; string into its component {@link Revision} information.
+ * <p>
+ * Parsing is a single pass over the characters of the version, without regular expressions,
+ * splitting or intermediate strings.
  *
  * @author aburkholder
  */
@@ -13,6 +17,8 @@ public class RevisionParser {
 
 	/** Constant for SNAPSHOT revision string */
 	private static final String SNAPSHOT = "-SNAPSHOT";
+	/** Constant for the SNAPSHOT word anywhere in the qualifiers, e.g. BUILD-SNAPSHOT */
+	private static final String SNAPSHOT_WORD = "SNAPSHOT";
 
 	/**
 	 * Don't instantiate
@@ -24,42 +30,142 @@ public class RevisionParser {
 	/**
 	 * Parse a maven &lt;version&gt; string into its component {@link Revision} information.
 	 * <p>
-	 * The standard maven &lt;version&gt; format is: {@code #.#.#[-SNAPSHOT]}
-	 * where each # is an integer, with optional snapshot indicator.
+	 * The maven &lt;version&gt; format is: {@code #[.#]*[(.|-|_)qualifier]*[-SNAPSHOT]}
+	 * where each # is an integer, and each qualifier is a word with an optional number
+	 * (e.g. {@code 1.2.3-RC1}, {@code 2.0.0.M2}, {@code 1.0.0.BUILD-SNAPSHOT}, {@code Finchley.SR2}).
+	 * Missing numbers are 0, so {@code 1.2} is the same revision as {@code 1.2.0}.
 	 * <p>
-	 * If any part of the version parameter does not conform to the standard &lt;version&gt; format,
-	 * {@code null} is returned.
+	 * If the version is blank, is an unresolved property, contains characters other than letters,
+	 * digits and separators, or has a number too large for an int, {@code null} is returned.
 	 *
 	 * @param version - the maven &lt;version&gt; string
 	 * @return Revision - the revision information, or {@code null}
 	 */
 	public static Revision parseRevision(String version) {
-		if (StringUtils.isBlank(version)) {
+		if (version == null) {
 			return null;
 		}
-
-		boolean snapshot = version.contains(SNAPSHOT);
-		if (snapshot) {
-			version = version.replace(SNAPSHOT, "");
+		int pos = 0;
+		int end = version.length();
+		while (pos < end && Character.isWhitespace(version.charAt(pos))) {
+			pos++;
 		}
-
-		String[] versions = version.split("\\.");
-		if (versions == null || versions.length != 3
-				|| StringUtils.isBlank(versions[0]) || StringUtils.isBlank(versions[1]) || StringUtils.isBlank(versions[2])) {
+		while (end > pos && Character.isWhitespace(version.charAt(end - 1))) {
+			end--;
+		}
+		if (pos == end || version.charAt(pos) == '$') {
 			return null;
 		}
 
+		boolean snapshot = false;
+		if (end - pos >= SNAPSHOT.length()
+				&& version.regionMatches(true, end - SNAPSHOT.length(), SNAPSHOT, 0, SNAPSHOT.length())) {
+			snapshot = true;
+			end -= SNAPSHOT.length();
+		}
+
+		// numbers, separated by dots
 		int major = 0;
 		int minor = 0;
 		int build = 0;
-		try {
-			major = Integer.parseInt(versions[0].trim());
-			minor = Integer.parseInt(versions[1].trim());
-			build = Integer.parseInt(versions[2].trim());
-		} catch (NumberFormatException e) {
+		int[] extra = null;
+		int count = 0;
+		while (pos < end && isDigit(version.charAt(pos))) {
+			long number = 0;
+			while (pos < end && isDigit(version.charAt(pos))) {
+				number = number * 10 + (version.charAt(pos++) - '0');
+				if (number > Integer.MAX_VALUE) {
+					return null;
+				}
+			}
+			if (count == 0) {
+				major = (int) number;
+			} else if (count == 1) {
+				minor = (int) number;
+			} else if (count == 2) {
+				build = (int) number;
+			} else {
+				// rare: only versions with a 4th number allocate
+				if (extra == null || count - 3 == extra.length) {
+					extra = extra == null ? new int[2] : Arrays.copyOf(extra, extra.length * 2);
+				}
+				extra[count - 3] = (int) number;
+			}
+			count++;
+			if (pos + 1 < end && version.charAt(pos) == '.' && isDigit(version.charAt(pos + 1))) {
+				pos++;
+			} else {
+				break;
+			}
+		}
+
+		// qualifiers: a word and/or a number, between separators
+		String name = null;
+		Qualifier qualifier = null;
+		int qualifierNumber = 0;
+		while (pos < end) {
+			char c = version.charAt(pos);
+			if (c == '.' || c == '-' || c == '_') {
+				pos++;
+				continue;
+			}
+			int wordStart = pos;
+			while (pos < end && Character.isLetter(version.charAt(pos))) {
+				pos++;
+			}
+			int wordEnd = pos;
+			long number = 0;
+			while (pos < end && isDigit(version.charAt(pos))) {
+				number = number * 10 + (version.charAt(pos++) - '0');
+				if (number > Integer.MAX_VALUE) {
+					return null;
+				}
+			}
+			if (pos == wordStart) {
+				// not a letter, digit or separator
+				return null;
+			}
+			boolean numbered = pos > wordEnd;
+
+			if (wordEnd == wordStart) {
+				// a number on its own, e.g. the 1 in 1.0.0-1, is a service pack
+				if (qualifier == null) {
+					qualifier = Qualifier.SERVICE_PACK;
+					qualifierNumber = (int) number;
+				}
+			} else if (wordEnd - wordStart == SNAPSHOT_WORD.length()
+					&& version.regionMatches(true, wordStart, SNAPSHOT_WORD, 0, SNAPSHOT_WORD.length())) {
+				snapshot = true;
+			} else {
+				Qualifier known = Qualifier.fromWord(version, wordStart, wordEnd, numbered);
+				if (known != null) {
+					if (qualifier == null) {
+						qualifier = known;
+						qualifierNumber = (int) number;
+					}
+				} else if (name == null) {
+					name = version.substring(wordStart, wordEnd);
+				}
+			}
+		}
+
+		if (count == 0 && name == null) {
 			return null;
 		}
 
-		return new Revision(major, minor, build, snapshot);
+		if (extra != null) {
+			// trailing zeros do not change the revision: 1.2.3.0 is 1.2.3
+			int extraCount = count - 3;
+			while (extraCount > 0 && extra[extraCount - 1] == 0) {
+				extraCount--;
+			}
+			extra = extraCount == 0 ? null : Arrays.copyOf(extra, extraCount);
+		}
+
+		return new Revision(major, minor, build, extra, name, qualifier, qualifierNumber, snapshot);
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
 	}
 }
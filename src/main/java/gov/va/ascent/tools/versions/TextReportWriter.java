@@ -0,0 +1,113 @@
+package gov.va.ascent.tools.versions;
+
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+import gov.va.ascent.tools.utils.ReportSink;
+import gov.va.ascent.tools.utils.Severity;
+import gov.va.ascent.tools.versions.model.AgeIndicator;
+import gov.va.ascent.tools.versions.model.PomTags;
+import gov.va.ascent.tools.versions.model.Version;
+
+/**
+ * Writes the human readable Versions report to a {@link ReportSink}.
+ */
+public class TextReportWriter implements ReportListener {
+
+	/** Constant for space character */
+	private static final String SPACE = " ";
+	/** Constant for desired max line length */
+	private static final int LINELEN = 79;
+
+	/** The destination of the report */
+	private ReportSink sink;
+
+	/**
+	 * Write the report to the sink. The sink is closed when this writer is closed.
+	 *
+	 * @param sink - the destination of the report
+	 */
+	public TextReportWriter(ReportSink sink) {
+		this.sink = sink;
+	}
+
+	@Override
+	public void startReport(String gitHomePath, List<String> warnings) {
+		sink.println("");
+		sink.println(StringUtils.repeat("=", LINELEN));
+		sink.println("Version Report for " + gitHomePath + "/**");
+		sink.println("Legend:  " + AgeIndicator.CURRENT_SNAPSHOT.getIndicator() + " current snapshot found in nexus");
+		sink.println("         " + AgeIndicator.CURRENT_RELEASE.getIndicator() + " current release found in nexus");
+		sink.println("         " + AgeIndicator.OLD_SNAPSHOT.getIndicator()
+				+ "  old snapshot may soon be deleted from nexus");
+		sink.println("         " + AgeIndicator.OLD_RELEASE.getIndicator() + "  newer release available");
+		sink.println("         " + AgeIndicator.NOT_FOUND.getIndicator() + "  not found in nexus");
+		sink.println("         " + AgeIndicator.UNKNOWN.getIndicator() + "  not enough info to determine age");
+		sink.println("");
+		for (String warning : warnings) {
+			sink.append(Severity.WARN.toString()).append(": ").println(warning);
+		}
+	}
+
+	@Override
+	public void project(String projectPath, Version rootElement) {
+		sink.println("");
+		sink.append("---- ").append(projectPath).append(SPACE)
+				.println(StringUtils.repeat("-", LINELEN - 6 - projectPath.length()));
+
+		if (rootElement != null) {
+			sink.append(nexusIndicator(rootElement, false)).append(String.valueOf(rootElement.getArtifactId())).append(SPACE)
+					.println(String.valueOf(rootElement.getVersion()));
+		}
+	}
+
+	@Override
+	public void element(String projectPath, Version element, AgeIndicator age, Version currentVersion, int releasesBehind) {
+		sink.append(age.getIndicator()).indent(1)
+				.append(element.getHierarchyIdTag() == null ? "" : element.getHierarchyIdTag().getOutputPrefix())
+				.append(String.valueOf(element.getArtifactId())).append(SPACE).append(String.valueOf(element.getVersion()))
+				.println(element.getManagedBy() == null ? "" : " (managed by " + element.getManagedBy() + ")");
+		if (age.isMoldy()) {
+			boolean parent = PomTags.PARENT.equals(element.getHierarchyIdTag());
+			sink.append(parent ? "  " : null).indent(parent ? 4 : 3)
+					.append("▷ Current version is: ").append(currentVersion.getVersion())
+					.println(releasesBehind == 0 ? "" : releasesBehind == 1 ? " (1 release behind)" : " (" + releasesBehind + " releases behind)");
+		}
+	}
+
+	@Override
+	public void endReport() {
+		sink.println("");
+		sink.println("EOF");
+	}
+
+	@Override
+	public void close() {
+		sink.close();
+	}
+
+	/**
+	 * Get the string that represents whether the artifact version exists in nexus.
+	 *
+	 * @param element - the {@link Version} object representing the nexus artifact.
+	 * @return String - the indicator string
+	 */
+	private static String nexusIndicator(Version element, boolean isMoldy) {
+		Boolean exists = element.exists();
+
+		String ret = null;
+		if (Boolean.FALSE.equals(exists)) {
+			ret = "✗  ";
+		} else if (Boolean.TRUE.equals(exists)) {
+			if (isMoldy) {
+				ret = "℞︎ ";
+			} else {
+				ret = "✓︎ ";
+			}
+		} else {
+			ret = "  ";
+		}
+		return ret;
+	}
+}
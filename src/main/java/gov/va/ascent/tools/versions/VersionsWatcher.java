@@ -0,0 +1,212 @@
+package gov.va.ascent.tools.versions;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import gov.va.ascent.tools.utils.Out;
+import gov.va.ascent.tools.utils.Severity;
+import gov.va.ascent.tools.versions.model.Version;
+
+/**
+ * Watches the POMs of the reported projects, and re-reports version drift when they change.
+ * <p>
+ * Every scanned project directory (top level projects and their configured subprojects, including those whose POM
+ * could not be read) is registered with a {@link WatchService}. When a pom.xml is saved, only that project is parsed
+ * again. GIT_HOME is also watched, so that a newly cloned project is scanned and watched as well.
+ * Events are debounced, so that a {@code git checkout} touching many files is handled as one batch.
+ * <p>
+ * After each batch, only the report sections that changed are printed. This includes projects whose
+ * POM did not change, but whose parent or dependency age changed because of the new versions.
+ */
+public class VersionsWatcher {
+
+	/** The name of the file to watch in each project */
+	private static final String POM = "pom.xml";
+	/** Format for the time that changes were detected */
+	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+	/** Parses changed projects again */
+	private PomVersionsParser parser;
+	/** All the collected versioning information, updated as POMs change */
+	private Map<String, Version> versions;
+	/** Milliseconds without events before a batch of changes is processed */
+	private long debounceMillis;
+
+	/** The project directory for each registered watch key */
+	private Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+	/** The key that signals new directories in GIT_HOME */
+	private WatchKey gitHomeKey;
+
+	/**
+	 * Create a watcher for the projects in the versions map.
+	 *
+	 * @param parser - the parser that produced the versions map
+	 * @param versions - the versions map from the initial scan, keyed by absolute project path
+	 * @param debounceMillis - milliseconds without events before a batch of changes is processed
+	 */
+	public VersionsWatcher(PomVersionsParser parser, Map<String, Version> versions, long debounceMillis) {
+		this.parser = parser;
+		this.versions = versions;
+		this.debounceMillis = debounceMillis;
+	}
+
+	/**
+	 * Watch for POM changes until the thread is interrupted or the process is stopped.
+	 *
+	 * @throws IOException - problem registering the project directories
+	 */
+	public void watch() throws IOException {
+		try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+			gitHomeKey = parser.getGitHome().register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+			for (String projectPath : versions.keySet()) {
+				register(watchService, Paths.get(projectPath));
+			}
+			registerScanned(watchService);
+			Out.println("");
+			Out.println("Watching " + watchedDirectories.size() + " projects for POM changes. Press Ctrl-C to stop.");
+
+			Map<String, List<String>> sections = Reporter.renderSections(versions, parser.getNexusVersions());
+			while (!Thread.currentThread().isInterrupted()) {
+				Set<Path> changed = new TreeSet<>();
+				// block for the first event, then keep collecting until events stop arriving
+				WatchKey key = watchService.take();
+				while (key != null) {
+					collectChanges(watchService, key, changed);
+					key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+				}
+				if (!changed.isEmpty()) {
+					sections = update(changed, sections);
+					registerScanned(watchService);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ClosedWatchServiceException e) { // NOSONAR closed on shutdown
+			// noop
+		}
+	}
+
+	/**
+	 * Watch the POM of a project directory.
+	 *
+	 * @param watchService - the watch service
+	 * @param dir - the project directory
+	 * @throws IOException - problem registering the directory
+	 */
+	private void register(WatchService watchService, Path dir) throws IOException {
+		WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+				StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+		watchedDirectories.put(key, dir);
+	}
+
+	/**
+	 * Watch the scanned project directories that are not watched yet, e.g. those whose POM could not be read,
+	 * or the subprojects of a new project.
+	 *
+	 * @param watchService - the watch service
+	 * @throws IOException - problem registering a directory
+	 */
+	private void registerScanned(WatchService watchService) throws IOException {
+		for (Path dir : parser.getScannedDirectories()) {
+			if (!watchedDirectories.containsValue(dir) && Files.isDirectory(dir)) {
+				register(watchService, dir);
+			}
+		}
+	}
+
+	/**
+	 * Add the directories of any changed POMs in the key's events to the set of changed projects.
+	 * A new directory in GIT_HOME is watched, and scanned as a new project.
+	 *
+	 * @param watchService - the watch service
+	 * @param key - the signalled watch key
+	 * @param changed - the changed project directories
+	 * @throws IOException - problem registering a new directory
+	 */
+	private void collectChanges(WatchService watchService, WatchKey key, Set<Path> changed) throws IOException {
+		if (key == gitHomeKey) {
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (event.context() instanceof Path) {
+					Path dir = parser.getGitHome().resolve((Path) event.context()).toAbsolutePath().normalize();
+					if (Files.isDirectory(dir) && !watchedDirectories.containsValue(dir)) {
+						// watched before it is scanned, so a pom.xml written after the scan is still seen
+						register(watchService, dir);
+						changed.add(dir);
+					}
+				}
+			}
+			key.reset();
+			return;
+		}
+		Path dir = watchedDirectories.get(key);
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW
+					|| (event.context() instanceof Path && POM.equals(((Path) event.context()).toString()))) {
+				changed.add(dir);
+			}
+		}
+		if (!key.reset()) {
+			// the directory is no longer accessible
+			watchedDirectories.remove(key);
+			changed.add(dir);
+		}
+	}
+
+	/**
+	 * Parse the changed projects again, and print the report sections that changed.
+	 *
+	 * @param changed - the changed project directories
+	 * @param previous - the report sections before the change
+	 * @return Map&lt;String, List&lt;String&gt;&gt; - the report sections after the change
+	 */
+	private Map<String, List<String>> update(Set<Path> changed, Map<String, List<String>> previous) {
+		Out.println("");
+		Out.println("==== POM changes detected at " + LocalTime.now().format(TIME_FORMAT) + " in " + changed.size()
+				+ " project(s) ====");
+		Map<String, Version> reprocessed = parser.processProjects(changed);
+		reprocessed.forEach((projectPath, version) -> {
+			if (version == null) {
+				versions.remove(projectPath);
+			} else {
+				versions.put(projectPath, version);
+			}
+		});
+
+		Map<String, List<String>> current = Reporter.renderSections(versions, parser.getNexusVersions());
+		List<List<String>> differences = new ArrayList<>();
+		current.forEach((projectPath, section) -> {
+			if (!Objects.equals(section, previous.get(projectPath))) {
+				differences.add(section);
+			}
+		});
+		for (String projectPath : previous.keySet()) {
+			if (!current.containsKey(projectPath)) {
+				Out.println(0, Severity.WARN, "Project no longer reported: " + projectPath);
+			}
+		}
+		if (differences.isEmpty()) {
+			Out.println("No version changes.");
+		} else {
+			Reporter.printSections(differences);
+		}
+		return current;
+	}
+}
@@ -0,0 +1,117 @@
+package gov.va.ascent.tools.versions.model;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+import gov.va.ascent.tools.versions.RevisionParser;
+
+/**
+ * All the versions of one artifact that are available in nexus.
+ */
+public class ArtifactVersions {
+
+	/** the groupId of the artifact */
+	private String groupId;
+	/** the artifactId of the artifact */
+	private String artifactId;
+	/** the available base versions (SNAPSHOTs as #.#.#-SNAPSHOT, not timestamped) */
+	private Set<String> versions = new TreeSet<>();
+	/** the newest release version, or {@code null} */
+	private String newestRelease;
+	/** the newest SNAPSHOT version, or {@code null} */
+	private String newestSnapshot;
+
+	/**
+	 * Create an empty list of versions for an artifact.
+	 *
+	 * @param groupId - the groupId of the artifact
+	 * @param artifactId - the artifactId of the artifact
+	 */
+	public ArtifactVersions(String groupId, String artifactId) {
+		this.groupId = groupId;
+		this.artifactId = artifactId;
+	}
+
+	/**
+	 * Add an available base version, keeping track of the newest release and SNAPSHOT.
+	 *
+	 * @param baseVersion - the version, with SNAPSHOTs as #.#.#-SNAPSHOT
+	 */
+	public void add(String baseVersion) {
+		if (baseVersion == null || !versions.add(baseVersion)) {
+			return;
+		}
+		Revision revision = RevisionParser.parseRevision(baseVersion);
+		if (revision == null) {
+			return;
+		}
+		if (revision.isSnapshot()) {
+			if (isNewer(revision, newestSnapshot)) {
+				newestSnapshot = baseVersion;
+			}
+		} else if (isNewer(revision, newestRelease)) {
+			newestRelease = baseVersion;
+		}
+	}
+
+	private static boolean isNewer(Revision revision, String current) {
+		Revision currentRevision = RevisionParser.parseRevision(current);
+		return currentRevision == null || revision.compareTo(currentRevision) > 0;
+	}
+
+	/**
+	 * Is the base version available in nexus?
+	 *
+	 * @param baseVersion - the version, with SNAPSHOTs as #.#.#-SNAPSHOT
+	 * @return boolean - {@code true} if the version is available
+	 */
+	public boolean contains(String baseVersion) {
+		return versions.contains(baseVersion);
+	}
+
+	/**
+	 * The &lt;groupId&gt; of the artifact.
+	 *
+	 * @return the groupId
+	 */
+	public String getGroupId() {
+		return groupId;
+	}
+
+	/**
+	 * The &lt;artifactId&gt; of the artifact.
+	 *
+	 * @return the artifactId
+	 */
+	public String getArtifactId() {
+		return artifactId;
+	}
+
+	/**
+	 * All the available base versions, in string order.
+	 *
+	 * @return the versions
+	 */
+	public Set<String> getVersions() {
+		return Collections.unmodifiableSet(versions);
+	}
+
+	/**
+	 * The newest release version available in nexus.
+	 *
+	 * @return the version, or {@code null} if there are no releases
+	 */
+	public String getNewestRelease() {
+		return newestRelease;
+	}
+
+	/**
+	 * The newest SNAPSHOT version available in nexus.
+	 *
+	 * @return the version, or {@code null} if there are no SNAPSHOTs
+	 */
+	public String getNewestSnapshot() {
+		return newestSnapshot;
+	}
+}
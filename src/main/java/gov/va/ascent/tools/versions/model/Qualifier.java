@@ -0,0 +1,55 @@
+package gov.va.ascent.tools.versions.model;
+
+/**
+ * The kinds of version qualifier, in maven's order: alpha &lt; beta &lt; milestone &lt; rc &lt; release &lt; sp.
+ * <p>
+ * A SNAPSHOT is not a qualifier here; it is a flag on the {@link Revision}, and sorts before
+ * the same revision without it.
+ */
+public enum Qualifier {
+
+	/** alpha, a1 */
+	ALPHA("alpha", "a"),
+	/** beta, b1 */
+	BETA("beta", "b"),
+	/** milestone, m1 */
+	MILESTONE("milestone", "m"),
+	/** rc1, cr1 */
+	RELEASE_CANDIDATE("rc", "cr"),
+	/** no qualifier, or ga, final, release (and spring's BUILD in BUILD-SNAPSHOT) */
+	RELEASE("release", "ga", "final", "build"),
+	/** sp1, and spring's service releases sr1 */
+	SERVICE_PACK("sp", "sr");
+
+	/** The qualifiers, as {@link #values()} allocates a new array on every call */
+	private static final Qualifier[] QUALIFIERS = values();
+
+	/** The qualifier words, in lower case. Single letter words only count when followed by a number */
+	private String[] words;
+
+	Qualifier(String... words) {
+		this.words = words;
+	}
+
+	/**
+	 * Find the qualifier for a word, without allocating.
+	 *
+	 * @param version - the string containing the word
+	 * @param start - the index of the first character of the word
+	 * @param end - the index after the last letter of the word
+	 * @param numbered - {@code true} if the word is followed by a number (e.g. RC1)
+	 * @return Qualifier - the qualifier, or {@code null} if the word is not a known qualifier
+	 */
+	public static Qualifier fromWord(String version, int start, int end, boolean numbered) {
+		int length = end - start;
+		for (Qualifier qualifier : QUALIFIERS) {
+			for (String word : qualifier.words) {
+				if (word.length() == length && (length > 1 || numbered)
+						&& version.regionMatches(true, start, word, 0, length)) {
+					return qualifier;
+				}
+			}
+		}
+		return null;
+	}
+}
@@ -1,5 +1,8 @@
 package gov.va.ascent.tools.versions.model;
 
+import java.io.Serializable;
+import java.util.Arrays;
+
 import gov.va.ascent.tools.versions.RevisionParser;
 
 /**
@@ -7,12 +10,13 @@ import gov.va.ascent.tools.versions.RevisionParser;
  * 
  * @author aburkholder
  */
-public class Revision {
+public class Revision implements Serializable, Comparable<Revision> {
+	private static final long serialVersionUID = 2L;
 
-	/** Constant for multiplying the major revision number */
-	private static final int MULT_MAJOR = 10000;
-	/** Constant for multiplying the minor revision number */
-	private static final int MULT_MINOR = 100;
+	/** Bits for each of major, minor and build in the revision key */
+	private static final int KEY_BITS = 21;
+	/** The largest value of a component in the revision key; larger components are compared separately */
+	private static final long KEY_MAX = (1L << KEY_BITS) - 1;
 
 	/** the major revision number */
 	private int major;
@@ -20,8 +24,18 @@ public class Revision {
 	private int minor;
 	/** the build revision number */
 	private int build;
+	/** numbers after the build number (e.g. 4 in 1.2.3.4) without trailing zeros, or {@code null} if there are none */
+	private int[] extra;
+	/** an unrecognized qualifier, e.g. the release train name in Finchley.SR2, or {@code null} */
+	private String name;
+	/** the kind of qualifier, {@link Qualifier#RELEASE} if there is none */
+	private Qualifier qualifier = Qualifier.RELEASE;
+	/** the number of the qualifier (e.g. 2 in RC2), 0 if there is none */
+	private int qualifierNumber;
 	/** whether the version is a SNAPSHOT (true) or not (false) */
 	private boolean snapshot;
+	/** major, minor and build packed into one comparable number */
+	private long key;
 
 	/**
 	 * Decompose a &lt;version&gt; into a {@link Revision} object.
@@ -42,33 +56,136 @@ public class Revision {
 	 * @param snapshot - {@code true} if a SNAPSHOT
 	 */
 	public Revision(int major, int minor, int build, boolean snapshot) {
+		this(major, minor, build, null, null, Qualifier.RELEASE, 0, snapshot);
+	}
+
+	/**
+	 * Create a new {@link Revision} with qualifiers.
+	 *
+	 * @param major - the major revision number
+	 * @param minor - the minor revision number
+	 * @param build - the build number
+	 * @param extra - numbers after the build number without trailing zeros, or {@code null}
+	 * @param name - an unrecognized qualifier, or {@code null}
+	 * @param qualifier - the kind of qualifier, {@link Qualifier#RELEASE} if there is none
+	 * @param qualifierNumber - the number of the qualifier, 0 if there is none
+	 * @param snapshot - {@code true} if a SNAPSHOT
+	 */
+	public Revision(int major, int minor, int build, int[] extra, String name, Qualifier qualifier, int qualifierNumber,
+			boolean snapshot) {
 		this.major = major;
 		this.minor = minor;
 		this.build = build;
+		this.extra = extra;
+		this.name = name;
+		this.qualifier = qualifier == null ? Qualifier.RELEASE : qualifier;
+		this.qualifierNumber = qualifierNumber;
 		this.snapshot = snapshot;
+		updateKey();
 	}
 
 	/**
-	 * Get a numeric value indicating the revision level of this object.
-	 * This method assumes none of the major, minor, or build numbers will individually exceed 99.
+	 * Get a numeric value indicating the revision level of this object, for fast ordering.
 	 * <p>
-	 * The returned int will be have 5 or 6 digits. Working from right to left:
-	 * <ul>
-	 * <li>the first two right-most digits are the build number
-	 * <li>the next two digits (in the center) are the minor number
-	 * <li>the left-most digit or two digits are the major number
-	 * </ul>
-	 * Examples ("-SNAPSHOT" applies if .isSnapshot() == {@code true}) :
-	 * <ul>
-	 * <li>return value of {@code 110215} is &lt;version&gt;11.02.15&lt;/version&gt;
-	 * <li>return value of {@code 10104} is &lt;version&gt;01.01.04&lt;/version&gt;
-	 * <li>return value of {@code 3} is &lt;version&gt;00.00.03&lt;/version&gt;
-	 * </ul>
+	 * The major, minor and build numbers are packed into {@value #KEY_BITS} bits each, so that a larger value
+	 * is always a newer major.minor.build, for any size of number. Numbers that do not fit
+	 * are capped, so equal values are not always equal revisions, and {@link #compareTo(Revision)} must be used
+	 * for a complete comparison that includes qualifiers and SNAPSHOTs.
+	 *
+	 * @return long - the numeric rendition of the revisions
+	 */
+	public long getRevisionValue() {
+		return this.key;
+	}
+
+	/**
+	 * Order revisions as maven does: by each number, then the qualifier (alpha &lt; beta &lt; milestone &lt; rc
+	 * &lt; release &lt; sp), with a SNAPSHOT before the same revision without it.
+	 * Unrecognized qualifiers (e.g. release train names) are compared alphabetically before the known qualifiers,
+	 * and sort after versions without them.
 	 *
-	 * @return int - the numeric rendition of the revisions
+	 * @param other - the revision to compare to
+	 * @return int - negative, zero or positive as this revision is older, the same or newer than the other
+	 */
+	@Override
+	public int compareTo(Revision other) {
+		int order = compareRelease(other);
+		return order != 0 ? order : Boolean.compare(other.snapshot, this.snapshot);
+	}
+
+	/**
+	 * Compare revisions, ignoring whether they are SNAPSHOTs.
+	 */
+	private int compareRelease(Revision other) {
+		int order = Long.compare(this.key, other.key);
+		if (order != 0) {
+			return order;
+		}
+		// only differs if a number was too big for the key
+		order = Integer.compare(this.major, other.major);
+		if (order == 0) {
+			order = Integer.compare(this.minor, other.minor);
+		}
+		if (order == 0) {
+			order = Integer.compare(this.build, other.build);
+		}
+		if (order == 0) {
+			order = compareExtra(this.extra, other.extra);
+		}
+		if (order == 0 && this.name != other.name) {
+			if (this.name == null || other.name == null) {
+				order = this.name == null ? -1 : 1;
+			} else {
+				order = this.name.compareToIgnoreCase(other.name);
+			}
+		}
+		if (order == 0) {
+			order = this.qualifier.compareTo(other.qualifier);
+		}
+		if (order == 0) {
+			order = Integer.compare(this.qualifierNumber, other.qualifierNumber);
+		}
+		return order;
+	}
+
+	private static int compareExtra(int[] extra, int[] other) {
+		int length = Math.max(extra == null ? 0 : extra.length, other == null ? 0 : other.length);
+		for (int i = 0; i < length; i++) {
+			int order = Integer.compare(extra == null || i >= extra.length ? 0 : extra[i],
+					other == null || i >= other.length ? 0 : other[i]);
+			if (order != 0) {
+				return order;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Is this the SNAPSHOT of the build after the other revision's release,
+	 * e.g. 1.2.4-SNAPSHOT after 1.2.3?
+	 */
+	private boolean isNextBuildOf(Revision other) {
+		return this.major == other.major && this.minor == other.minor && this.build == other.build + 1
+				&& this.extra == null && other.extra == null
+				&& this.qualifier == other.qualifier && this.qualifierNumber == other.qualifierNumber
+				&& (this.name == null ? other.name == null : this.name.equalsIgnoreCase(other.name));
+	}
+
+	/**
+	 * Pack major, minor and build into the key.
+	 * A component too large for its bits fills the bits of the components after it too,
+	 * so the key never orders revisions wrongly, and ties are settled by {@link #compareRelease(Revision)}.
 	 */
-	public int getRevisionValue() {
-		return this.major * MULT_MAJOR + this.minor * MULT_MINOR + this.build;
+	private void updateKey() {
+		if (major < 0 || minor < 0 || build < 0) {
+			this.key = 0;
+		} else if (major >= KEY_MAX) {
+			this.key = (KEY_MAX << (2 * KEY_BITS)) | (KEY_MAX << KEY_BITS) | KEY_MAX;
+		} else if (minor >= KEY_MAX) {
+			this.key = ((long) major << (2 * KEY_BITS)) | (KEY_MAX << KEY_BITS) | KEY_MAX;
+		} else {
+			this.key = ((long) major << (2 * KEY_BITS)) | ((long) minor << KEY_BITS) | Math.min(build, KEY_MAX);
+		}
 	}
 
 	/**
@@ -83,63 +200,40 @@ public class Revision {
 	 * Therefore:
 	 * <ul>
 	 * <li>If both Revision objects have the same number revisions, but one is a snapshot, the snapshot is considered to be older.
-	 * <li>
+	 * <li>If this is the SNAPSHOT of the next build after the otherRevision release, the release is current.
 	 * </ul>
 	 *
-	 * @param otherRevision
-	 * @return
+	 * @param otherRevision - the revision to check against this current revision
+	 * @return AgeIndicator - the age of the otherRevision, {@link AgeIndicator#UNKNOWN} if it is {@code null}
 	 */
 	public AgeIndicator compare(Revision otherRevision) {
 		if (otherRevision == null) {
-
+			return AgeIndicator.UNKNOWN;
 		}
 
-		int thisValue = this.major * MULT_MAJOR + this.minor * MULT_MINOR + this.build;
-		int otherValue = otherRevision.getMajor() * MULT_MAJOR + otherRevision.getMinor() * MULT_MINOR + this.build;
+		int order = this.compareRelease(otherRevision);
 
 		// check if otherRevision is newer
-		if (thisValue < otherValue) {
-			if (otherRevision.isSnapshot()) {
-				return AgeIndicator.CURRENT_SNAPSHOT;
-			} else {
-				return AgeIndicator.CURRENT_RELEASE;
-			}
-		}
-		if (this.isSnapshot() && thisValue == otherValue && !otherRevision.isSnapshot()) {
-			return AgeIndicator.CURRENT_RELEASE;
+		if (order < 0) {
+			return otherRevision.isSnapshot() ? AgeIndicator.CURRENT_SNAPSHOT : AgeIndicator.CURRENT_RELEASE;
 		}
 
 		// check if otherRevision is current
-		if (thisValue == otherValue) {
-			if (otherRevision.isSnapshot() && this.isSnapshot()) {
-				return AgeIndicator.CURRENT_SNAPSHOT;
-			} else if (otherRevision.isSnapshot()) {
+		if (order == 0) {
+			if (otherRevision.isSnapshot() && !this.isSnapshot()) {
 				return AgeIndicator.OLD_SNAPSHOT;
-			} else if (this.isSnapshot()) { // should never get this, as it is handled above
-				return AgeIndicator.CURRENT_RELEASE;
-			} else { // neither are snapshots
-				return AgeIndicator.CURRENT_RELEASE;
 			}
+			return otherRevision.isSnapshot() ? AgeIndicator.CURRENT_SNAPSHOT : AgeIndicator.CURRENT_RELEASE;
 		}
 
 		// check how old otherRevision is
-		if (thisValue > otherValue) {
-			if (otherRevision.isSnapshot() && this.isSnapshot()) {
-				return AgeIndicator.OLD_SNAPSHOT;
-			} else if (!otherRevision.isSnapshot() && !this.isSnapshot()) {
-				return AgeIndicator.OLD_RELEASE;
-			} else if (this.isSnapshot()) { // otherRevision is not a snapshot
-				if (thisValue - otherValue == 1) {
-					return AgeIndicator.CURRENT_RELEASE;
-				} else {
-					return AgeIndicator.OLD_RELEASE;
-				}
-			} else { // otherRevision is a snapshot, this is not
-				return AgeIndicator.OLD_SNAPSHOT;
-			}
+		if (otherRevision.isSnapshot()) {
+			return AgeIndicator.OLD_SNAPSHOT;
+		} else if (!this.isSnapshot()) {
+			return AgeIndicator.OLD_RELEASE;
 		}
-
-		return null;
+		// this is a snapshot, otherRevision is not
+		return this.isNextBuildOf(otherRevision) ? AgeIndicator.CURRENT_RELEASE : AgeIndicator.OLD_RELEASE;
 	}
 
 	/**
@@ -158,6 +252,7 @@ public class Revision {
 	 */
 	public void setMajor(int major) {
 		this.major = major;
+		updateKey();
 	}
 
 	/**
@@ -176,6 +271,7 @@ public class Revision {
 	 */
 	public void setMinor(int minor) {
 		this.minor = minor;
+		updateKey();
 	}
 
 	/**
@@ -194,6 +290,7 @@ public class Revision {
 	 */
 	public void setBuild(int build) {
 		this.build = build;
+		updateKey();
 	}
 
 	/**
@@ -214,4 +311,51 @@ public class Revision {
 		this.snapshot = snapshot;
 	}
 
+	/**
+	 * Numbers after the build number (4th position onward), without trailing zeros.
+	 *
+	 * @return int[] - the numbers, or {@code null} if there are none
+	 */
+	public int[] getExtra() {
+		return extra;
+	}
+
+	/**
+	 * An unrecognized qualifier, e.g. the release train name in Finchley.SR2.
+	 *
+	 * @return String - the qualifier, or {@code null} if there is none
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * The kind of qualifier.
+	 *
+	 * @return Qualifier - the qualifier, {@link Qualifier#RELEASE} if there is none
+	 */
+	public Qualifier getQualifier() {
+		return qualifier;
+	}
+
+	/**
+	 * The number of the qualifier (e.g. 2 in RC2).
+	 *
+	 * @return int - the number, 0 if there is none
+	 */
+	public int getQualifierNumber() {
+		return qualifierNumber;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof Revision && compareTo((Revision) obj) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		// consistent with equals: trailing zeros are not in extra, and names are compared ignoring case
+		return Long.hashCode(key) * 31 + Arrays.hashCode(extra) * 17 + qualifier.hashCode()
+				+ qualifierNumber + (snapshot ? 1 : 0) + (name == null ? 0 : name.toLowerCase().hashCode());
+	}
 }
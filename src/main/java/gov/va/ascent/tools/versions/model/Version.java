@@ -1,8 +1,14 @@
 package gov.va.ascent.tools.versions.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import gov.va.ascent.tools.versions.RevisionParser;
 
@@ -11,10 +17,14 @@ import gov.va.ascent.tools.versions.RevisionParser;
  *
  * @author aburkholder
  */
-public class Version {
+public class Version implements Serializable {
+	private static final long serialVersionUID = 3L;
 
-	/** the relative path of the project from GIT_HOME, e.g. vetservices-refdata */
-	private Path projectPath;
+	/** The value used by the parser for missing elements */
+	public static final String NULL = "null";
+
+	/** the relative path of the project from GIT_HOME, e.g. vetservices-refdata (Path is not serializable) */
+	private transient Path projectPath;
 
 	/** {@code null} or the non-root parent element from the POM */
 	private PomTags hierarchyIdTag;
@@ -26,9 +36,17 @@ public class Version {
 	private String version;
 	/** the {@link Revision} information for the version */
 	private Revision revision;
+	/** the version as declared in the POM if it references properties (e.g. ${spring.version}), otherwise {@code null} */
+	private String declaredVersion;
+	/** the &lt;properties&gt; declared by a &lt;project&gt;, or {@code null} if there are none */
+	private Map<String, String> properties;
+	/** {@code true} if the dependency does not declare a version, so it comes from &lt;dependencyManagement&gt; */
+	private boolean managed;
+	/** groupId:artifactId:version of the POM whose &lt;dependencyManagement&gt; supplied the version, or {@code null} */
+	private String managedBy;
 
-	/** {@code true} if the artifact exists in nexus */
-	private Boolean exists;
+	/** {@code true} if the artifact exists in nexus - not serialized, as it is only valid for the current run */
+	private transient Boolean exists;
 
 	/** A Version object for the parent project */
 	private Version parent;
@@ -96,6 +114,7 @@ public class Version {
 	 * @param version - the explicit version declared for the artifact
 	 */
 	public Version(Path projectPath, PomTags hierarchyIdTag, String groupId, String artifactId, String version, Boolean exists) {
+		this.projectPath = projectPath;
 		this.hierarchyIdTag = hierarchyIdTag;
 		this.groupId = groupId;
 		this.artifactId = artifactId;
@@ -205,6 +224,19 @@ public class Version {
 		this.groupId = groupId;
 	}
 
+	/**
+	 * The &lt;groupId&gt; for the artifact version, or if it is not declared
+	 * (the project inherits it) the &lt;groupId&gt; of the &lt;parent&gt;.
+	 *
+	 * @return the effective groupId, which is "null" if it cannot be determined
+	 */
+	public String getEffectiveGroupId() {
+		if (NULL.equals(groupId) && parent != null) {
+			return parent.getGroupId();
+		}
+		return groupId;
+	}
+
 	/**
 	 * The &lt;artifactId&gt; for the artifact version.
 	 *
@@ -239,6 +271,81 @@ public class Version {
 	 */
 	public void setVersion(String version) {
 		this.version = version;
+		this.revision = RevisionParser.parseRevision(version);
+	}
+
+	/**
+	 * The &lt;version&gt; as declared in the POM, if it references properties.
+	 * The resolved value is in {@link #getVersion()}.
+	 *
+	 * @return the declared version (e.g. ${spring.version}), or {@code null} if the version is explicit
+	 */
+	public String getDeclaredVersion() {
+		return declaredVersion;
+	}
+
+	/**
+	 * The &lt;version&gt; as declared in the POM, if it references properties.
+	 *
+	 * @param declaredVersion the declared version to set, or {@code null} if the version is explicit
+	 */
+	public void setDeclaredVersion(String declaredVersion) {
+		this.declaredVersion = declaredVersion;
+	}
+
+	/**
+	 * The &lt;properties&gt; declared by the &lt;project&gt;, not including inherited properties.
+	 *
+	 * @return the properties, or {@code null} if there are none
+	 */
+	public Map<String, String> getProperties() {
+		return properties;
+	}
+
+	/**
+	 * The &lt;properties&gt; declared by the &lt;project&gt;.
+	 *
+	 * @param properties the properties to set, or {@code null} if there are none
+	 */
+	public void setProperties(Map<String, String> properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Does the dependency get its version from &lt;dependencyManagement&gt;, instead of declaring it?
+	 * The version is {@code null} until the managed version is found.
+	 *
+	 * @return boolean - {@code true} if the version is managed
+	 */
+	public boolean isManaged() {
+		return managed;
+	}
+
+	/**
+	 * Does the dependency get its version from &lt;dependencyManagement&gt;, instead of declaring it?
+	 *
+	 * @param managed - {@code true} if the version is managed
+	 */
+	public void setManaged(boolean managed) {
+		this.managed = managed;
+	}
+
+	/**
+	 * The POM whose &lt;dependencyManagement&gt; supplied the version of a managed dependency.
+	 *
+	 * @return String - the groupId:artifactId:version of the POM, or {@code null} if not managed or not found
+	 */
+	public String getManagedBy() {
+		return managedBy;
+	}
+
+	/**
+	 * The POM whose &lt;dependencyManagement&gt; supplied the version of a managed dependency.
+	 *
+	 * @param managedBy - the groupId:artifactId:version of the POM
+	 */
+	public void setManagedBy(String managedBy) {
+		this.managedBy = managedBy;
 	}
 
 	/**
@@ -302,4 +409,21 @@ public class Version {
 	public void setExists(Boolean exists) {
 		this.exists = exists;
 	}
+
+	/**
+	 * Serialize the projectPath as a string, as Path is not serializable.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeObject(projectPath == null ? null : projectPath.toString());
+	}
+
+	/**
+	 * Restore the projectPath from its serialized string.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		String path = (String) in.readObject();
+		projectPath = path == null ? null : Paths.get(path);
+	}
 }